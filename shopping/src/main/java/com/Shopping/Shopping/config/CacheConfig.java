@@ -0,0 +1,65 @@
+package com.Shopping.Shopping.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * In-process catalog caches.
+ *
+ * Single products are cached by id; product lists and the category list are short-lived
+ * because any product write invalidates them wholesale. Login principals are cached for
+ * the per-request JWT lookup and evicted explicitly on account changes. The manager is
+ * transaction-aware, so evictions issued inside a write transaction only apply once it commits.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String PRODUCTS = "products";
+    public static final String PRODUCT_LISTS = "productLists";
+    public static final String CATEGORIES = "categories";
+    public static final String USER_DETAILS = "userDetails";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${app.cache.products.max-size:10000}") long productsMaxSize,
+                                     @Value("${app.cache.products.ttl:10m}") Duration productsTtl,
+                                     @Value("${app.cache.product-lists.max-size:500}") long listsMaxSize,
+                                     @Value("${app.cache.product-lists.ttl:60s}") Duration listsTtl,
+                                     @Value("${app.cache.user-details.max-size:10000}") long userDetailsMaxSize,
+                                     @Value("${app.cache.user-details.ttl:60s}") Duration userDetailsTtl) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setAllowNullValues(false);
+        // Only the caches registered below exist; a mistyped cache name fails instead of growing unbounded
+        cacheManager.setCacheNames(List.of());
+        cacheManager.registerCustomCache(PRODUCTS, Caffeine.newBuilder()
+                .maximumSize(productsMaxSize)
+                .expireAfterWrite(productsTtl)
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(PRODUCT_LISTS, Caffeine.newBuilder()
+                .maximumSize(listsMaxSize)
+                .expireAfterWrite(listsTtl)
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(CATEGORIES, Caffeine.newBuilder()
+                .maximumSize(2)
+                .expireAfterWrite(listsTtl)
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(USER_DETAILS, Caffeine.newBuilder()
+                .maximumSize(userDetailsMaxSize)
+                .expireAfterWrite(userDetailsTtl)
+                .recordStats()
+                .build());
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
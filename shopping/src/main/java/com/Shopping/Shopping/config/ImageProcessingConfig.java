@@ -0,0 +1,32 @@
+package com.Shopping.Shopping.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Background executor for image derivative generation.
+ *
+ * Both the pool and its queue are bounded: decoding a large upload is CPU- and
+ * memory-heavy, so a burst of uploads waits (or is rejected and retried on the
+ * next request for a size) rather than starving request threads.
+ */
+@Configuration
+public class ImageProcessingConfig {
+
+    public static final String IMAGE_PROCESSING_EXECUTOR = "imageProcessingExecutor";
+
+    @Bean(name = IMAGE_PROCESSING_EXECUTOR)
+    public ThreadPoolTaskExecutor imageProcessingExecutor(@Value("${app.image.variants.threads:2}") int threads,
+                                                          @Value("${app.image.variants.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("image-variants-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
@@ -0,0 +1,123 @@
+package com.Shopping.Shopping.config;
+
+import com.Shopping.Shopping.service.DatabaseImageStore;
+import com.Shopping.Shopping.service.ImageStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * One-time move of image bytes kept in database BYTEA columns into the configured ImageStore.
+ *
+ * Legacy sources are the old product.image column, the product_images table and the
+ * product_image_variants.data column; with the filesystem store, blobs in image_blobs
+ * are moved out too. Each image is stored, its hash recorded and the source cleared in
+ * one transaction, so an interrupted run simply resumes. Sources that don't exist are skipped.
+ */
+@Component
+public class ImageStoreMigration implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageStoreMigration.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ImageStore imageStore;
+    private final int batchSize;
+
+    public ImageStoreMigration(JdbcTemplate jdbcTemplate,
+                               TransactionTemplate transactionTemplate,
+                               ImageStore imageStore,
+                               @Value("${app.image.migration.batch-size:200}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.imageStore = imageStore;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (columnExists("product", "image")) {
+            migrate("product.image",
+                    "SELECT id FROM product WHERE image IS NOT NULL ORDER BY id",
+                    "SELECT image FROM product WHERE id = ?",
+                    (id, hash) -> jdbcTemplate.update("UPDATE product SET image_hash = ?, image = NULL WHERE id = ?", hash, id));
+        }
+        if (tableExists("product_images")) {
+            jdbcTemplate.update("DELETE FROM product_images WHERE data IS NULL");
+            migrate("product_images",
+                    "SELECT product_id FROM product_images ORDER BY product_id",
+                    "SELECT data FROM product_images WHERE product_id = ?",
+                    (id, hash) -> {
+                        jdbcTemplate.update("UPDATE product SET image_hash = ? WHERE id = ?", hash, id);
+                        jdbcTemplate.update("DELETE FROM product_images WHERE product_id = ?", id);
+                    });
+        }
+        if (columnExists("product_image_variants", "data")) {
+            // Variants are re-creatable, so they are simply dropped and regenerated on demand
+            int dropped = jdbcTemplate.update("DELETE FROM product_image_variants WHERE data IS NOT NULL");
+            if (dropped > 0) {
+                logger.info("Dropped {} database-stored image variants; they are regenerated on request", dropped);
+            }
+        }
+        if (!(imageStore instanceof DatabaseImageStore) && tableExists("image_blobs")) {
+            migrate("image_blobs",
+                    "SELECT hash FROM image_blobs ORDER BY hash",
+                    "SELECT data FROM image_blobs WHERE hash = ?",
+                    (hash, stored) -> jdbcTemplate.update("DELETE FROM image_blobs WHERE hash = ?", hash));
+        }
+    }
+
+    /**
+     * Moves every row the id query returns; {@code finish} records the new hash and clears the source row.
+     */
+    private <K> void migrate(String source, String idQuery, String dataQuery, Finisher<K> finish) {
+        int migrated = 0;
+        while (true) {
+            @SuppressWarnings("unchecked")
+            List<K> ids = (List<K>) jdbcTemplate.queryForList(idQuery + " LIMIT " + batchSize, Object.class);
+            if (ids.isEmpty()) {
+                break;
+            }
+            if (migrated == 0) {
+                logger.info("Moving images from {} into the image store", source);
+            }
+            for (K id : ids) {
+                transactionTemplate.executeWithoutResult(status -> {
+                    byte[] data = jdbcTemplate.queryForObject(dataQuery, byte[].class, id);
+                    finish.apply(id, imageStore.put(data));
+                });
+            }
+            migrated += ids.size();
+        }
+        if (migrated > 0) {
+            logger.info("Moved {} images from {}; the source can now be dropped", migrated, source);
+        }
+    }
+
+    private boolean columnExists(String table, String column) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.columns " +
+                "WHERE LOWER(table_name) = ? AND LOWER(column_name) = ?",
+                Integer.class, table, column);
+        return count != null && count > 0;
+    }
+
+    private boolean tableExists(String table) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.tables WHERE LOWER(table_name) = ?",
+                Integer.class, table);
+        return count != null && count > 0;
+    }
+
+    @FunctionalInterface
+    private interface Finisher<K> {
+        void apply(K id, String hash);
+    }
+}
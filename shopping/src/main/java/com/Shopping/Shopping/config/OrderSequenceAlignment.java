@@ -0,0 +1,49 @@
+package com.Shopping.Shopping.config;
+
+import com.Shopping.Shopping.model.Orders;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves the orders id sequence past ids assigned while orders used an IDENTITY column.
+ *
+ * ddl-auto creates {@code orders_seq} starting at 1 even when the table already has rows.
+ * Runs once the schema is up to date and before the web server accepts requests; when the
+ * sequence is already ahead of every id it only costs one sequence value.
+ */
+@Component
+public class OrderSequenceAlignment {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderSequenceAlignment.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Dialect dialect;
+
+    public OrderSequenceAlignment(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+    }
+
+    @PostConstruct
+    public void align() {
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM orders", Long.class);
+        if (maxId == null) {
+            return;
+        }
+        String nextValue = dialect.getSequenceSupport().getSequenceNextValString(Orders.ID_SEQUENCE);
+        Long next = jdbcTemplate.queryForObject(nextValue, Long.class);
+        // The pooled optimizer hands out the block of ids ending at each value it reads, so
+        // the next block starts at next + 1 and is clear of old ids once next reaches the highest of them
+        if (next != null && next < maxId) {
+            long restart = maxId + Orders.ID_ALLOCATION_SIZE + 1;
+            jdbcTemplate.execute("ALTER SEQUENCE " + Orders.ID_SEQUENCE + " RESTART WITH " + restart);
+            logger.info("Moved {} from {} to {}, past existing order id {}", Orders.ID_SEQUENCE, next, restart, maxId);
+        }
+    }
+}
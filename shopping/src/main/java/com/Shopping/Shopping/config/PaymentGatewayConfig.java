@@ -0,0 +1,43 @@
+package com.Shopping.Shopping.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Executors for calls to the payment gateway and for the work that follows them.
+ *
+ * Gateway calls are blocking HTTP requests, so they run here rather than on request
+ * threads. The pool has one thread per bulkhead permit and no queue: a call either
+ * starts at once or is refused, and a slow gateway can hold at most this many threads.
+ * Storing an order once the gateway has answered runs on a separate small pool, so
+ * database work never holds a gateway thread or permit.
+ */
+@Configuration
+public class PaymentGatewayConfig {
+
+    public static final String PAYMENT_GATEWAY_EXECUTOR = "paymentGatewayExecutor";
+    public static final String PAYMENT_COMPLETION_EXECUTOR = "paymentCompletionExecutor";
+
+    @Bean(name = PAYMENT_GATEWAY_EXECUTOR)
+    public ThreadPoolTaskExecutor paymentGatewayExecutor(@Value("${app.payment.gateway.max-concurrent:16}") int maxConcurrent) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrent);
+        executor.setMaxPoolSize(maxConcurrent);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("payment-gateway-");
+        return executor;
+    }
+
+    @Bean(name = PAYMENT_COMPLETION_EXECUTOR)
+    public ThreadPoolTaskExecutor paymentCompletionExecutor(@Value("${app.payment.completion.threads:4}") int threads,
+                                                            @Value("${app.payment.completion.queue-capacity:1000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("payment-completion-");
+        return executor;
+    }
+}
@@ -1,9 +1,13 @@
 package com.Shopping.Shopping.config;
 
+import com.Shopping.Shopping.security.JsonErrors;
 import com.Shopping.Shopping.security.JwtAuthenticationFilter;
+import com.Shopping.Shopping.security.RouteClass;
+import com.Shopping.Shopping.security.RouteRegistry;
 import com.Shopping.Shopping.service.UserDetailsServiceImpl;
 import com.Shopping.Shopping.service.SellerDetailsService;
 import com.Shopping.Shopping.service.AdminDetailsService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
@@ -17,29 +21,44 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfigurationSource;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletResponse;
 
 @Configuration
 public class SecurityConfig {
 
+    // Error bodies are serialized once; the handlers below only copy bytes
+    private static final byte[] API_UNAUTHORIZED = JsonErrors.of("Unauthorized: JWT token is required");
+    private static final byte[] API_FORBIDDEN = JsonErrors.of("Forbidden: Insufficient permissions");
+    private static final byte[] ADMIN_UNAUTHORIZED = JsonErrors.of("Unauthorized: Admin access required");
+    private static final byte[] ADMIN_FORBIDDEN = JsonErrors.of("Forbidden: Admin access required");
+    private static final byte[] SELLER_UNAUTHORIZED = JsonErrors.of("Unauthorized: Seller access required");
+    private static final byte[] SELLER_FORBIDDEN = JsonErrors.of("Forbidden: Seller access required");
+
     private final UserDetailsServiceImpl userDetailsService;
     private final SellerDetailsService sellerDetailsService;
     private final AdminDetailsService adminDetailsService;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final RouteRegistry routes;
 
     public SecurityConfig(UserDetailsServiceImpl userDetailsService,
                           SellerDetailsService sellerDetailsService,
                           AdminDetailsService adminDetailsService,
-                          JwtAuthenticationFilter jwtAuthenticationFilter) {
+                          JwtAuthenticationFilter jwtAuthenticationFilter,
+                          RouteRegistry routes) {
         this.userDetailsService = userDetailsService;
         this.sellerDetailsService = sellerDetailsService;
         this.adminDetailsService = adminDetailsService;
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+        this.routes = routes;
     }
 
+    /**
+     * BCrypt cost is configurable; stored hashes with a different cost are re-hashed on the next login.
+     */
     @Bean
-    public static PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public static PasswordEncoder passwordEncoder(@Value("${app.auth.bcrypt.strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
 
     @Bean
@@ -76,33 +95,26 @@ public class SecurityConfig {
      */
     @Bean
     @Order(1)
-    public SecurityFilterChain adminFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain adminFilterChain(HttpSecurity http, PasswordEncoder passwordEncoder) throws Exception {
         http
                 .securityMatcher("/api/v1/admin/**")
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .formLogin(form -> form.disable())
                 .httpBasic(basic -> basic.disable())
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/api/v1/admin/login").permitAll()
-                        .requestMatchers("/api/v1/admin/**").hasRole("ADMIN")
-                        .anyRequest().authenticated()
+                        .requestMatchers(routes.matcher(RouteClass.PUBLIC)).permitAll()
+                        .requestMatchers(routes.matcher(RouteClass.ADMIN)).hasRole(RouteClass.ADMIN.role())
+                        .requestMatchers(routes.matcher(RouteClass.AUTHENTICATED)).authenticated()
+                        .anyRequest().denyAll()
                 )
                 .exceptionHandling(ex -> ex
-                        .authenticationEntryPoint((request, response, authException) -> {
-                            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-                            response.setContentType("application/json");
-                            response.setCharacterEncoding("UTF-8");
-                            response.getWriter().write("{\"success\":false,\"message\":\"Unauthorized: Admin access required\",\"data\":null}");
-                        })
-                        .accessDeniedHandler((request, response, accessDeniedException) -> {
-                            response.setStatus(HttpServletResponse.SC_FORBIDDEN);
-                            response.setContentType("application/json");
-                            response.setCharacterEncoding("UTF-8");
-                            response.getWriter().write("{\"success\":false,\"message\":\"Forbidden: Admin access required\",\"data\":null}");
-                        })
+                        .authenticationEntryPoint((request, response, authException) ->
+                            JsonErrors.write(response, HttpServletResponse.SC_UNAUTHORIZED, ADMIN_UNAUTHORIZED))
+                        .accessDeniedHandler((request, response, accessDeniedException) ->
+                            JsonErrors.write(response, HttpServletResponse.SC_FORBIDDEN, ADMIN_FORBIDDEN))
                 )
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
-                .authenticationProvider(adminAuthProvider(passwordEncoder()))
+                .authenticationProvider(adminAuthProvider(passwordEncoder))
                 .csrf(csrf -> csrf.ignoringRequestMatchers("/api/v1/admin/**"));
 
         return http.build();
@@ -115,7 +127,8 @@ public class SecurityConfig {
      */
     @Bean
     @Order(0) // Changed to 0 to ensure it's checked FIRST, before admin chain
-    public SecurityFilterChain apiFilterChain(HttpSecurity http, CorsConfigurationSource corsConfigurationSource) throws Exception {
+    public SecurityFilterChain apiFilterChain(HttpSecurity http, CorsConfigurationSource corsConfigurationSource,
+                                              PasswordEncoder passwordEncoder) throws Exception {
         http
             .securityMatcher("/api/**")
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
@@ -124,30 +137,28 @@ public class SecurityConfig {
             .httpBasic(basic -> basic.disable())
             .logout(logout -> logout.disable())
             .authorizeHttpRequests(auth -> auth
-                .requestMatchers("/api/v1/products/**", "/api/v1/auth/signup", "/api/v1/auth/login", "/api/v1/seller/signup", "/api/v1/seller/login", "/api/v1/admin/login").permitAll()
-                .requestMatchers("/api/v1/user/**", "/api/v1/cart/**", "/api/v1/payment/**").hasRole("USER")
-                .requestMatchers("/api/v1/seller/**").hasRole("SELLER")
-                .requestMatchers("/api/v1/admin/**").hasRole("ADMIN")
-                .anyRequest().authenticated()
+                // The original request of an async response (e.g. payment create-order) was
+                // already authorized; its completion dispatch carries no JWT principal
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                // Route classes come from RouteRegistry, which the JWT filter also uses
+                .requestMatchers(routes.matcher(RouteClass.PUBLIC)).permitAll()
+                .requestMatchers(routes.matcher(RouteClass.USER)).hasRole(RouteClass.USER.role())
+                .requestMatchers(routes.matcher(RouteClass.SELLER)).hasRole(RouteClass.SELLER.role())
+                .requestMatchers(routes.matcher(RouteClass.ADMIN)).hasRole(RouteClass.ADMIN.role())
+                .requestMatchers(routes.matcher(RouteClass.AUTHENTICATED)).authenticated()
+                // Unregistered API paths (RouteClass.DENIED)
+                .anyRequest().denyAll()
             )
             .exceptionHandling(ex -> ex
-                .authenticationEntryPoint((request, response, authException) -> {
-                    response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-                    response.setContentType("application/json");
-                    response.setCharacterEncoding("UTF-8");
-                    response.getWriter().write("{\"success\":false,\"message\":\"Unauthorized: JWT token is required\",\"data\":null}");
-                })
-                .accessDeniedHandler((request, response, accessDeniedException) -> {
-                    response.setStatus(HttpServletResponse.SC_FORBIDDEN);
-                    response.setContentType("application/json");
-                    response.setCharacterEncoding("UTF-8");
-                    response.getWriter().write("{\"success\":false,\"message\":\"Forbidden: Insufficient permissions\",\"data\":null}");
-                })
+                .authenticationEntryPoint((request, response, authException) ->
+                    JsonErrors.write(response, HttpServletResponse.SC_UNAUTHORIZED, API_UNAUTHORIZED))
+                .accessDeniedHandler((request, response, accessDeniedException) ->
+                    JsonErrors.write(response, HttpServletResponse.SC_FORBIDDEN, API_FORBIDDEN))
             )
             .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
-            .authenticationProvider(userAuthProvider(passwordEncoder()))
-            .authenticationProvider(sellerAuthProvider(passwordEncoder()))
-            .authenticationProvider(adminAuthProvider(passwordEncoder()))
+            .authenticationProvider(userAuthProvider(passwordEncoder))
+            .authenticationProvider(sellerAuthProvider(passwordEncoder))
+            .authenticationProvider(adminAuthProvider(passwordEncoder))
             .cors(cors -> cors.configurationSource(corsConfigurationSource))
             .csrf(csrf -> csrf.ignoringRequestMatchers("/api/**"));
 
@@ -159,33 +170,26 @@ public class SecurityConfig {
      */
     @Bean
     @Order(2)
-    public SecurityFilterChain sellerFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain sellerFilterChain(HttpSecurity http, PasswordEncoder passwordEncoder) throws Exception {
         http
                 .securityMatcher("/api/v1/seller/**")
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .formLogin(form -> form.disable())
                 .httpBasic(basic -> basic.disable())
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/api/v1/seller/signup", "/api/v1/seller/login").permitAll()
-                        .requestMatchers("/api/v1/seller/**").hasRole("SELLER")
-                        .anyRequest().authenticated()
+                        .requestMatchers(routes.matcher(RouteClass.PUBLIC)).permitAll()
+                        .requestMatchers(routes.matcher(RouteClass.SELLER)).hasRole(RouteClass.SELLER.role())
+                        .requestMatchers(routes.matcher(RouteClass.AUTHENTICATED)).authenticated()
+                        .anyRequest().denyAll()
                 )
                 .exceptionHandling(ex -> ex
-                        .authenticationEntryPoint((request, response, authException) -> {
-                            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-                            response.setContentType("application/json");
-                            response.setCharacterEncoding("UTF-8");
-                            response.getWriter().write("{\"success\":false,\"message\":\"Unauthorized: Seller access required\",\"data\":null}");
-                        })
-                        .accessDeniedHandler((request, response, accessDeniedException) -> {
-                            response.setStatus(HttpServletResponse.SC_FORBIDDEN);
-                            response.setContentType("application/json");
-                            response.setCharacterEncoding("UTF-8");
-                            response.getWriter().write("{\"success\":false,\"message\":\"Forbidden: Seller access required\",\"data\":null}");
-                        })
+                        .authenticationEntryPoint((request, response, authException) ->
+                            JsonErrors.write(response, HttpServletResponse.SC_UNAUTHORIZED, SELLER_UNAUTHORIZED))
+                        .accessDeniedHandler((request, response, accessDeniedException) ->
+                            JsonErrors.write(response, HttpServletResponse.SC_FORBIDDEN, SELLER_FORBIDDEN))
                 )
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
-                .authenticationProvider(sellerAuthProvider(passwordEncoder()))
+                .authenticationProvider(sellerAuthProvider(passwordEncoder))
                 .csrf(csrf -> csrf.ignoringRequestMatchers("/api/v1/seller/**"));
 
         return http.build();
@@ -197,7 +201,7 @@ public class SecurityConfig {
      */
     @Bean
     @Order(3)
-    public SecurityFilterChain userFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain userFilterChain(HttpSecurity http, PasswordEncoder passwordEncoder) throws Exception {
         http
                 .securityMatcher(request -> {
                     String path = request.getRequestURI();
@@ -210,11 +214,11 @@ public class SecurityConfig {
                 .formLogin(form -> form.disable())
                 .httpBasic(basic -> basic.disable())
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/css/**", "/js/**", "/images/**", "/uploads/**", "/product-image/**").permitAll()
+                        .requestMatchers(routes.matcher(RouteClass.PUBLIC)).permitAll()
                         .anyRequest().denyAll() // Deny all non-API requests in API-only mode
                 )
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
-                .authenticationProvider(userAuthProvider(passwordEncoder()))
+                .authenticationProvider(userAuthProvider(passwordEncoder))
                 .csrf(csrf -> csrf.disable());
 
         return http.build();
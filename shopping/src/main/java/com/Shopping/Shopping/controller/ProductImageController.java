@@ -0,0 +1,133 @@
+package com.Shopping.Shopping.controller;
+
+import com.Shopping.Shopping.service.ProductImageService;
+import com.Shopping.Shopping.service.ProductImageService.ImageDescriptor;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves the image behind every ProductDTO.imageUrl.
+ *
+ * URLs carrying the content hash as {@code ?v=} are immutable and cached for a year;
+ * bare URLs must revalidate with If-None-Match. Single byte ranges are honored.
+ * Large images kept as local files are handed to Tomcat for sendfile.
+ * {@code ?size=} selects a resized variant; while it is still being generated the
+ * original is served with a revalidating Cache-Control so clients pick up the variant later.
+ */
+@RestController
+public class ProductImageController {
+
+    private static final String IMMUTABLE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable().getHeaderValue();
+    private static final String REVALIDATE = CacheControl.noCache().cachePublic().getHeaderValue();
+
+    // Tomcat's sendfile request attributes (see org.apache.coyote.Constants)
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final ProductImageService productImageService;
+
+    public ProductImageController(ProductImageService productImageService) {
+        this.productImageService = productImageService;
+    }
+
+    @GetMapping("/product-image/{id}")
+    public void getProductImage(@PathVariable Long id,
+                                @RequestParam(name = "v", required = false) String version,
+                                @RequestParam(name = "size", required = false) Integer size,
+                                HttpServletRequest request,
+                                HttpServletResponse response) throws IOException {
+        Optional<ImageDescriptor> imageOpt = productImageService.describe(id, size);
+        if (imageOpt.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        ImageDescriptor image = imageOpt.get();
+        response.setHeader(HttpHeaders.ETAG, image.etag());
+        boolean immutable = version != null && version.equals(image.version())
+                && (size == null || image.width() != ProductImageService.ORIGINAL);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, immutable ? IMMUTABLE : REVALIDATE);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (matchesEtag(request.getHeader(HttpHeaders.IF_NONE_MATCH), image.etag())) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long start = 0;
+        long end = image.length() - 1;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (rangeHeader != null && image.length() > 0 && (ifRange == null || ifRange.equals(image.etag()))) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(rangeHeader);
+            } catch (IllegalArgumentException e) {
+                ranges = List.of();
+            }
+            // Multipart range responses aren't worth it for images; serve those in full
+            if (ranges.size() == 1) {
+                HttpRange range = ranges.get(0);
+                try {
+                    start = range.getRangeStart(image.length());
+                    end = range.getRangeEnd(image.length());
+                } catch (IllegalArgumentException e) {
+                    start = image.length();
+                }
+                if (start >= image.length() || start > end) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + image.length());
+                    response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + image.length());
+            }
+        }
+
+        response.setContentType(image.contentType());
+        response.setContentLengthLong(end - start + 1);
+        if (image.length() == 0) {
+            return;
+        }
+        Optional<Path> file = productImageService.file(image);
+        if (file.isPresent() && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // The connector streams the file from the kernel page cache after this method returns
+            request.setAttribute(SENDFILE_FILENAME, file.get().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        productImageService.write(image, start, end, response.getOutputStream());
+    }
+
+    private static boolean matchesEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
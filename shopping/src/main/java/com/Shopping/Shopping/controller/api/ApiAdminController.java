@@ -1,6 +1,7 @@
 package com.Shopping.Shopping.controller.api;
 
 import com.Shopping.Shopping.dto.ApiResponse;
+import com.Shopping.Shopping.dto.PageResponse;
 import com.Shopping.Shopping.dto.ProductDTO;
 import com.Shopping.Shopping.dto.SellerDTO;
 import com.Shopping.Shopping.dto.UserDTO;
@@ -11,7 +12,27 @@ import com.Shopping.Shopping.repository.ProductRepository;
 import com.Shopping.Shopping.repository.SellerRepository;
 import com.Shopping.Shopping.repository.UserRepository;
 import com.Shopping.Shopping.security.JwtTokenProvider;
+import com.Shopping.Shopping.security.RouteRegistry;
+import com.Shopping.Shopping.security.TokenEpochs;
+import com.Shopping.Shopping.service.LoginThrottledException;
+import com.Shopping.Shopping.service.PasswordVerificationService;
 import com.Shopping.Shopping.service.AdminDetailsService;
+import com.Shopping.Shopping.service.CartStore;
+import com.Shopping.Shopping.service.IdempotencyStore;
+import com.Shopping.Shopping.service.PaymentGatewayClient;
+import com.Shopping.Shopping.service.PaymentSignatureVerifier;
+import com.Shopping.Shopping.service.ProductService;
+import com.Shopping.Shopping.service.SellerDetailsService;
+import com.Shopping.Shopping.service.UserDetailsServiceImpl;
+import com.Shopping.Shopping.util.KeysetPage;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -21,43 +42,81 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
-import java.util.List;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/v1/admin")
 public class ApiAdminController {
 
+    private static final Set<String> ID_SORT = Set.of("id");
+    private static final Set<String> PRODUCT_SORTS = Set.of("id", "price", "name");
+
     private final UserRepository userRepository;
     private final SellerRepository sellerRepository;
     private final ProductRepository productRepository;
     private final JwtTokenProvider tokenProvider;
     private final PasswordEncoder passwordEncoder;
     private final AdminDetailsService adminDetailsService;
+    private final ProductService productService;
+    private final CacheManager cacheManager;
+    private final UserDetailsServiceImpl userDetailsService;
+    private final SellerDetailsService sellerDetailsService;
+    private final TokenEpochs tokenEpochs;
+    private final PasswordVerificationService passwordVerificationService;
+    private final RouteRegistry routeRegistry;
+    private final CartStore cartStore;
+    private final PaymentGatewayClient paymentGatewayClient;
+    private final IdempotencyStore idempotencyStore;
+    private final PaymentSignatureVerifier paymentSignatureVerifier;
 
     public ApiAdminController(UserRepository userRepository,
                              SellerRepository sellerRepository,
                              ProductRepository productRepository,
                              JwtTokenProvider tokenProvider,
                              PasswordEncoder passwordEncoder,
-                             AdminDetailsService adminDetailsService) {
+                             AdminDetailsService adminDetailsService,
+                             ProductService productService,
+                             CacheManager cacheManager,
+                             UserDetailsServiceImpl userDetailsService,
+                             SellerDetailsService sellerDetailsService,
+                             TokenEpochs tokenEpochs,
+                             PasswordVerificationService passwordVerificationService,
+                             RouteRegistry routeRegistry,
+                             CartStore cartStore,
+                             PaymentGatewayClient paymentGatewayClient,
+                             IdempotencyStore idempotencyStore,
+                             PaymentSignatureVerifier paymentSignatureVerifier) {
         this.userRepository = userRepository;
         this.sellerRepository = sellerRepository;
         this.productRepository = productRepository;
         this.tokenProvider = tokenProvider;
         this.passwordEncoder = passwordEncoder;
         this.adminDetailsService = adminDetailsService;
+        this.productService = productService;
+        this.cacheManager = cacheManager;
+        this.userDetailsService = userDetailsService;
+        this.sellerDetailsService = sellerDetailsService;
+        this.tokenEpochs = tokenEpochs;
+        this.passwordVerificationService = passwordVerificationService;
+        this.routeRegistry = routeRegistry;
+        this.cartStore = cartStore;
+        this.paymentGatewayClient = paymentGatewayClient;
+        this.idempotencyStore = idempotencyStore;
+        this.paymentSignatureVerifier = paymentSignatureVerifier;
     }
 
     @PostMapping("/login")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> login(@RequestBody LoginRequest request) {
+    public ResponseEntity<ApiResponse<Map<String, Object>>> login(@RequestBody LoginRequest request,
+                                                                  HttpServletRequest httpRequest) {
         try {
             // Load admin details directly (avoiding AuthenticationManager loop)
             UserDetails userDetails = adminDetailsService.loadUserByUsername(request.getUsername());
             
             // Verify password
-            if (!passwordEncoder.matches(request.getPassword(), userDetails.getPassword())) {
+            if (!passwordVerificationService.matches("admin:" + userDetails.getUsername(), httpRequest.getRemoteAddr(),
+                    request.getPassword(), userDetails.getPassword())) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(ApiResponse.error("Invalid username or password"));
             }
@@ -72,6 +131,10 @@ public class ApiAdminController {
             response.put("roles", userDetails.getAuthorities());
 
             return ResponseEntity.ok(ApiResponse.success("Login successful", response));
+        } catch (LoginThrottledException e) {
+            return ResponseEntity.status(e.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(ApiResponse.error(e.getMessage()));
         } catch (UsernameNotFoundException e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                 .body(ApiResponse.error("Invalid username or password"));
@@ -81,14 +144,59 @@ public class ApiAdminController {
         }
     }
 
+    @GetMapping("/cache-stats")
+    public ResponseEntity<ApiResponse<Map<String, Map<String, Object>>>> getCacheStats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache instanceof TransactionAwareCacheDecorator decorator) {
+                cache = decorator.getTargetCache();
+            }
+            if (cache instanceof CaffeineCache caffeineCache) {
+                CacheStats cacheStats = caffeineCache.getNativeCache().stats();
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("size", caffeineCache.getNativeCache().estimatedSize());
+                entry.put("hits", cacheStats.hitCount());
+                entry.put("misses", cacheStats.missCount());
+                entry.put("hitRate", cacheStats.hitRate());
+                entry.put("evictions", cacheStats.evictionCount());
+                stats.put(name, entry);
+            }
+        }
+        return ResponseEntity.ok(ApiResponse.success(stats));
+    }
+
+    @GetMapping("/login-stats")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getLoginStats() {
+        return ResponseEntity.ok(ApiResponse.success(passwordVerificationService.getStats()));
+    }
+
+    @GetMapping("/route-stats")
+    public ResponseEntity<ApiResponse<Map<String, Long>>> getRouteStats() {
+        return ResponseEntity.ok(ApiResponse.success(routeRegistry.getRequestCounts()));
+    }
+
+    @GetMapping("/payment-stats")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getPaymentStats() {
+        Map<String, Object> stats = new LinkedHashMap<>(paymentGatewayClient.getStats());
+        stats.put("idempotencyKeys", idempotencyStore.getStats());
+        stats.put("signatures", paymentSignatureVerifier.getStats());
+        return ResponseEntity.ok(ApiResponse.success(stats));
+    }
+
     @GetMapping("/users")
-    public ResponseEntity<ApiResponse<List<UserDTO>>> getAllUsers() {
+    public ResponseEntity<ApiResponse<PageResponse<UserDTO>>> getAllUsers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         try {
-            List<User> users = userRepository.findAll();
-            List<UserDTO> userDTOs = users.stream()
-                .map(this::convertUserToDTO)
-                .collect(Collectors.toList());
-            return ResponseEntity.ok(ApiResponse.success(userDTOs));
+            Sort order = KeysetPage.sort("id", "asc", ID_SORT);
+            PageResponse<UserDTO> page = KeysetPage.page(
+                userRepository.findAllBy(KeysetPage.position(cursor, order), order, KeysetPage.limit(size)),
+                this::convertUserToDTO);
+            return ResponseEntity.ok(ApiResponse.success(page));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(ApiResponse.error("Failed to fetch users: " + e.getMessage()));
@@ -96,13 +204,18 @@ public class ApiAdminController {
     }
 
     @GetMapping("/sellers")
-    public ResponseEntity<ApiResponse<List<SellerDTO>>> getAllSellers() {
+    public ResponseEntity<ApiResponse<PageResponse<SellerDTO>>> getAllSellers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         try {
-            List<Seller> sellers = sellerRepository.findAll();
-            List<SellerDTO> sellerDTOs = sellers.stream()
-                .map(this::convertSellerToDTO)
-                .collect(Collectors.toList());
-            return ResponseEntity.ok(ApiResponse.success(sellerDTOs));
+            Sort order = KeysetPage.sort("id", "asc", ID_SORT);
+            PageResponse<SellerDTO> page = KeysetPage.page(
+                sellerRepository.findAllBy(KeysetPage.position(cursor, order), order, KeysetPage.limit(size)),
+                this::convertSellerToDTO);
+            return ResponseEntity.ok(ApiResponse.success(page));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(ApiResponse.error("Failed to fetch sellers: " + e.getMessage()));
@@ -110,13 +223,20 @@ public class ApiAdminController {
     }
 
     @GetMapping("/products")
-    public ResponseEntity<ApiResponse<List<ProductDTO>>> getAllProducts() {
+    public ResponseEntity<ApiResponse<PageResponse<ProductDTO>>> getAllProducts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "asc") String direction) {
         try {
-            List<Product> products = productRepository.findAll();
-            List<ProductDTO> productDTOs = products.stream()
-                .map(this::convertProductToDTO)
-                .collect(Collectors.toList());
-            return ResponseEntity.ok(ApiResponse.success(productDTOs));
+            Sort order = KeysetPage.sort(sort, direction, PRODUCT_SORTS);
+            PageResponse<ProductDTO> page = KeysetPage.page(
+                productRepository.findSummariesBy(KeysetPage.position(cursor, order), order, KeysetPage.limit(size)),
+                ProductDTO::from);
+            return ResponseEntity.ok(ApiResponse.success(page));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(ApiResponse.error("Failed to fetch products: " + e.getMessage()));
@@ -131,6 +251,13 @@ public class ApiAdminController {
         try {
             User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found"));
+            // Evictions are deferred to commit; the old name must go too if the username changes
+            userDetailsService.evict(user.getUsername());
+            userDetailsService.evict(request.getUsername());
+            if (!user.getUsername().equals(request.getUsername())) {
+                // Tokens name the account by username, so the old name's tokens must stop working
+                tokenEpochs.revoke(TokenEpochs.ROLE_USER, user.getUsername());
+            }
             user.setUsername(request.getUsername());
             user.setPhoneNumber(request.getPhoneNumber());
             user.setAlternateNumber(request.getAlternateNumber());
@@ -151,6 +278,11 @@ public class ApiAdminController {
         try {
             Seller seller = sellerRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Seller not found"));
+            sellerDetailsService.evict(seller.getUsername());
+            sellerDetailsService.evict(request.getUsername());
+            if (!seller.getUsername().equals(request.getUsername())) {
+                tokenEpochs.revoke(TokenEpochs.ROLE_SELLER, seller.getUsername());
+            }
             seller.setUsername(request.getUsername());
             seller.setEmail(request.getEmail());
             seller.setWhatsappNumber(request.getWhatsappNumber());
@@ -170,17 +302,12 @@ public class ApiAdminController {
             @PathVariable Long id,
             @RequestBody ProductUpdateRequest request) {
         try {
-            Product product = productRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Product not found"));
-            product.setName(request.getName());
-            product.setDescription(request.getDescription());
-            product.setPrice(request.getPrice());
-            product.setCategory(request.getCategory());
-            if (request.getUniqueProductId() != null) {
-                product.setUniqueProductId(request.getUniqueProductId());
-            }
-            productRepository.saveAndFlush(product);
-            return ResponseEntity.ok(ApiResponse.success("Product updated successfully", convertProductToDTO(product)));
+            Product product = productService.updateProduct(id, request.getName(), request.getDescription(),
+                request.getPrice(), request.getCategory(), request.getUniqueProductId());
+            return ResponseEntity.ok(ApiResponse.success("Product updated successfully", ProductDTO.from(product)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(ApiResponse.error("Failed to update product: " + e.getMessage()));
@@ -191,6 +318,11 @@ public class ApiAdminController {
     @Transactional
     public ResponseEntity<ApiResponse<String>> deleteUser(@PathVariable Long id) {
         try {
+            userRepository.findById(id).ifPresent(user -> {
+                userDetailsService.evict(user.getUsername());
+                tokenEpochs.revoke(TokenEpochs.ROLE_USER, user.getUsername());
+                cartStore.clear(user.getId());
+            });
             userRepository.deleteById(id);
             return ResponseEntity.ok(ApiResponse.success("User deleted successfully"));
         } catch (Exception e) {
@@ -203,6 +335,10 @@ public class ApiAdminController {
     @Transactional
     public ResponseEntity<ApiResponse<String>> deleteSeller(@PathVariable Long id) {
         try {
+            sellerRepository.findById(id).ifPresent(seller -> {
+                sellerDetailsService.evict(seller.getUsername());
+                tokenEpochs.revoke(TokenEpochs.ROLE_SELLER, seller.getUsername());
+            });
             sellerRepository.deleteById(id);
             return ResponseEntity.ok(ApiResponse.success("Seller deleted successfully"));
         } catch (Exception e) {
@@ -215,7 +351,7 @@ public class ApiAdminController {
     @Transactional
     public ResponseEntity<ApiResponse<String>> deleteProduct(@PathVariable Long id) {
         try {
-            productRepository.deleteById(id);
+            productService.deleteProduct(id);
             return ResponseEntity.ok(ApiResponse.success("Product deleted successfully"));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -246,17 +382,6 @@ public class ApiAdminController {
         return dto;
     }
 
-    private ProductDTO convertProductToDTO(Product product) {
-        ProductDTO dto = new ProductDTO();
-        dto.setId(product.getId());
-        dto.setName(product.getName());
-        dto.setDescription(product.getDescription());
-        dto.setPrice(product.getPrice());
-        dto.setCategory(product.getCategory());
-        dto.setUniqueProductId(product.getUniqueProductId());
-        dto.setImageUrl("/product-image/" + product.getId());
-        return dto;
-    }
 
     @lombok.Data
     static class UserUpdateRequest {
@@ -5,7 +5,13 @@ import com.Shopping.Shopping.dto.UserDTO;
 import com.Shopping.Shopping.model.User;
 import com.Shopping.Shopping.repository.UserRepository;
 import com.Shopping.Shopping.security.JwtTokenProvider;
+import com.Shopping.Shopping.service.LoginThrottledException;
+import com.Shopping.Shopping.service.PasswordVerificationService;
 import com.Shopping.Shopping.service.UserDetailsServiceImpl;
+import com.Shopping.Shopping.service.UsernameFilter;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -26,21 +32,28 @@ public class ApiAuthController {
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider tokenProvider;
     private final UserDetailsServiceImpl userDetailsService;
+    private final PasswordVerificationService passwordVerificationService;
+    private final UsernameFilter usernameFilter;
 
     public ApiAuthController(UserRepository userRepository, 
                            PasswordEncoder passwordEncoder,
                            JwtTokenProvider tokenProvider,
-                           UserDetailsServiceImpl userDetailsService) {
+                           UserDetailsServiceImpl userDetailsService,
+                           PasswordVerificationService passwordVerificationService,
+                           UsernameFilter usernameFilter) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.tokenProvider = tokenProvider;
         this.userDetailsService = userDetailsService;
+        this.passwordVerificationService = passwordVerificationService;
+        this.usernameFilter = usernameFilter;
     }
 
     @PostMapping("/signup")
     public ResponseEntity<ApiResponse<UserDTO>> signup(@RequestBody SignupRequest request) {
         try {
-            if (userRepository.findByUsername(request.getUsername()).isPresent()) {
+            if (usernameFilter.mightExist(UsernameFilter.Accounts.USERS, request.getUsername())
+                    && userRepository.findByUsername(request.getUsername()).isPresent()) {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(ApiResponse.error("Username already exists"));
             }
@@ -59,6 +72,10 @@ public class ApiAuthController {
             User savedUser = userRepository.saveAndFlush(user);
             return ResponseEntity.status(HttpStatus.CREATED)
                 .body(ApiResponse.success("User registered successfully", convertToDTO(savedUser)));
+        } catch (DataIntegrityViolationException e) {
+            // Lost a race with a concurrent signup for the same name; the unique index caught it
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error("Username already exists"));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(ApiResponse.error("Registration failed: " + e.getMessage()));
@@ -66,17 +83,28 @@ public class ApiAuthController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> login(@RequestBody LoginRequest request) {
+    public ResponseEntity<ApiResponse<Map<String, Object>>> login(@RequestBody LoginRequest request,
+                                                                  HttpServletRequest httpRequest) {
         try {
             // Load user details directly (avoiding AuthenticationManager loop)
             UserDetails userDetails = userDetailsService.loadUserByUsername(request.getUsername());
             
             // Verify password
-            if (!passwordEncoder.matches(request.getPassword(), userDetails.getPassword())) {
+            if (!passwordVerificationService.matches("user:" + userDetails.getUsername(), httpRequest.getRemoteAddr(),
+                    request.getPassword(), userDetails.getPassword())) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(ApiResponse.error("Invalid username or password"));
             }
 
+            String username = userDetails.getUsername();
+            passwordVerificationService.rehashIfNeeded(request.getPassword(), userDetails.getPassword(), (oldHash, newHash) -> {
+                boolean updated = userRepository.updatePasswordHash(username, oldHash, newHash) == 1;
+                if (updated) {
+                    userDetailsService.evict(username);
+                }
+                return updated;
+            });
+
             // Generate token
             String token = tokenProvider.generateToken(userDetails);
 
@@ -89,6 +117,10 @@ public class ApiAuthController {
             response.put("user", userDTO);
 
             return ResponseEntity.ok(ApiResponse.success("Login successful", response));
+        } catch (LoginThrottledException e) {
+            return ResponseEntity.status(e.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(ApiResponse.error(e.getMessage()));
         } catch (UsernameNotFoundException e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                 .body(ApiResponse.error("Invalid username or password"));
@@ -1,153 +1,163 @@
 package com.Shopping.Shopping.controller.api;
 
 import com.Shopping.Shopping.dto.ApiResponse;
-import com.Shopping.Shopping.dto.CartItemDTO;
-import com.Shopping.Shopping.dto.ProductDTO;
-import com.Shopping.Shopping.model.CartItem;
-import com.Shopping.Shopping.model.Product;
-import com.Shopping.Shopping.service.ProductService;
-import jakarta.servlet.http.HttpSession;
+import com.Shopping.Shopping.dto.CartDTO;
+import com.Shopping.Shopping.service.CartService;
+import com.Shopping.Shopping.service.CartStore;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
 
 @RestController
 @RequestMapping("/api/v1/cart")
 public class ApiCartController {
 
-    private final ProductService productService;
+    private final CartService cartService;
 
-    public ApiCartController(ProductService productService) {
-        this.productService = productService;
+    public ApiCartController(CartService cartService) {
+        this.cartService = cartService;
     }
 
     @GetMapping
-    public ResponseEntity<ApiResponse<CartResponse>> getCart(HttpSession session) {
-        @SuppressWarnings("unchecked")
-        List<CartItem> cartItems = (List<CartItem>) session.getAttribute("cart");
-        if (cartItems == null) {
-            cartItems = new ArrayList<>();
+    public ResponseEntity<ApiResponse<CartDTO>> getCart(@AuthenticationPrincipal UserDetails userDetails) {
+        if (userDetails == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(ApiResponse.error("Not authenticated"));
+        }
+        try {
+            return ResponseEntity.ok(ApiResponse.success(cartService.getCart(userDetails.getUsername())));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ApiResponse.error("Failed to fetch cart: " + e.getMessage()));
         }
-
-        List<CartItemDTO> cartItemDTOs = cartItems.stream()
-            .map(this::convertToDTO)
-            .collect(Collectors.toList());
-
-        double total = cartItems.stream()
-            .mapToDouble(item -> item.getProduct().getPrice() * item.getQuantity())
-            .sum();
-
-        CartResponse response = new CartResponse(cartItemDTOs, total);
-        return ResponseEntity.ok(ApiResponse.success(response));
     }
 
     @PostMapping("/add/{productId}")
     public ResponseEntity<ApiResponse<String>> addToCart(
             @PathVariable Long productId,
             @RequestParam(defaultValue = "1") int quantity,
-            HttpSession session) {
+            @AuthenticationPrincipal UserDetails userDetails) {
+        if (userDetails == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(ApiResponse.error("Not authenticated"));
+        }
+        if (quantity <= 0) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error("Quantity must be positive"));
+        }
         try {
-            Product product = productService.getProductById(productId);
-            if (product == null) {
+            if (!cartService.addProductToCart(userDetails.getUsername(), productId, quantity)) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(ApiResponse.error("Product not found"));
             }
+            return ResponseEntity.ok(ApiResponse.success("Item added to cart"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ApiResponse.error("Failed to add item: " + e.getMessage()));
+        }
+    }
 
-            @SuppressWarnings("unchecked")
-            List<CartItem> cart = (List<CartItem>) session.getAttribute("cart");
-            if (cart == null) {
-                cart = new ArrayList<>();
-            }
-
-            boolean found = false;
-            for (CartItem item : cart) {
-                if (item.getProduct().getId().equals(productId)) {
-                    item.setQuantity(item.getQuantity() + quantity);
-                    found = true;
-                    break;
+    /**
+     * Applies an ordered list of add/set/remove operations as one change and returns the resulting cart.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse<CartDTO>> applyBatch(
+            @RequestBody CartBatchRequest request,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        if (userDetails == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(ApiResponse.error("Not authenticated"));
+        }
+        try {
+            List<CartStore.Operation> operations = new ArrayList<>();
+            if (request.getOperations() != null) {
+                for (CartBatchRequest.Operation operation : request.getOperations()) {
+                    operations.add(operation.toOperation());
                 }
             }
-
-            if (!found) {
-                cart.add(new CartItem(product, quantity));
-            }
-
-            session.setAttribute("cart", cart);
-            return ResponseEntity.ok(ApiResponse.success("Item added to cart"));
+            CartDTO cart = cartService.applyBatch(userDetails.getUsername(), operations);
+            return ResponseEntity.ok(ApiResponse.success("Cart updated", cart));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(ApiResponse.error("Failed to add item: " + e.getMessage()));
+                .body(ApiResponse.error("Failed to update cart: " + e.getMessage()));
         }
     }
 
     @DeleteMapping("/remove/{productId}")
     public ResponseEntity<ApiResponse<String>> removeFromCart(
             @PathVariable Long productId,
-            HttpSession session) {
-        @SuppressWarnings("unchecked")
-        List<CartItem> cart = (List<CartItem>) session.getAttribute("cart");
-        if (cart != null) {
-            cart.removeIf(item -> item.getProduct().getId().equals(productId));
-            session.setAttribute("cart", cart);
+            @AuthenticationPrincipal UserDetails userDetails) {
+        if (userDetails == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(ApiResponse.error("Not authenticated"));
+        }
+        try {
+            cartService.removeProductFromCart(userDetails.getUsername(), productId);
+            return ResponseEntity.ok(ApiResponse.success("Item removed from cart"));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ApiResponse.error("Failed to remove item: " + e.getMessage()));
         }
-        return ResponseEntity.ok(ApiResponse.success("Item removed from cart"));
     }
 
     @PutMapping("/update/{productId}")
     public ResponseEntity<ApiResponse<String>> updateQuantity(
             @PathVariable Long productId,
             @RequestParam int quantity,
-            HttpSession session) {
+            @AuthenticationPrincipal UserDetails userDetails) {
+        if (userDetails == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(ApiResponse.error("Not authenticated"));
+        }
         try {
-            @SuppressWarnings("unchecked")
-            List<CartItem> cart = (List<CartItem>) session.getAttribute("cart");
-            if (cart != null) {
-                for (CartItem item : cart) {
-                    if (item.getProduct().getId().equals(productId)) {
-                        if (quantity <= 0) {
-                            cart.remove(item);
-                        } else {
-                            item.setQuantity(quantity);
-                        }
-                        break;
-                    }
-                }
-                session.setAttribute("cart", cart);
-            }
+            cartService.updateProductQuantity(userDetails.getUsername(), productId, quantity);
             return ResponseEntity.ok(ApiResponse.success("Cart updated"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(ApiResponse.error("Failed to update cart: " + e.getMessage()));
         }
     }
 
-    private CartItemDTO convertToDTO(CartItem item) {
-        CartItemDTO dto = new CartItemDTO();
-        dto.setProduct(convertProductToDTO(item.getProduct()));
-        dto.setQuantity(item.getQuantity());
-        dto.setSubtotal(item.getProduct().getPrice() * item.getQuantity());
-        return dto;
-    }
-
-    private ProductDTO convertProductToDTO(Product product) {
-        ProductDTO dto = new ProductDTO();
-        dto.setId(product.getId());
-        dto.setName(product.getName());
-        dto.setDescription(product.getDescription());
-        dto.setPrice(product.getPrice());
-        dto.setCategory(product.getCategory());
-        dto.setImageUrl("/product-image/" + product.getId());
-        return dto;
-    }
-
     @lombok.Data
-    @lombok.AllArgsConstructor
-    static class CartResponse {
-        private List<CartItemDTO> items;
-        private double total;
+    static class CartBatchRequest {
+        private List<Operation> operations;
+
+        @lombok.Data
+        static class Operation {
+            private String op;
+            private Long productId;
+            private Integer quantity;
+
+            CartStore.Operation toOperation() {
+                if (op == null || productId == null) {
+                    throw new IllegalArgumentException("Each operation needs an op and a productId");
+                }
+                CartStore.Operation.Type type;
+                try {
+                    type = CartStore.Operation.Type.valueOf(op.toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Unknown cart operation: " + op);
+                }
+                if (type != CartStore.Operation.Type.REMOVE && quantity == null) {
+                    throw new IllegalArgumentException("Operation " + op + " needs a quantity");
+                }
+                return new CartStore.Operation(type, productId, quantity != null ? quantity : 0);
+            }
+        }
     }
 }
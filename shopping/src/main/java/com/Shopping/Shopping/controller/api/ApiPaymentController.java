@@ -2,16 +2,21 @@ package com.Shopping.Shopping.controller.api;
 
 import com.Shopping.Shopping.dto.ApiResponse;
 import com.Shopping.Shopping.dto.OrderDTO;
-import com.Shopping.Shopping.model.Orders;
-import com.Shopping.Shopping.model.Product;
+import com.Shopping.Shopping.dto.PageResponse;
+import com.Shopping.Shopping.dto.ProductDTO;
 import com.Shopping.Shopping.model.User;
 import com.Shopping.Shopping.repository.OrdersRepository;
-import com.Shopping.Shopping.repository.ProductRepository;
 import com.Shopping.Shopping.repository.UserRepository;
-import com.razorpay.Order;
-import com.razorpay.RazorpayClient;
-import org.json.JSONObject;
+import com.Shopping.Shopping.service.IdempotencyStore;
+import com.Shopping.Shopping.service.OrderService;
+import com.Shopping.Shopping.service.PaymentGatewayClient;
+import com.Shopping.Shopping.service.PaymentGatewayException;
+import com.Shopping.Shopping.service.ProductService;
+import com.Shopping.Shopping.service.UserDetailsServiceImpl;
+import com.Shopping.Shopping.util.KeysetPage;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -19,32 +24,45 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.LocalDateTime;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/v1/payment")
 public class ApiPaymentController {
 
+    private static final Set<String> ORDER_SORTS = Set.of("orderDate");
+
     private final String razorpayKey;
-    private final String razorpaySecret;
     private final OrdersRepository ordersRepository;
     private final UserRepository userRepository;
-    private final ProductRepository productRepository;
+    private final ProductService productService;
+    private final PaymentGatewayClient paymentGatewayClient;
+    private final OrderService orderService;
+    private final IdempotencyStore idempotencyStore;
+    private final UserDetailsServiceImpl userDetailsService;
 
     public ApiPaymentController(@Value("${razorpay.key}") String razorpayKey,
-                               @Value("${razorpay.secret}") String razorpaySecret,
                                OrdersRepository ordersRepository,
                                UserRepository userRepository,
-                               ProductRepository productRepository) {
+                               ProductService productService,
+                               PaymentGatewayClient paymentGatewayClient,
+                               OrderService orderService,
+                               IdempotencyStore idempotencyStore,
+                               UserDetailsServiceImpl userDetailsService) {
         this.razorpayKey = razorpayKey;
-        this.razorpaySecret = razorpaySecret;
         this.ordersRepository = ordersRepository;
         this.userRepository = userRepository;
-        this.productRepository = productRepository;
+        this.productService = productService;
+        this.paymentGatewayClient = paymentGatewayClient;
+        this.orderService = orderService;
+        this.idempotencyStore = idempotencyStore;
+        this.userDetailsService = userDetailsService;
     }
 
     @GetMapping("/buy-now/{productId}")
@@ -58,7 +76,7 @@ public class ApiPaymentController {
                     .body(ApiResponse.error("Not authenticated"));
             }
 
-            Product product = productRepository.findById(productId)
+            ProductDTO product = Optional.ofNullable(productService.getProductById(productId))
                 .orElseThrow(() -> new RuntimeException("Product not found"));
 
             User user = userRepository.findByUsername(userDetails.getUsername())
@@ -99,117 +117,156 @@ public class ApiPaymentController {
         }
     }
 
+    /**
+     * Runs asynchronously: the gateway call happens on the payment gateway pool and the
+     * request thread is released until it completes. A repeated {@code Idempotency-Key}
+     * gets the first response rather than a second gateway order. The amount charged is
+     * the checkout's total at current prices, never a figure from the client.
+     */
     @PostMapping("/create-order")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> createOrder(@RequestBody Map<String, Object> data) {
+    public CompletableFuture<ResponseEntity<ApiResponse<Map<String, Object>>>> createOrder(
+            @RequestBody Map<String, Object> data,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        if (userDetails == null) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(ApiResponse.error("Not authenticated")));
+        }
+        return idempotencyStore.execute("create-order:" + userDetails.getUsername(), idempotencyKey, data,
+            () -> createGatewayOrder(data, userDetails.getUsername()));
+    }
+
+    private CompletableFuture<ResponseEntity<ApiResponse<Map<String, Object>>>> createGatewayOrder(
+            Map<String, Object> data, String username) {
+        long amount;
         try {
-            int amount = (int) data.get("amount");
-            RazorpayClient client = new RazorpayClient(razorpayKey, razorpaySecret);
-            JSONObject options = new JSONObject();
-            options.put("amount", amount);
-            options.put("currency", "INR");
-            options.put("receipt", "txn_" + System.currentTimeMillis());
-
-            Order order = client.orders.create(options);
-            Map<String, Object> response = new HashMap<>();
-            response.put("id", order.get("id"));
-            response.put("amount", order.get("amount"));
-            response.put("key", razorpayKey);
+            // Charged at current prices; success refuses a payment whose gateway order differs
+            amount = orderService.quote(username, checkoutOf(data)).amountMinor();
+        } catch (RuntimeException e) {
+            return CompletableFuture.completedFuture(failed("Failed to create order: ", e));
+        }
+        return paymentGatewayClient.createOrder(amount, OrderService.CURRENCY, "txn_" + System.currentTimeMillis())
+            .thenApply(order -> {
+                Map<String, Object> response = new HashMap<>();
+                response.put("id", order.id());
+                response.put("amount", order.amountMinor());
+                response.put("key", razorpayKey);
+                return ResponseEntity.ok(ApiResponse.success(response));
+            })
+            .exceptionally(error -> failed("Failed to create order: ", error));
+    }
 
-            return ResponseEntity.ok(ApiResponse.success(response));
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(ApiResponse.error("Failed to create order: " + e.getMessage()));
+    private static <T> ResponseEntity<ApiResponse<T>> failed(String prefix, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof IllegalArgumentException) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error(cause.getMessage()));
+        }
+        if (cause instanceof PaymentGatewayException e) {
+            ResponseEntity.BodyBuilder response = ResponseEntity.status(e.getStatus());
+            if (e.getStatus() == HttpStatus.SERVICE_UNAVAILABLE) {
+                response.header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+            }
+            return response.body(ApiResponse.error(prefix + e.getMessage()));
         }
+        if (cause instanceof RejectedExecutionException) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ApiResponse.error(prefix + "server is busy, please retry"));
+        }
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+            .body(ApiResponse.error(prefix + cause.getMessage()));
     }
 
+    /**
+     * Records the payment once: a replayed confirmation, with or without an
+     * {@code Idempotency-Key}, returns the order that was already stored. Refused unless the
+     * gateway order charged exactly the checkout's total.
+     */
     @PostMapping("/success")
-    @Transactional
-    public ResponseEntity<ApiResponse<String>> handlePaymentSuccess(
+    public CompletableFuture<ResponseEntity<ApiResponse<OrderDTO>>> handlePaymentSuccess(
             @RequestBody Map<String, Object> data,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
             @AuthenticationPrincipal UserDetails userDetails) {
-        try {
-            if (userDetails == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(ApiResponse.error("Not authenticated"));
-            }
+        if (userDetails == null) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(ApiResponse.error("Not authenticated")));
+        }
+        return idempotencyStore.execute("success:" + userDetails.getUsername(), idempotencyKey, data,
+            () -> recordPayment(data, userDetails.getUsername()));
+    }
 
-            User user = userRepository.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    private CompletableFuture<ResponseEntity<ApiResponse<OrderDTO>>> recordPayment(Map<String, Object> data, String username) {
+        CompletableFuture<OrderService.RecordedOrder> recorded;
+        try {
+            recorded = orderService.recordPayment(username,
+                required(data, "razorpay_order_id"), required(data, "razorpay_payment_id"),
+                required(data, "razorpay_signature"), checkoutOf(data));
+        } catch (RuntimeException e) {
+            return CompletableFuture.completedFuture(failed("Failed to process payment: ", e));
+        }
+        return recorded
+            .thenApply(order -> {
+                String message = order.created() ? "Payment successful" : "Payment already recorded";
+                return ResponseEntity.ok(ApiResponse.success(message, order.order()));
+            })
+            .exceptionally(error -> failed("Failed to process payment: ", error));
+    }
 
-            double amount = 500.0;
-            if (data.containsKey("isBuyNow") && Boolean.TRUE.equals(data.get("isBuyNow"))) {
-                Object productIdObj = data.get("productId");
-                Object quantityObj = data.get("quantity");
-                if (productIdObj != null && quantityObj != null) {
-                    Long productId = Long.valueOf(productIdObj.toString());
-                    Integer quantity = Integer.valueOf(quantityObj.toString());
-                    Product product = productRepository.findById(productId)
-                        .orElseThrow(() -> new RuntimeException("Product not found"));
-                    amount = product.getPrice() * quantity;
-                }
-            } else {
-                if (data.containsKey("amount")) {
-                    amount = Double.parseDouble(data.get("amount").toString()) / 100.0;
-                }
-            }
+    /**
+     * What the client is paying for. The amount is always worked out from this on the
+     * server; an {@code amount} in the body is ignored.
+     */
+    private static OrderService.Checkout checkoutOf(Map<String, Object> data) {
+        if (Boolean.TRUE.equals(data.get("isBuyNow"))) {
+            return OrderService.Checkout.buyNow(Long.valueOf(required(data, "productId")),
+                Integer.parseInt(required(data, "quantity")));
+        }
+        return OrderService.Checkout.cart();
+    }
 
-            Orders order = new Orders();
-            order.setRazorpayPaymentId(data.get("razorpay_payment_id").toString());
-            order.setRazorpayOrderId(data.get("razorpay_order_id").toString());
-            order.setRazorpaySignature(data.get("razorpay_signature").toString());
-            order.setAmount((int)(amount * 100));
-            order.setOrderDate(LocalDateTime.now());
-            order.setUser(user);
-            order.setEmail(user.getUsername());
-
-            ordersRepository.save(order);
-            return ResponseEntity.ok(ApiResponse.success("Payment successful"));
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(ApiResponse.error("Failed to process payment: " + e.getMessage()));
+    private static String required(Map<String, Object> data, String field) {
+        Object value = data.get(field);
+        if (value == null || value.toString().isBlank()) {
+            throw new IllegalArgumentException("Missing " + field);
         }
+        return value.toString();
     }
 
+    /**
+     * The user's orders, newest first, a page at a time.
+     */
     @GetMapping("/orders")
-    public ResponseEntity<ApiResponse<List<OrderDTO>>> getUserOrders(
-            @AuthenticationPrincipal UserDetails userDetails) {
+    public ResponseEntity<ApiResponse<PageResponse<OrderDTO>>> getUserOrders(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         try {
             if (userDetails == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(ApiResponse.error("Not authenticated"));
             }
 
-            User user = userRepository.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+            Sort order = KeysetPage.sort("orderDate", "desc", ORDER_SORTS);
+            PageResponse<OrderDTO> page = KeysetPage.page(
+                ordersRepository.findSummariesByUserId(userDetailsService.idOf(userDetails.getUsername()),
+                    KeysetPage.position(cursor, order), order, KeysetPage.limit(size)),
+                OrderDTO::from);
 
-            List<Orders> orders = ordersRepository.findByUser(user);
-
-            List<OrderDTO> orderDTOs = orders.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
-
-            return ResponseEntity.ok(ApiResponse.success(orderDTOs));
+            return ResponseEntity.ok(ApiResponse.success(page));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(ApiResponse.error("Failed to fetch orders: " + e.getMessage()));
         }
     }
 
-    private OrderDTO convertToDTO(Orders order) {
-        OrderDTO dto = new OrderDTO();
-        dto.setId(order.getId());
-        dto.setRazorpayOrderId(order.getRazorpayOrderId());
-        dto.setRazorpayPaymentId(order.getRazorpayPaymentId());
-        dto.setAmount(order.getAmount() / 100.0);
-        dto.setOrderDate(order.getOrderDate());
-        dto.setEmail(order.getEmail());
-        return dto;
-    }
-
     @lombok.Data
     @lombok.AllArgsConstructor
     static class BuyNowResponse {
-        private Product product;
+        private ProductDTO product;
         private int quantity;
         private double amount;
         private boolean needsAddress;
@@ -1,20 +1,27 @@
 package com.Shopping.Shopping.controller.api;
 
 import com.Shopping.Shopping.dto.ApiResponse;
+import com.Shopping.Shopping.dto.CategoryFacetDTO;
+import com.Shopping.Shopping.dto.PageResponse;
 import com.Shopping.Shopping.dto.ProductDTO;
-import com.Shopping.Shopping.model.Product;
+import com.Shopping.Shopping.dto.ProductSummary;
 import com.Shopping.Shopping.service.ProductService;
+import com.Shopping.Shopping.util.KeysetPage;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/v1/products")
 public class ApiProductController {
 
+    private static final Set<String> PRODUCT_SORTS = Set.of("id", "price", "name");
+
     private final ProductService productService;
 
     public ApiProductController(ProductService productService) {
@@ -22,28 +29,48 @@ public class ApiProductController {
     }
 
     @GetMapping
-    public ResponseEntity<ApiResponse<List<ProductDTO>>> getAllProducts() {
+    public ResponseEntity<ApiResponse<PageResponse<ProductDTO>>> getAllProducts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "asc") String direction) {
         try {
-            List<Product> products = productService.getAllProducts();
-            List<ProductDTO> productDTOs = products.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
-            return ResponseEntity.ok(ApiResponse.success(productDTOs));
+            Sort order = KeysetPage.sort(sort, direction, PRODUCT_SORTS);
+            PageResponse<ProductDTO> page = KeysetPage.page(
+                productService.getProductsPage(KeysetPage.position(cursor, order), order, KeysetPage.limit(size)),
+                ProductDTO::from);
+            return ResponseEntity.ok(ApiResponse.success(page));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(ApiResponse.error("Failed to fetch products: " + e.getMessage()));
         }
     }
 
+    @GetMapping("/facets")
+    public ResponseEntity<ApiResponse<List<CategoryFacetDTO>>> getCategoryFacets() {
+        try {
+            List<CategoryFacetDTO> facets = productService.getCategoryFacets().stream()
+                .map(CategoryFacetDTO::from)
+                .collect(Collectors.toList());
+            return ResponseEntity.ok(ApiResponse.success(facets));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ApiResponse.error("Failed to fetch category facets: " + e.getMessage()));
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<ProductDTO>> getProductById(@PathVariable Long id) {
         try {
-            Product product = productService.getProductById(id);
+            ProductDTO product = productService.getProductById(id);
             if (product == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(ApiResponse.error("Product not found"));
             }
-            return ResponseEntity.ok(ApiResponse.success(convertToDTO(product)));
+            return ResponseEntity.ok(ApiResponse.success(product));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(ApiResponse.error("Failed to fetch product: " + e.getMessage()));
@@ -53,9 +80,9 @@ public class ApiProductController {
     @GetMapping("/category/{category}")
     public ResponseEntity<ApiResponse<List<ProductDTO>>> getProductsByCategory(@PathVariable String category) {
         try {
-            List<Product> products = productService.getProductsByCategory(category);
+            List<ProductSummary> products = productService.getProductsByCategory(category);
             List<ProductDTO> productDTOs = products.stream()
-                .map(this::convertToDTO)
+                .map(ProductDTO::from)
                 .collect(Collectors.toList());
             return ResponseEntity.ok(ApiResponse.success(productDTOs));
         } catch (Exception e) {
@@ -65,28 +92,22 @@ public class ApiProductController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<ApiResponse<List<ProductDTO>>> searchProducts(@RequestParam String query) {
+    public ResponseEntity<ApiResponse<PageResponse<ProductDTO>>> searchProducts(
+            @RequestParam String query,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         try {
-            List<Product> products = productService.searchProducts(query);
-            List<ProductDTO> productDTOs = products.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
-            return ResponseEntity.ok(ApiResponse.success(productDTOs));
+            PageResponse<ProductDTO> page = KeysetPage.page(
+                productService.searchProducts(query, KeysetPage.offset(cursor), KeysetPage.limit(size).max()),
+                ProductDTO::from);
+            return ResponseEntity.ok(ApiResponse.success(page));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(ApiResponse.error("Failed to search products: " + e.getMessage()));
         }
     }
 
-    private ProductDTO convertToDTO(Product product) {
-        ProductDTO dto = new ProductDTO();
-        dto.setId(product.getId());
-        dto.setName(product.getName());
-        dto.setDescription(product.getDescription());
-        dto.setPrice(product.getPrice());
-        dto.setCategory(product.getCategory());
-        dto.setUniqueProductId(product.getUniqueProductId());
-        dto.setImageUrl("/product-image/" + product.getId());
-        return dto;
-    }
 }
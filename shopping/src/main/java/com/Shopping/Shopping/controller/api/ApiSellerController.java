@@ -1,6 +1,7 @@
 package com.Shopping.Shopping.controller.api;
 
 import com.Shopping.Shopping.dto.ApiResponse;
+import com.Shopping.Shopping.dto.PageResponse;
 import com.Shopping.Shopping.dto.ProductDTO;
 import com.Shopping.Shopping.dto.SellerDTO;
 import com.Shopping.Shopping.model.Product;
@@ -8,8 +9,16 @@ import com.Shopping.Shopping.model.Seller;
 import com.Shopping.Shopping.repository.ProductRepository;
 import com.Shopping.Shopping.repository.SellerRepository;
 import com.Shopping.Shopping.security.JwtTokenProvider;
+import com.Shopping.Shopping.service.LoginThrottledException;
+import com.Shopping.Shopping.service.PasswordVerificationService;
 import com.Shopping.Shopping.service.ProductService;
 import com.Shopping.Shopping.service.SellerDetailsService;
+import com.Shopping.Shopping.service.UsernameFilter;
+import com.Shopping.Shopping.util.KeysetPage;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -23,46 +32,65 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/v1/seller")
 public class ApiSellerController {
 
+    private static final Set<String> PRODUCT_SORTS = Set.of("id", "price", "name");
+
     private final SellerRepository sellerRepository;
     private final ProductRepository productRepository;
     private final ProductService productService;
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider tokenProvider;
     private final SellerDetailsService sellerDetailsService;
+    private final PasswordVerificationService passwordVerificationService;
+    private final UsernameFilter usernameFilter;
 
     public ApiSellerController(SellerRepository sellerRepository,
                                ProductRepository productRepository,
                                ProductService productService,
                                PasswordEncoder passwordEncoder,
                                JwtTokenProvider tokenProvider,
-                               SellerDetailsService sellerDetailsService) {
+                               SellerDetailsService sellerDetailsService,
+                               PasswordVerificationService passwordVerificationService,
+                               UsernameFilter usernameFilter) {
         this.sellerRepository = sellerRepository;
         this.productRepository = productRepository;
         this.productService = productService;
         this.passwordEncoder = passwordEncoder;
         this.tokenProvider = tokenProvider;
         this.sellerDetailsService = sellerDetailsService;
+        this.passwordVerificationService = passwordVerificationService;
+        this.usernameFilter = usernameFilter;
     }
 
     @PostMapping("/login")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> login(@RequestBody LoginRequest request) {
+    public ResponseEntity<ApiResponse<Map<String, Object>>> login(@RequestBody LoginRequest request,
+                                                                  HttpServletRequest httpRequest) {
         try {
             // Load seller details directly (avoiding AuthenticationManager loop)
             UserDetails userDetails = sellerDetailsService.loadUserByUsername(request.getUsername());
             
             // Verify password
-            if (!passwordEncoder.matches(request.getPassword(), userDetails.getPassword())) {
+            if (!passwordVerificationService.matches("seller:" + userDetails.getUsername(), httpRequest.getRemoteAddr(),
+                    request.getPassword(), userDetails.getPassword())) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(ApiResponse.error("Invalid username or password"));
             }
 
+            String username = userDetails.getUsername();
+            passwordVerificationService.rehashIfNeeded(request.getPassword(), userDetails.getPassword(), (oldHash, newHash) -> {
+                boolean updated = sellerRepository.updatePasswordHash(username, oldHash, newHash) == 1;
+                if (updated) {
+                    sellerDetailsService.evict(username);
+                }
+                return updated;
+            });
+
             // Generate token
             String token = tokenProvider.generateToken(userDetails);
 
@@ -75,6 +103,10 @@ public class ApiSellerController {
             response.put("seller", sellerDTO);
 
             return ResponseEntity.ok(ApiResponse.success("Login successful", response));
+        } catch (LoginThrottledException e) {
+            return ResponseEntity.status(e.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(ApiResponse.error(e.getMessage()));
         } catch (UsernameNotFoundException e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                 .body(ApiResponse.error("Invalid username or password"));
@@ -103,7 +135,8 @@ public class ApiSellerController {
                     .body(ApiResponse.error("Email is required"));
             }
 
-            if (sellerRepository.findByUsername(request.getUsername()).isPresent()) {
+            if (usernameFilter.mightExist(UsernameFilter.Accounts.SELLERS, request.getUsername())
+                    && sellerRepository.findByUsername(request.getUsername()).isPresent()) {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(ApiResponse.error("Username already exists"));
             }
@@ -136,6 +169,10 @@ public class ApiSellerController {
             Seller savedSeller = sellerRepository.saveAndFlush(seller);
             return ResponseEntity.status(HttpStatus.CREATED)
                 .body(ApiResponse.success("Seller registered successfully", convertToDTO(savedSeller)));
+        } catch (DataIntegrityViolationException e) {
+            // Lost a race with a concurrent signup for the same name; the unique index caught it
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error("Username already exists"));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(ApiResponse.error("Registration failed: " + e.getMessage()));
@@ -180,6 +217,7 @@ public class ApiSellerController {
             }
 
             Seller updatedSeller = sellerRepository.saveAndFlush(seller);
+            sellerDetailsService.evict(updatedSeller.getUsername());
             return ResponseEntity.ok(ApiResponse.success("Profile updated successfully", convertToDTO(updatedSeller)));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -228,7 +266,10 @@ public class ApiSellerController {
 
             productService.saveProduct(product, request.getProductImage());
             return ResponseEntity.status(HttpStatus.CREATED)
-                .body(ApiResponse.success("Product uploaded successfully", convertProductToDTO(product)));
+                .body(ApiResponse.success("Product uploaded successfully", ProductDTO.from(product)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(ApiResponse.error("Failed to upload product: " + e.getMessage()));
@@ -236,8 +277,12 @@ public class ApiSellerController {
     }
 
     @GetMapping("/products")
-    public ResponseEntity<ApiResponse<List<ProductDTO>>> getMyProducts(
-            @AuthenticationPrincipal UserDetails userDetails) {
+    public ResponseEntity<ApiResponse<PageResponse<ProductDTO>>> getMyProducts(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "asc") String direction) {
         try {
             if (userDetails == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
@@ -247,12 +292,15 @@ public class ApiSellerController {
             Seller seller = sellerRepository.findByUsername(userDetails.getUsername())
                 .orElseThrow(() -> new RuntimeException("Seller not found"));
 
-            List<Product> products = productRepository.findBySeller(seller);
-            List<ProductDTO> productDTOs = products.stream()
-                .map(this::convertProductToDTO)
-                .collect(Collectors.toList());
+            Sort order = KeysetPage.sort(sort, direction, PRODUCT_SORTS);
+            PageResponse<ProductDTO> page = KeysetPage.page(
+                productRepository.findSummariesBySellerId(seller.getId(), KeysetPage.position(cursor, order), order, KeysetPage.limit(size)),
+                ProductDTO::from);
 
-            return ResponseEntity.ok(ApiResponse.success(productDTOs));
+            return ResponseEntity.ok(ApiResponse.success(page));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(ApiResponse.error("Failed to fetch products: " + e.getMessage()));
@@ -287,17 +335,6 @@ public class ApiSellerController {
         return dto;
     }
 
-    private ProductDTO convertProductToDTO(Product product) {
-        ProductDTO dto = new ProductDTO();
-        dto.setId(product.getId());
-        dto.setName(product.getName());
-        dto.setDescription(product.getDescription());
-        dto.setPrice(product.getPrice());
-        dto.setCategory(product.getCategory());
-        dto.setUniqueProductId(product.getUniqueProductId());
-        dto.setImageUrl("/product-image/" + product.getId());
-        return dto;
-    }
 
     private boolean isValidPassword(String password) {
         if (password == null || password.trim().isEmpty()) {
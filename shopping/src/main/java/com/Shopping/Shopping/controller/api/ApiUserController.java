@@ -2,11 +2,12 @@ package com.Shopping.Shopping.controller.api;
 
 import com.Shopping.Shopping.dto.ApiResponse;
 import com.Shopping.Shopping.dto.ProductDTO;
+import com.Shopping.Shopping.dto.ProductSummary;
 import com.Shopping.Shopping.dto.UserDTO;
-import com.Shopping.Shopping.model.Product;
 import com.Shopping.Shopping.model.User;
 import com.Shopping.Shopping.repository.UserRepository;
 import com.Shopping.Shopping.service.ProductService;
+import com.Shopping.Shopping.service.UserDetailsServiceImpl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -26,10 +27,13 @@ public class ApiUserController {
 
     private final UserRepository userRepository;
     private final ProductService productService;
+    private final UserDetailsServiceImpl userDetailsService;
 
-    public ApiUserController(UserRepository userRepository, ProductService productService) {
+    public ApiUserController(UserRepository userRepository, ProductService productService,
+                             UserDetailsServiceImpl userDetailsService) {
         this.userRepository = userRepository;
         this.productService = productService;
+        this.userDetailsService = userDetailsService;
     }
 
     @GetMapping("/profile")
@@ -69,6 +73,7 @@ public class ApiUserController {
             }
 
             User updatedUser = userRepository.saveAndFlush(user);
+            userDetailsService.evict(updatedUser.getUsername());
             return ResponseEntity.ok(ApiResponse.success("Profile updated successfully", convertToDTO(updatedUser)));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -93,9 +98,9 @@ public class ApiUserController {
         UserDTO userDTO = convertToDTO(userOpt.get());
         
         // Get all products for home page
-        List<Product> products = productService.getAllProducts();
+        List<ProductSummary> products = productService.getAllProducts();
         List<ProductDTO> productDTOs = products.stream()
-            .map(this::convertProductToDTO)
+            .map(ProductDTO::from)
             .collect(Collectors.toList());
         
         // Get all categories
@@ -110,17 +115,6 @@ public class ApiUserController {
         return ResponseEntity.ok(ApiResponse.success("Home data retrieved successfully", homeData));
     }
     
-    private ProductDTO convertProductToDTO(Product product) {
-        ProductDTO dto = new ProductDTO();
-        dto.setId(product.getId());
-        dto.setName(product.getName());
-        dto.setDescription(product.getDescription());
-        dto.setPrice(product.getPrice());
-        dto.setCategory(product.getCategory());
-        dto.setUniqueProductId(product.getUniqueProductId());
-        dto.setImageUrl("/product-image/" + product.getId());
-        return dto;
-    }
 
     private UserDTO convertToDTO(User user) {
         UserDTO dto = new UserDTO();
@@ -0,0 +1,14 @@
+package com.Shopping.Shopping.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class CartDTO {
+    private List<CartItemDTO> items;
+    private double total;
+    private long totalMinor;
+}
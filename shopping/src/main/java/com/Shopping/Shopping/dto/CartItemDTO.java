@@ -7,4 +7,7 @@ public class CartItemDTO {
     private ProductDTO product;
     private int quantity;
     private double subtotal;
+    /** Unit price and subtotal in paise; totals are summed from these. */
+    private long unitPriceMinor;
+    private long subtotalMinor;
 }
@@ -0,0 +1,21 @@
+package com.Shopping.Shopping.dto;
+
+import com.Shopping.Shopping.model.CategoryFacet;
+import lombok.Data;
+
+@Data
+public class CategoryFacetDTO {
+    private String category;
+    private long productCount;
+    private double minPrice;
+    private double maxPrice;
+
+    public static CategoryFacetDTO from(CategoryFacet facet) {
+        CategoryFacetDTO dto = new CategoryFacetDTO();
+        dto.setCategory(facet.getCategory());
+        dto.setProductCount(facet.getProductCount());
+        dto.setMinPrice(facet.getMinPrice());
+        dto.setMaxPrice(facet.getMaxPrice());
+        return dto;
+    }
+}
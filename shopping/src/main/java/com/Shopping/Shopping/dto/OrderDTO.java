@@ -1,5 +1,6 @@
 package com.Shopping.Shopping.dto;
 
+import com.Shopping.Shopping.model.Orders;
 import lombok.Data;
 import java.time.LocalDateTime;
 
@@ -11,4 +12,26 @@ public class OrderDTO {
     private double amount;
     private LocalDateTime orderDate;
     private String email;
+
+    public static OrderDTO from(Orders order) {
+        OrderDTO dto = new OrderDTO();
+        dto.setId(order.getId());
+        dto.setRazorpayOrderId(order.getRazorpayOrderId());
+        dto.setRazorpayPaymentId(order.getRazorpayPaymentId());
+        dto.setAmount(order.getAmount() / 100.0);
+        dto.setOrderDate(order.getOrderDate());
+        dto.setEmail(order.getEmail());
+        return dto;
+    }
+
+    public static OrderDTO from(OrderSummary summary) {
+        OrderDTO dto = new OrderDTO();
+        dto.setId(summary.getId());
+        dto.setRazorpayOrderId(summary.getRazorpayOrderId());
+        dto.setRazorpayPaymentId(summary.getRazorpayPaymentId());
+        dto.setAmount(summary.getAmount() / 100.0);
+        dto.setOrderDate(summary.getOrderDate());
+        dto.setEmail(summary.getEmail());
+        return dto;
+    }
 }
@@ -0,0 +1,15 @@
+package com.Shopping.Shopping.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * The order columns the order history needs, read without loading the Orders entity or its user.
+ */
+public interface OrderSummary {
+    Long getId();
+    String getRazorpayOrderId();
+    String getRazorpayPaymentId();
+    double getAmount();
+    LocalDateTime getOrderDate();
+    String getEmail();
+}
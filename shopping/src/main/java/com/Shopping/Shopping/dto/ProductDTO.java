@@ -1,5 +1,6 @@
 package com.Shopping.Shopping.dto;
 
+import com.Shopping.Shopping.model.Product;
 import lombok.Data;
 
 @Data
@@ -11,4 +12,39 @@ public class ProductDTO {
     private String category;
     private String uniqueProductId;
     private String imageUrl;
+
+    public static ProductDTO from(ProductSummary summary) {
+        return of(summary.getId(), summary.getName(), summary.getDescription(), summary.getPrice(),
+                summary.getCategory(), summary.getUniqueProductId(), summary.getImageHash());
+    }
+
+    public static ProductDTO from(ProductPrice price) {
+        return of(price.getId(), price.getName(), null, price.getPrice(), null, null, price.getImageHash());
+    }
+
+    public static ProductDTO from(Product product) {
+        return of(product.getId(), product.getName(), product.getDescription(), product.getPrice(),
+                product.getCategory(), product.getUniqueProductId(), product.getImageHash());
+    }
+
+    private static ProductDTO of(Long id, String name, String description, double price,
+                                 String category, String uniqueProductId, String imageHash) {
+        ProductDTO dto = new ProductDTO();
+        dto.setId(id);
+        dto.setName(name);
+        dto.setDescription(description);
+        dto.setPrice(price);
+        dto.setCategory(category);
+        dto.setUniqueProductId(uniqueProductId);
+        dto.setImageUrl(imageUrlFor(id, imageHash));
+        return dto;
+    }
+
+    /**
+     * Image URL for a product; the content hash makes the URL immutable so clients can cache it forever.
+     */
+    public static String imageUrlFor(Long productId, String imageHash) {
+        String url = "/product-image/" + productId;
+        return imageHash != null ? url + "?v=" + imageHash : url;
+    }
 }
@@ -0,0 +1,11 @@
+package com.Shopping.Shopping.dto;
+
+/**
+ * The product columns a cart needs to price and show its lines.
+ */
+public interface ProductPrice {
+    Long getId();
+    String getName();
+    double getPrice();
+    String getImageHash();
+}
@@ -0,0 +1,12 @@
+package com.Shopping.Shopping.dto;
+
+/**
+ * Text columns of a product, as read for building the search index.
+ */
+public interface ProductSearchDocument {
+    Long getId();
+    String getName();
+    String getDescription();
+    String getCategory();
+    String getUniqueProductId();
+}
@@ -0,0 +1,14 @@
+package com.Shopping.Shopping.dto;
+
+/**
+ * The product columns listings need, read without loading the Product entity or its seller.
+ */
+public interface ProductSummary {
+    Long getId();
+    String getName();
+    String getDescription();
+    double getPrice();
+    String getCategory();
+    String getUniqueProductId();
+    String getImageHash();
+}
@@ -0,0 +1,40 @@
+package com.Shopping.Shopping.model;
+
+import com.Shopping.Shopping.service.UsernameFilter;
+import com.Shopping.Shopping.service.UsernameFilter.Accounts;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Keeps {@link UsernameFilter} in step with every JPA write to users and sellers.
+ * Names are added before the INSERT/UPDATE is flushed, so the filter can only be ahead
+ * of the table, never behind it. Instantiated by Hibernate through Spring; a no-op in
+ * slices (such as JPA tests) that have no filter bean.
+ */
+public class AccountUsernameListener {
+
+    private final ObjectProvider<UsernameFilter> usernameFilter;
+
+    public AccountUsernameListener(ObjectProvider<UsernameFilter> usernameFilter) {
+        this.usernameFilter = usernameFilter;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void beforeWrite(Object account) {
+        usernameFilter.ifAvailable(filter -> {
+            if (account instanceof User user) {
+                filter.add(Accounts.USERS, user.getUsername());
+            } else if (account instanceof Seller seller) {
+                filter.add(Accounts.SELLERS, seller.getUsername());
+            }
+        });
+    }
+
+    @PostRemove
+    void afterRemove(Object account) {
+        usernameFilter.ifAvailable(filter -> filter.removed(account instanceof Seller ? Accounts.SELLERS : Accounts.USERS));
+    }
+}
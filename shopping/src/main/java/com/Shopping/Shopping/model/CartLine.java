@@ -0,0 +1,42 @@
+package com.Shopping.Shopping.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+/**
+ * One line of a user's cart. Read and written by InMemoryCartStore over JDBC;
+ * mapped so the schema is managed.
+ */
+@Entity
+@Table(name = "cart_items")
+@IdClass(CartLine.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+public class CartLine {
+
+    @Id
+    private Long userId;
+
+    @Id
+    private Long productId;
+
+    private int quantity;
+
+    /** Position in the cart, so lines come back in the order they were added. */
+    private int lineNo;
+
+    @EqualsAndHashCode
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long userId;
+        private Long productId;
+    }
+}
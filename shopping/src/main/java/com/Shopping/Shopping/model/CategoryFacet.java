@@ -0,0 +1,29 @@
+package com.Shopping.Shopping.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Per-category product count and price range, kept current by product writes
+ * so category lists never scan the product table.
+ */
+@Entity
+@Table(name = "category_facets")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryFacet {
+
+    @Id
+    private String category;
+
+    private long productCount;
+
+    private double minPrice;
+
+    private double maxPrice;
+}
@@ -0,0 +1,34 @@
+package com.Shopping.Shopping.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+
+/**
+ * Image bytes keyed by their SHA-256, used when images are stored in the database.
+ * Read and written by DatabaseImageStore over JDBC; mapped so the schema is managed.
+ */
+@Entity
+@Table(name = "image_blobs")
+@Getter
+@Setter
+@NoArgsConstructor
+public class ImageBlob {
+
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    private long length;
+
+    private Instant storedAt;
+
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(columnDefinition = "BYTEA")
+    private byte[] data;
+}
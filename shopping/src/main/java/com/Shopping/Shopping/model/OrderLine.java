@@ -0,0 +1,42 @@
+package com.Shopping.Shopping.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One product of a paid order, with the price it was sold at. Written in the same
+ * transaction as its order.
+ */
+@Entity
+@Table(name = "order_lines", indexes = @Index(name = "idx_order_lines_order_id", columnList = "order_id"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class OrderLine {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_lines_seq")
+    @SequenceGenerator(name = "order_lines_seq", sequenceName = "order_lines_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "order_id", nullable = false)
+    private Orders order;
+
+    /** Not a foreign key: the line must outlive the product. */
+    private Long productId;
+
+    private int quantity;
+
+    /** Price of one unit in paise when the order was placed. */
+    private long unitPriceMinor;
+
+    public OrderLine(Orders order, Long productId, int quantity, long unitPriceMinor) {
+        this.order = order;
+        this.productId = productId;
+        this.quantity = quantity;
+        this.unitPriceMinor = unitPriceMinor;
+    }
+}
@@ -6,13 +6,26 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = {
+    // One row per gateway order and per payment; also serve the replay lookups in OrderService
+    @Index(name = "uk_orders_razorpay_order_id", columnList = "razorpayOrderId", unique = true),
+    @Index(name = "uk_orders_razorpay_payment_id", columnList = "razorpayPaymentId", unique = true),
+    // A user's order history, newest first, read as an index range from the keyset cursor
+    @Index(name = "idx_orders_user_date_id", columnList = "user_id, orderDate, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Orders {
 
+    public static final String ID_SEQUENCE = "orders_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // Pooled sequence rather than IDENTITY: ids are known before the insert, so an order
+    // and its lines go out in JDBC batches. OrderSequenceAlignment keeps it past old ids.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     private String razorpayOrderId;
@@ -25,4 +38,8 @@ public class Orders {
 
     @ManyToOne
     private User user;
+
+    // Read-only view of the foreign key so order history can filter without joining users
+    @Column(name = "user_id", insertable = false, updatable = false)
+    private Long userId;
 }
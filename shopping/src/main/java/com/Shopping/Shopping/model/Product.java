@@ -1,18 +1,22 @@
 package com.Shopping.Shopping.model;
 
 import jakarta.persistence.*;
-import org.hibernate.annotations.JdbcTypeCode;
-import org.hibernate.type.SqlTypes;
-
-import java.util.Base64;
 
 @Entity
+@Table(indexes = {
+    @Index(name = "idx_product_price_id", columnList = "price, id"),
+    @Index(name = "idx_product_name_id", columnList = "name, id"),
+    @Index(name = "idx_product_seller_id", columnList = "seller_id, id"),
+    @Index(name = "idx_product_category_price", columnList = "category, price")
+})
 public class Product {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
+    // A keyset sort column (idx_product_name_id); a null name would have no place in the order
+    @Column(nullable = false)
     private String name;
     
     private String description;
@@ -21,18 +25,20 @@ public class Product {
     
     private String imageName;
     
-    @JdbcTypeCode(SqlTypes.BINARY)
-    @Column(columnDefinition = "BYTEA")
-    private byte[] image;
+    private String imageHash;
     
     private String category;
     
     private String uniqueProductId;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "seller_id", nullable = true)
     private Seller seller;
 
+    // Read-only view of the foreign key so seller listings can filter without joining sellers
+    @Column(name = "seller_id", insertable = false, updatable = false)
+    private Long sellerId;
+
     public Product() {}
 
     public Product(String name, String description, double price, String imageName, String category, String uniqueProductId, Seller seller) {
@@ -70,11 +76,9 @@ public class Product {
     public Seller getSeller() { return seller; }
     public void setSeller(Seller seller) { this.seller = seller; }
 
-    public byte[] getImage() { return image; }
-    public void setImage(byte[] image) { this.image = image; }
+    public Long getSellerId() { return sellerId; }
 
-    public String getImageBase64() {
-        return this.image != null ? Base64.getEncoder().encodeToString(this.image) : null;
-    }
+    public String getImageHash() { return imageHash; }
+    public void setImageHash(String imageHash) { this.imageHash = imageHash; }
 }
 
@@ -0,0 +1,59 @@
+package com.Shopping.Shopping.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+/**
+ * A resized, re-encoded copy of a product image, one row per configured width.
+ * The bytes live in the ImageStore under {@code imageHash}.
+ */
+@Entity
+@Table(name = "product_image_variants")
+@IdClass(ProductImageVariant.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+public class ProductImageVariant {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Id
+    private int width;
+
+    private int height;
+
+    private String imageHash;
+
+    private String contentType;
+
+    // Mapped only for the foreign key; rows are always written by product id
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_id", insertable = false, updatable = false)
+    private Product product;
+
+    public ProductImageVariant(Long productId, int width, int height, String imageHash, String contentType) {
+        this.productId = productId;
+        this.width = width;
+        this.height = height;
+        this.imageHash = imageHash;
+        this.contentType = contentType;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private Long productId;
+        private int width;
+    }
+}
@@ -9,7 +9,8 @@ import org.hibernate.type.SqlTypes;
 import java.util.Base64;
 
 @Entity
-@Table(name = "sellers")
+@Table(name = "sellers", indexes = @Index(name = "uk_sellers_username", columnList = "username", unique = true))
+@EntityListeners(AccountUsernameListener.class)
 @Getter
 @Setter
 public class Seller {
@@ -30,6 +31,8 @@ public class Seller {
     
     private String gstNumber;
 
+    // Lazy (needs the build's bytecode enhancement) so authentication and product reads skip the blob
+    @Basic(fetch = FetchType.LAZY)
     @JdbcTypeCode(SqlTypes.BINARY)
     @Column(columnDefinition = "BYTEA")
     private byte[] photo;
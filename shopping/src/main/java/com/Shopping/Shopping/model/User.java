@@ -9,7 +9,8 @@ import org.hibernate.type.SqlTypes;
 import java.util.Base64;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = @Index(name = "uk_users_username", columnList = "username", unique = true))
+@EntityListeners(AccountUsernameListener.class)
 @Getter
 @Setter
 public class User {
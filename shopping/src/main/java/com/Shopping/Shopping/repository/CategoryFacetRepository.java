@@ -0,0 +1,30 @@
+package com.Shopping.Shopping.repository;
+
+import com.Shopping.Shopping.model.CategoryFacet;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface CategoryFacetRepository extends JpaRepository<CategoryFacet, String> {
+
+    // Categories whose last product was removed keep a zero row instead of being deleted
+    List<CategoryFacet> findByProductCountGreaterThanOrderByCategoryAsc(long productCount);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT f FROM CategoryFacet f WHERE f.category = :category")
+    Optional<CategoryFacet> findForUpdate(@Param("category") String category);
+
+    // Both aggregates are answered from idx_product_category_price
+    @Query("SELECT new com.Shopping.Shopping.model.CategoryFacet(p.category, COUNT(p), MIN(p.price), MAX(p.price)) " +
+           "FROM Product p WHERE p.category = :category GROUP BY p.category")
+    Optional<CategoryFacet> computeFor(@Param("category") String category);
+
+    @Query("SELECT new com.Shopping.Shopping.model.CategoryFacet(p.category, COUNT(p), MIN(p.price), MAX(p.price)) " +
+           "FROM Product p WHERE p.category IS NOT NULL GROUP BY p.category")
+    List<CategoryFacet> computeAll();
+}
@@ -0,0 +1,7 @@
+package com.Shopping.Shopping.repository;
+
+import com.Shopping.Shopping.model.OrderLine;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface OrderLineRepository extends JpaRepository<OrderLine, Long> {
+}
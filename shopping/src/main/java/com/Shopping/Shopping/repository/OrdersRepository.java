@@ -1,7 +1,12 @@
 package com.Shopping.Shopping.repository;
 
+import com.Shopping.Shopping.dto.OrderSummary;
 import com.Shopping.Shopping.model.Orders;
 import com.Shopping.Shopping.model.User;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.List;
@@ -9,4 +14,7 @@ import java.util.List;
 public interface OrdersRepository extends JpaRepository<Orders, Long> {
     Orders findByRazorpayOrderId(String orderId);
     List<Orders> findByUser(User user);
+
+    // Order history selects only the OrderSummary columns: no entity hydration, no user join.
+    Window<OrderSummary> findSummariesByUserId(Long userId, ScrollPosition position, Sort sort, Limit limit);
 }
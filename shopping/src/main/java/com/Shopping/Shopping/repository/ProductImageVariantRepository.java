@@ -0,0 +1,19 @@
+package com.Shopping.Shopping.repository;
+
+import com.Shopping.Shopping.model.ProductImageVariant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface ProductImageVariantRepository extends JpaRepository<ProductImageVariant, ProductImageVariant.Key> {
+
+    @Query("SELECT v.imageHash FROM ProductImageVariant v WHERE v.productId = :productId")
+    List<String> findImageHashesByProductId(@Param("productId") Long productId);
+
+    @Modifying
+    @Query("DELETE FROM ProductImageVariant v WHERE v.productId = :productId")
+    void deleteByProductId(@Param("productId") Long productId);
+}
@@ -1,12 +1,22 @@
 package com.Shopping.Shopping.repository;
 
+import com.Shopping.Shopping.dto.ProductPrice;
+import com.Shopping.Shopping.dto.ProductSearchDocument;
+import com.Shopping.Shopping.dto.ProductSummary;
 import com.Shopping.Shopping.model.Product;
 import com.Shopping.Shopping.model.Seller;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Product> findByNameContainingIgnoreCase(String keyword);
@@ -16,14 +26,37 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Product> findByUniqueProductIdContainingIgnoreCase(String uniqueProductId);
     
     List<Product> findBySeller(Seller seller);
+
+    // Listings select only the ProductSummary columns: no entity hydration, no seller join.
+    // Keyset-paginated ones take sorts ending in id (see KeysetPage).
+    Window<ProductSummary> findSummariesBy(ScrollPosition position, Sort sort, Limit limit);
+
+    Window<ProductSummary> findSummariesBySellerId(Long sellerId, ScrollPosition position, Sort sort, Limit limit);
+
+    List<ProductSummary> findSummariesBy(Sort sort);
+
+    List<ProductSummary> findSummariesByCategoryContainingIgnoreCase(String category);
+
+    List<ProductSummary> findSummariesByIdIn(Collection<Long> ids);
+
+    Optional<ProductSummary> findSummaryById(Long id);
+
+    List<ProductPrice> findPricesByIdIn(Collection<Long> ids);
+
+    @Query("SELECT p.id FROM Product p WHERE p.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
     
-    @Query("SELECT DISTINCT p.category FROM Product p WHERE p.category IS NOT NULL ORDER BY p.category")
-    List<String> findDistinctCategories();
-    
-    @Query("SELECT p FROM Product p WHERE " +
+    @Query("SELECT p.id AS id, p.name AS name, p.description AS description, p.price AS price, " +
+           "p.category AS category, p.uniqueProductId AS uniqueProductId, p.imageHash AS imageHash " +
+           "FROM Product p WHERE " +
            "LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
            "LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
            "LOWER(p.category) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-           "LOWER(p.uniqueProductId) LIKE LOWER(CONCAT('%', :keyword, '%'))")
-    List<Product> searchProducts(@Param("keyword") String keyword);
+           "LOWER(p.uniqueProductId) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
+           "ORDER BY p.id")
+    List<ProductSummary> searchProductSummaries(@Param("keyword") String keyword);
+
+    @Query("SELECT p.id AS id, p.name AS name, p.description AS description, " +
+           "p.category AS category, p.uniqueProductId AS uniqueProductId FROM Product p")
+    Stream<ProductSearchDocument> streamSearchDocuments();
 }
@@ -1,10 +1,33 @@
 package com.Shopping.Shopping.repository;
 
 import com.Shopping.Shopping.model.Seller;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
 public interface SellerRepository extends JpaRepository<Seller, Long> {
     Optional<Seller> findByUsername(String username);
+
+    // The admin listing shows every seller's photo, so fetch it with the page instead of once per seller
+    @EntityGraph(attributePaths = "photo")
+    Window<Seller> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+
+    /**
+     * Replaces the password hash only if it is still {@code oldHash}, so a background
+     * re-hash never overwrites a password changed in the meantime.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Seller s SET s.password = :newHash WHERE s.username = :username AND s.password = :oldHash")
+    int updatePasswordHash(@Param("username") String username, @Param("oldHash") String oldHash,
+                           @Param("newHash") String newHash);
 }
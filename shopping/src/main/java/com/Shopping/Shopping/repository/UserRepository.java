@@ -2,11 +2,33 @@ package com.Shopping.Shopping.repository;
 
 
 import com.Shopping.Shopping.model.User;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
 
-}
\ No newline at end of file
+    @Query("SELECT u.id FROM User u WHERE u.username = :username")
+    Optional<Long> findIdByUsername(@Param("username") String username);
+
+    Window<User> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+
+    /**
+     * Replaces the password hash only if it is still {@code oldHash}, so a background
+     * re-hash never overwrites a password changed in the meantime.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :newHash WHERE u.username = :username AND u.password = :oldHash")
+    int updatePasswordHash(@Param("username") String username, @Param("oldHash") String oldHash,
+                           @Param("newHash") String newHash);
+}
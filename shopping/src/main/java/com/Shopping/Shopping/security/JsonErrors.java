@@ -0,0 +1,39 @@
+package com.Shopping.Shopping.security;
+
+import com.Shopping.Shopping.dto.ApiResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+
+/**
+ * Error bodies for responses written outside Spring MVC (security filters and entry points).
+ * Messages are fixed, so each body is serialized once, up front.
+ */
+public final class JsonErrors {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private JsonErrors() {}
+
+    /**
+     * The serialized {@link ApiResponse#error} body for a message.
+     */
+    public static byte[] of(String message) {
+        try {
+            return MAPPER.writeValueAsBytes(ApiResponse.error(message));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize error body", e);
+        }
+    }
+
+    public static void write(HttpServletResponse response, int status, byte[] body) throws IOException {
+        response.setStatus(status);
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+        response.flushBuffer();
+    }
+}
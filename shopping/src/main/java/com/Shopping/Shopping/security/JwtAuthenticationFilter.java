@@ -9,6 +9,8 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -16,51 +18,53 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.io.PrintWriter;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import java.util.HashMap;
-import java.util.Map;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final byte[] TOKEN_MISSING = JsonErrors.of("JWT token is missing");
+    private static final byte[] TOKEN_INVALID = JsonErrors.of("Invalid or expired JWT token");
+    private static final byte[] USER_NOT_FOUND = JsonErrors.of("Invalid token or user not found");
+    private static final byte[] AUTHENTICATION_FAILED = JsonErrors.of("Authentication failed");
+    private static final byte[] VALIDATION_FAILED = JsonErrors.of("JWT token validation failed");
+
     private final JwtTokenProvider tokenProvider;
     private final UserDetailsService userDetailsService;
     private final com.Shopping.Shopping.service.SellerDetailsService sellerDetailsService;
     private final com.Shopping.Shopping.service.AdminDetailsService adminDetailsService;
+    private final TokenEpochs tokenEpochs;
+    private final RouteRegistry routes;
+    private final boolean stateless;
 
     public JwtAuthenticationFilter(
             JwtTokenProvider tokenProvider,
             @Qualifier("userDetailsServiceImpl") UserDetailsService userDetailsService,
             com.Shopping.Shopping.service.SellerDetailsService sellerDetailsService,
-            com.Shopping.Shopping.service.AdminDetailsService adminDetailsService) {
+            com.Shopping.Shopping.service.AdminDetailsService adminDetailsService,
+            TokenEpochs tokenEpochs,
+            RouteRegistry routes,
+            @Value("${app.auth.stateless:false}") boolean stateless) {
         this.tokenProvider = tokenProvider;
         this.userDetailsService = userDetailsService;
         this.sellerDetailsService = sellerDetailsService;
         this.adminDetailsService = adminDetailsService;
+        this.tokenEpochs = tokenEpochs;
+        this.routes = routes;
+        this.stateless = stateless;
     }
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain)
             throws ServletException, IOException {
 
-        String requestPath = request.getRequestURI();
+        RouteRegistry.Route route = routes.classify(request);
+        routes.count(route.routeClass());
 
         // Skip JWT validation for public endpoints
-        if (requestPath.startsWith("/api/v1/products") ||
-            requestPath.startsWith("/api/v1/auth/signup") ||
-            requestPath.startsWith("/api/v1/auth/login") ||
-            requestPath.startsWith("/api/v1/seller/signup") ||
-            requestPath.startsWith("/api/v1/seller/login") ||
-            requestPath.startsWith("/api/v1/admin/login") ||
-            requestPath.startsWith("/product-image/") ||
-            requestPath.startsWith("/h2-console/") ||
-            requestPath.startsWith("/uploads/") ||
-            requestPath.startsWith("/css/") ||
-            requestPath.startsWith("/js/") ||
-            requestPath.startsWith("/images/")) {
+        if (route.isPublic()) {
             filterChain.doFilter(request, response);
             return;
         }
@@ -68,44 +72,36 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
 
-            // If no token provided, handle based on request type
+            // If no token provided: JSON error for API endpoints, login redirect for web pages
             if (jwt == null || jwt.trim().isEmpty()) {
-                // For API endpoints, return JSON error
-                if (requestPath.startsWith("/api/")) {
-                    sendUnauthorizedResponse(response, "JWT token is missing");
-                } else {
-                    // For web pages, redirect to appropriate login page
-                    if (requestPath.startsWith("/admin")) {
-                        sendUnauthorizedRedirect(response, "/admin-login");
-                    } else if (requestPath.startsWith("/seller")) {
-                        sendUnauthorizedRedirect(response, "/seller-login");
-                    } else {
-                        sendUnauthorizedRedirect(response, "/login");
-                    }
-                }
+                sendUnauthorized(response, route, TOKEN_MISSING);
                 return;
             }
 
-            // Validate token structure first (signature and expiration)
-            if (!tokenProvider.validateTokenStructure(jwt)) {
-                if (requestPath.startsWith("/api/")) {
-                    sendUnauthorizedResponse(response, "Invalid or expired JWT token");
-                } else {
-                    if (requestPath.startsWith("/admin")) {
-                        sendUnauthorizedRedirect(response, "/admin-login");
-                    } else if (requestPath.startsWith("/seller")) {
-                        sendUnauthorizedRedirect(response, "/seller-login");
-                    } else {
-                        sendUnauthorizedRedirect(response, "/login");
-                    }
-                }
+            // Signature and expiration are checked once; the claims come back already parsed
+            Optional<VerifiedToken> verified = tokenProvider.verify(jwt)
+                    .filter(token -> !tokenEpochs.isRevoked(token));
+            if (verified.isEmpty()) {
+                sendUnauthorized(response, route, TOKEN_INVALID);
                 return;
             }
 
-            String username = tokenProvider.getUsernameFromToken(jwt);
-            @SuppressWarnings("unchecked")
-            List<String> authorities = tokenProvider.getClaimFromToken(jwt, claims -> 
-                (List<String>) claims.get("authorities"));
+            String username = verified.get().username();
+            List<String> authorities = verified.get().authorities();
+
+            if (stateless && authorities != null) {
+                // The signed claims are the principal; revocation was checked against the token epochs above
+                UserDetails principal = User.withUsername(username)
+                        .password("")
+                        .authorities(authorities.toArray(String[]::new))
+                        .build();
+                UsernamePasswordAuthenticationToken authentication =
+                        new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+                filterChain.doFilter(request, response);
+                return;
+            }
 
             // Determine which UserDetailsService to use based on authorities
             UserDetails userDetails = null;
@@ -131,7 +127,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                     }
                 }
 
-                if (userDetails != null && tokenProvider.validateToken(jwt, userDetails)) {
+                if (userDetails != null && username.equals(userDetails.getUsername())) {
                     List<SimpleGrantedAuthority> grantedAuthorities = authorities != null ?
                         authorities.stream()
                             .map(SimpleGrantedAuthority::new)
@@ -152,45 +148,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                     // Continue with the filter chain
                     filterChain.doFilter(request, response);
                 } else {
-                    if (requestPath.startsWith("/api/")) {
-                        sendUnauthorizedResponse(response, "Invalid token or user not found");
-                    } else {
-                        if (requestPath.startsWith("/admin")) {
-                            sendUnauthorizedRedirect(response, "/admin-login");
-                        } else if (requestPath.startsWith("/seller")) {
-                            sendUnauthorizedRedirect(response, "/seller-login");
-                        } else {
-                            sendUnauthorizedRedirect(response, "/login");
-                        }
-                    }
+                    sendUnauthorized(response, route, USER_NOT_FOUND);
                 }
             } catch (Exception e) {
                 logger.error("Error loading user details", e);
-                if (requestPath.startsWith("/api/")) {
-                    sendUnauthorizedResponse(response, "Authentication failed: " + e.getMessage());
-                } else {
-                    if (requestPath.startsWith("/admin")) {
-                        sendUnauthorizedRedirect(response, "/admin-login");
-                    } else if (requestPath.startsWith("/seller")) {
-                        sendUnauthorizedRedirect(response, "/seller-login");
-                    } else {
-                        sendUnauthorizedRedirect(response, "/login");
-                    }
-                }
+                sendUnauthorized(response, route, AUTHENTICATION_FAILED);
             }
         } catch (Exception e) {
             logger.error("JWT authentication error", e);
-            if (requestPath.startsWith("/api/")) {
-                sendUnauthorizedResponse(response, "JWT token validation failed");
-            } else {
-                if (requestPath.startsWith("/admin")) {
-                    sendUnauthorizedRedirect(response, "/admin-login");
-                } else if (requestPath.startsWith("/seller")) {
-                    sendUnauthorizedRedirect(response, "/seller-login");
-                } else {
-                    sendUnauthorizedRedirect(response, "/login");
-                }
-            }
+            sendUnauthorized(response, route, VALIDATION_FAILED);
         }
     }
 
@@ -202,28 +168,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         return null;
     }
 
-
-    private void sendUnauthorizedResponse(HttpServletResponse response, String message) throws IOException {
-        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-        response.setContentType("application/json");
-        response.setCharacterEncoding("UTF-8");
-
-        Map<String, Object> errorResponse = new HashMap<>();
-        errorResponse.put("success", false);
-        errorResponse.put("message", message);
-        errorResponse.put("data", null);
-
-        ObjectMapper mapper = new ObjectMapper();
-        String jsonResponse = mapper.writeValueAsString(errorResponse);
-
-        PrintWriter writer = response.getWriter();
-        writer.write(jsonResponse);
-        writer.flush();
-    }
-
-    private void sendUnauthorizedRedirect(HttpServletResponse response, String loginPage) throws IOException {
-        // For web pages, redirect to login page
-        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-        response.sendRedirect(loginPage + "?error=Please login to access this page");
+    private void sendUnauthorized(HttpServletResponse response, RouteRegistry.Route route, byte[] body) throws IOException {
+        if (route.api()) {
+            JsonErrors.write(response, HttpServletResponse.SC_UNAUTHORIZED, body);
+        } else {
+            // For web pages, redirect to the route's login page
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            response.sendRedirect(route.loginPage() + "?error=Please login to access this page");
+        }
     }
 }
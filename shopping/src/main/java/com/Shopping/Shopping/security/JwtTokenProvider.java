@@ -1,8 +1,14 @@
 package com.Shopping.Shopping.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -10,12 +16,26 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
+/**
+ * Issues and verifies JWTs.
+ *
+ * The signing key and parser are built once. {@link #verify} parses a token a single
+ * time into a {@link VerifiedToken}, and remembers verified tokens (keyed by their
+ * SHA-256, never the raw token) until they expire, so repeat requests skip the
+ * HMAC and JSON work entirely.
+ */
 @Component
 public class JwtTokenProvider {
 
@@ -25,12 +45,44 @@ public class JwtTokenProvider {
     @Value("${jwt.expiration:86400000}") // 24 hours in milliseconds
     private long jwtExpiration;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+    @Value("${jwt.cache.max-size:10000}")
+    private long cacheMaxSize;
+
+    private static final String EPOCH_CLAIM = "epoch";
+
+    private SecretKey signingKey;
+    private JwtParser parser;
+    private Cache<String, VerifiedToken> verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser().verifyWith(signingKey).build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+                        return Math.max(0, Duration.between(Instant.now(), token.expiresAt()).toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
     }
 
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
+        // iat only has second precision; revocation needs to tell apart tokens issued in the same second
+        claims.put(EPOCH_CLAIM, System.currentTimeMillis());
         claims.put("authorities", userDetails.getAuthorities().stream()
                 .map(GrantedAuthority::getAuthority)
                 .collect(Collectors.toList()));
@@ -46,60 +98,86 @@ public class JwtTokenProvider {
                 .subject(subject)
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
-    public String getUsernameFromToken(String token) {
-        return getClaimFromToken(token, Claims::getSubject);
-    }
-
-    public Date getExpirationDateFromToken(String token) {
-        return getClaimFromToken(token, Claims::getExpiration);
-    }
-
-    public <T> T getClaimFromToken(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = getAllClaimsFromToken(token);
-        return claimsResolver.apply(claims);
+    /**
+     * Checks the token's signature and expiry and returns its claims, or empty if the
+     * token is malformed, forged or expired.
+     */
+    public Optional<VerifiedToken> verify(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        String key = sha256Hex(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(key);
+        if (cached != null) {
+            // The cache expires entries at exp, but only approximately
+            return cached.isExpired(Instant.now()) ? Optional.empty() : Optional.of(cached);
+        }
+        VerifiedToken verified = parse(token);
+        if (verified == null) {
+            return Optional.empty();
+        }
+        verifiedTokens.put(key, verified);
+        return Optional.of(verified);
     }
 
-    private Claims getAllClaimsFromToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    /**
+     * Uncached verification; one signature check and one JSON parse.
+     */
+    VerifiedToken parse(String token) {
+        try {
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            if (claims.getSubject() == null || claims.getExpiration() == null) {
+                return null;
+            }
+            Instant issuedAt = claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null;
+            return new VerifiedToken(
+                    claims.getSubject(),
+                    authoritiesOf(claims),
+                    issuedAt,
+                    claims.getExpiration().toInstant(),
+                    epochOf(claims, issuedAt));
+        } catch (JwtException | IllegalArgumentException e) {
+            // Expired tokens land here too: the parser rejects them
+            return null;
+        }
     }
 
-    public Boolean isTokenExpired(String token) {
-        final Date expiration = getExpirationDateFromToken(token);
-        return expiration.before(new Date());
+    public String extractToken(String bearerToken) {
+        if (bearerToken != null && bearerToken.startsWith("Bearer ")) {
+            return bearerToken.substring(7);
+        }
+        return null;
     }
 
-    public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = getUsernameFromToken(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+    private static List<String> authoritiesOf(Claims claims) {
+        Object authorities = claims.get("authorities");
+        if (!(authorities instanceof List<?> list)) {
+            return null;
+        }
+        return list.stream().map(String::valueOf).toList();
     }
 
     /**
-     * Validates token structure (signature and expiration) without requiring UserDetails.
-     * This is useful for initial validation before loading user details.
+     * Tokens issued before the epoch claim existed fall back to iat, or to 0 so that any
+     * revocation of their principal applies.
      */
-    public Boolean validateTokenStructure(String token) {
-        try {
-            // This will throw an exception if signature is invalid or token is malformed
-            getAllClaimsFromToken(token);
-            // Check if token is expired
-            return !isTokenExpired(token);
-        } catch (Exception e) {
-            return false;
+    private static long epochOf(Claims claims, Instant issuedAt) {
+        if (claims.get(EPOCH_CLAIM) instanceof Number epoch) {
+            return epoch.longValue();
         }
+        return issuedAt != null ? issuedAt.toEpochMilli() : 0L;
     }
 
-    public String extractToken(String bearerToken) {
-        if (bearerToken != null && bearerToken.startsWith("Bearer ")) {
-            return bearerToken.substring(7);
+    private static String sha256Hex(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
         }
-        return null;
     }
 }
@@ -0,0 +1,25 @@
+package com.Shopping.Shopping.security;
+
+/**
+ * Who may call a route. {@code role} is the Spring Security role the class requires, if any.
+ */
+public enum RouteClass {
+    PUBLIC(null),
+    USER("USER"),
+    SELLER("SELLER"),
+    ADMIN("ADMIN"),
+    /** Any signed-in principal, e.g. /api/v1/auth/me. */
+    AUTHENTICATED(null),
+    /** Server-rendered pages; this deployment is API-only. */
+    DENIED(null);
+
+    private final String role;
+
+    RouteClass(String role) {
+        this.role = role;
+    }
+
+    public String role() {
+        return role;
+    }
+}
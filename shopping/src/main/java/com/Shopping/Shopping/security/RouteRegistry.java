@@ -0,0 +1,159 @@
+package com.Shopping.Shopping.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The single table of which routes are public and which role each protected route needs.
+ *
+ * Routes are compiled once into a trie over path segments, so {@link #classify} costs one
+ * map lookup per segment. The most specific registration wins: an exact path beats a
+ * prefix, and a longer prefix beats a shorter one. SecurityConfig builds its matchers from
+ * here and the JWT filter uses it to skip public routes, so the two can't disagree.
+ *
+ * Requests are classified on the decoded path that the dispatcher routes on, so an encoded
+ * segment such as {@code %61dmin} is still an admin route. API paths under no registered
+ * prefix are denied rather than open to any signed-in principal.
+ */
+@Component
+public class RouteRegistry {
+
+    private static final Route DEFAULT_PAGE = new Route(RouteClass.DENIED, false, "/login");
+
+    private final Node root = new Node();
+    private final Map<RouteClass, LongAdder> requestCounts = new EnumMap<>(RouteClass.class);
+
+    public RouteRegistry() {
+        prefix("/api", RouteClass.DENIED);
+
+        prefix("/api/v1/auth", RouteClass.AUTHENTICATED);
+        prefix("/api/v1/products", RouteClass.PUBLIC);
+        exact("/api/v1/auth/signup", RouteClass.PUBLIC);
+        exact("/api/v1/auth/login", RouteClass.PUBLIC);
+        exact("/api/v1/seller/signup", RouteClass.PUBLIC);
+        exact("/api/v1/seller/login", RouteClass.PUBLIC);
+        exact("/api/v1/admin/login", RouteClass.PUBLIC);
+
+        prefix("/api/v1/user", RouteClass.USER);
+        prefix("/api/v1/cart", RouteClass.USER);
+        prefix("/api/v1/payment", RouteClass.USER);
+        prefix("/api/v1/seller", RouteClass.SELLER);
+        prefix("/api/v1/admin", RouteClass.ADMIN);
+
+        prefix("/css", RouteClass.PUBLIC);
+        prefix("/js", RouteClass.PUBLIC);
+        prefix("/images", RouteClass.PUBLIC);
+        prefix("/uploads", RouteClass.PUBLIC);
+        prefix("/product-image", RouteClass.PUBLIC);
+
+        page("/admin", "/admin-login");
+        page("/seller", "/seller-login");
+
+        for (RouteClass routeClass : RouteClass.values()) {
+            requestCounts.put(routeClass, new LongAdder());
+        }
+    }
+
+    public Route classify(HttpServletRequest request) {
+        return classify(pathOf(request));
+    }
+
+    public Route classify(String path) {
+        Node node = root;
+        Route match = DEFAULT_PAGE;
+        int start = 0;
+        int length = path.length();
+        while (node != null && start < length) {
+            if (path.charAt(start) == '/') {
+                start++;
+                continue;
+            }
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = length;
+            }
+            node = node.children.get(path.substring(start, end));
+            start = end;
+            if (node != null) {
+                if (start >= length && node.exact != null) {
+                    return node.exact;
+                }
+                if (node.prefix != null) {
+                    match = node.prefix;
+                }
+            }
+        }
+        return match;
+    }
+
+    /**
+     * Request matcher for every route of the given class, for SecurityConfig.
+     */
+    public RequestMatcher matcher(RouteClass routeClass) {
+        return request -> classify(request).routeClass() == routeClass;
+    }
+
+    public void count(RouteClass routeClass) {
+        requestCounts.get(routeClass).increment();
+    }
+
+    public Map<String, Long> getRequestCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        requestCounts.forEach((routeClass, count) -> counts.put(routeClass.name(), count.sum()));
+        return counts;
+    }
+
+    private void prefix(String path, RouteClass routeClass) {
+        node(path).prefix = new Route(routeClass, isApi(path), DEFAULT_PAGE.loginPage());
+    }
+
+    private void exact(String path, RouteClass routeClass) {
+        node(path).exact = new Route(routeClass, isApi(path), DEFAULT_PAGE.loginPage());
+    }
+
+    private void page(String path, String loginPage) {
+        node(path).prefix = new Route(RouteClass.DENIED, false, loginPage);
+    }
+
+    private Node node(String path) {
+        Node node = root;
+        for (String segment : path.substring(1).split("/")) {
+            node = node.children.computeIfAbsent(segment, s -> new Node());
+        }
+        return node;
+    }
+
+    private static boolean isApi(String path) {
+        return path.equals("/api") || path.startsWith("/api/");
+    }
+
+    private static String pathOf(HttpServletRequest request) {
+        // Decoded, without the context path or ;-parameters, as Spring MVC sees it
+        return UrlPathHelper.defaultInstance.getPathWithinApplication(request);
+    }
+
+    /**
+     * A route's class, whether it is part of the JSON API (errors as JSON) or a page
+     * (errors as a redirect to {@code loginPage}).
+     */
+    public record Route(RouteClass routeClass, boolean api, String loginPage) {
+
+        public boolean isPublic() {
+            return routeClass == RouteClass.PUBLIC;
+        }
+    }
+
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private Route prefix;
+        private Route exact;
+    }
+}
@@ -0,0 +1,86 @@
+package com.Shopping.Shopping.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Per-principal token epochs: tokens issued at or before a principal's epoch are revoked.
+ *
+ * Only principals revoked within the last token lifetime are held; any older token has
+ * expired anyway, so entries expire after {@code jwt.expiration} and the map stays small.
+ * Epochs live in memory on this instance and are forgotten on restart.
+ */
+@Component
+public class TokenEpochs {
+
+    public static final String ROLE_ADMIN = "ROLE_ADMIN";
+    public static final String ROLE_SELLER = "ROLE_SELLER";
+    public static final String ROLE_USER = "ROLE_USER";
+
+    private static final List<String> ROLES = List.of(ROLE_ADMIN, ROLE_SELLER, ROLE_USER);
+
+    private final Cache<String, Long> epochs;
+
+    public TokenEpochs(@Value("${jwt.expiration:86400000}") long jwtExpiration) {
+        this.epochs = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(Math.max(jwtExpiration, 0)))
+                .build();
+    }
+
+    /**
+     * Revokes every token issued so far to the given principal. Inside a transaction the
+     * epoch is bumped again on commit, so tokens issued while it was in flight die too.
+     */
+    public void revoke(String role, String username) {
+        bump(role, username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bump(role, username);
+                }
+            });
+        }
+    }
+
+    /**
+     * Whether the token was issued at or before its principal's epoch. Tokens without an
+     * authorities claim are checked against every role.
+     */
+    public boolean isRevoked(VerifiedToken token) {
+        if (token.authorities() == null) {
+            return ROLES.stream().anyMatch(role -> isRevoked(role, token));
+        }
+        return isRevoked(roleOf(token), token);
+    }
+
+    /**
+     * The role whose account the token belongs to, by the filter's precedence.
+     */
+    public static String roleOf(VerifiedToken token) {
+        if (token.hasAuthority(ROLE_ADMIN)) {
+            return ROLE_ADMIN;
+        }
+        return token.hasAuthority(ROLE_SELLER) ? ROLE_SELLER : ROLE_USER;
+    }
+
+    private boolean isRevoked(String role, VerifiedToken token) {
+        Long epoch = epochs.getIfPresent(key(role, token.username()));
+        return epoch != null && token.epoch() <= epoch;
+    }
+
+    private void bump(String role, String username) {
+        epochs.asMap().merge(key(role, username), System.currentTimeMillis(), Math::max);
+    }
+
+    private static String key(String role, String username) {
+        return role + ":" + username;
+    }
+}
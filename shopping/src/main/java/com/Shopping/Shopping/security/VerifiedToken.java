@@ -0,0 +1,25 @@
+package com.Shopping.Shopping.security;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Claims of a JWT whose signature and expiry have already been checked.
+ * Immutable, so one instance can be shared by every request carrying the same token.
+ * {@code authorities} is null for tokens that carry no authorities claim. {@code epoch} is the
+ * issue time in milliseconds, compared against {@link TokenEpochs} for revocation.
+ */
+public record VerifiedToken(String username, List<String> authorities, Instant issuedAt, Instant expiresAt, long epoch) {
+
+    public VerifiedToken {
+        authorities = authorities == null ? null : List.copyOf(authorities);
+    }
+
+    public boolean hasAuthority(String authority) {
+        return authorities != null && authorities.contains(authority);
+    }
+
+    public boolean isExpired(Instant now) {
+        return !expiresAt.isAfter(now);
+    }
+}
@@ -0,0 +1,354 @@
+package com.Shopping.Shopping.service;
+
+import com.Shopping.Shopping.util.ProductQuantities;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only local journal of cart changes, covering the window between a change and the
+ * next write-behind flush in {@link InMemoryCartStore}.
+ *
+ * Each record is a user's whole cart after a change, so replay keeps the last record per
+ * user and is idempotent. Appends are queued and a single writer thread writes and fsyncs
+ * them in groups every {@code app.cart.journal.commit-interval}; callers wait for their
+ * group, so a change acknowledged to the client survives a crash. Segments roll over at
+ * {@code app.cart.journal.segment-size}, and whenever the store checkpoints, so that once
+ * a flush has written every cart to the database the segments before the checkpoint are
+ * deleted. The database copy is the snapshot; the journal only ever holds the tail.
+ *
+ * Disabled unless {@code app.cart.journal.dir} is set. The directory must be on a disk
+ * that outlives the process for the journal to be of any use.
+ */
+@Component
+public class CartJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(CartJournal.class);
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("cart-(\\d{16})\\.log");
+    private static final int HEADER_BYTES = 8;
+    private static final Duration APPEND_TIMEOUT = Duration.ofSeconds(5);
+
+    private final Path dir;
+    private final long commitIntervalNanos;
+    private final long segmentSize;
+
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+
+    private Thread writer;
+    private volatile boolean running;
+
+    // Owned by the writer thread once it has started
+    private FileChannel channel;
+    private long segmentId;
+    private long segmentBytes;
+
+    public CartJournal(@Value("${app.cart.journal.dir:}") String dir,
+                       @Value("${app.cart.journal.commit-interval:5ms}") Duration commitInterval,
+                       @Value("${app.cart.journal.segment-size:16777216}") long segmentSize) {
+        this.dir = dir.isBlank() ? null : Path.of(dir);
+        this.commitIntervalNanos = commitInterval.toNanos();
+        this.segmentSize = segmentSize;
+    }
+
+    public boolean isEnabled() {
+        return dir != null;
+    }
+
+    /**
+     * Replays the existing segments, then starts appending to a new one. Returns the last
+     * journaled cart of every user found; the caller must write them to the database
+     * before {@link #deleteBefore} removes the segments they came from.
+     */
+    public synchronized Map<Long, ProductQuantities> open() {
+        if (!isEnabled() || running) {
+            return Map.of();
+        }
+        try {
+            Files.createDirectories(dir);
+            Map<Long, ProductQuantities> recovered = new HashMap<>();
+            TreeMap<Long, Path> segments = segments();
+            for (Path segment : segments.values()) {
+                replay(segment, recovered);
+            }
+            segmentId = segments.isEmpty() ? 1 : segments.lastKey() + 1;
+            channel = openSegment(segmentId);
+            running = true;
+            writer = new Thread(this::writeLoop, "cart-journal");
+            writer.setDaemon(true);
+            writer.start();
+            logger.info("Cart journal in {} replayed {} segments, recovered {} carts",
+                    dir, segments.size(), recovered.size());
+            return recovered;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open cart journal in " + dir, e);
+        }
+    }
+
+    /**
+     * Queues the cart's current contents. Call while holding the cart's lock so records for
+     * one user are queued in the order the changes were made; wait on the result after
+     * releasing it. Returns null when the journal is disabled.
+     */
+    public CompletableFuture<Void> append(long userId, ProductQuantities items) {
+        if (!running) {
+            return null;
+        }
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        queue.add(new Pending(encode(userId, items), done));
+        return done;
+    }
+
+    /**
+     * Waits until the record is on disk. A journal failure is logged rather than failing
+     * the change, which the write-behind flush still persists.
+     */
+    public void await(CompletableFuture<Void> appendResult) {
+        if (appendResult == null) {
+            return;
+        }
+        try {
+            appendResult.get(APPEND_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            logger.warn("Cart change not journaled", e);
+        }
+    }
+
+    /**
+     * Starts a new segment unless the current one is empty, and returns its id: every
+     * record queued before this call is in an earlier segment.
+     */
+    public long checkpoint() {
+        if (!running) {
+            return 0;
+        }
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        Pending rotation = new Pending(null, done);
+        queue.add(rotation);
+        try {
+            done.get(APPEND_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            return rotation.segmentId;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            logger.warn("Cart journal checkpoint failed", e);
+        }
+        // Nothing will be deleted
+        return 0;
+    }
+
+    /**
+     * Deletes the segments before the given checkpoint, once their carts are in the database.
+     */
+    public void deleteBefore(long checkpoint) {
+        if (!running || checkpoint <= 0) {
+            return;
+        }
+        try {
+            for (Map.Entry<Long, Path> segment : segments().headMap(checkpoint).entrySet()) {
+                Files.deleteIfExists(segment.getValue());
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to delete old cart journal segments", e);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        // The writer notices within one poll, drains the queue and closes the segment. Not
+        // interrupted: an interrupt during a write would close the channel under it.
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // Let the group fill for one commit interval before paying for the fsync
+                TimeUnit.NANOSECONDS.sleep(commitIntervalNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queue.drainTo(batch);
+            if (!batch.isEmpty()) {
+                commit(batch);
+                batch.clear();
+            }
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close cart journal", e);
+        }
+    }
+
+    private void commit(List<Pending> batch) {
+        List<Pending> written = new ArrayList<>(batch.size());
+        try {
+            for (Pending pending : batch) {
+                if (pending.record == null) {
+                    sync(written);
+                    if (segmentBytes > 0) {
+                        roll();
+                    }
+                    pending.segmentId = segmentId;
+                    pending.done.complete(null);
+                    continue;
+                }
+                writeFully(ByteBuffer.wrap(pending.record));
+                segmentBytes += pending.record.length;
+                written.add(pending);
+                if (segmentBytes >= segmentSize) {
+                    sync(written);
+                    roll();
+                }
+            }
+            sync(written);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to write cart journal", e);
+            for (Pending pending : batch) {
+                pending.done.completeExceptionally(e);
+            }
+        }
+    }
+
+    private void sync(List<Pending> written) throws IOException {
+        if (written.isEmpty()) {
+            return;
+        }
+        channel.force(false);
+        for (Pending pending : written) {
+            pending.done.complete(null);
+        }
+        written.clear();
+    }
+
+    private void roll() throws IOException {
+        channel.close();
+        segmentId++;
+        channel = openSegment(segmentId);
+    }
+
+    private FileChannel openSegment(long id) throws IOException {
+        segmentBytes = 0;
+        return FileChannel.open(dir.resolve(String.format("cart-%016d.log", id)),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private TreeMap<Long, Path> segments() throws IOException {
+        TreeMap<Long, Path> segments = new TreeMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "cart-*.log")) {
+            for (Path file : files) {
+                Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    segments.put(Long.parseLong(matcher.group(1)), file);
+                }
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * Record layout: payload length (int), CRC32 of the payload (int), then the payload:
+     * user id (long), line count (int), and per line product id (long) and quantity (int).
+     */
+    static byte[] encode(long userId, ProductQuantities items) {
+        int payloadBytes = Long.BYTES + Integer.BYTES + items.size() * (Long.BYTES + Integer.BYTES);
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + payloadBytes);
+        buffer.position(HEADER_BYTES);
+        buffer.putLong(userId);
+        buffer.putInt(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            buffer.putLong(items.productId(i));
+            buffer.putInt(items.quantity(i));
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), HEADER_BYTES, payloadBytes);
+        buffer.putInt(0, payloadBytes);
+        buffer.putInt(4, (int) crc.getValue());
+        return buffer.array();
+    }
+
+    static void replay(Path segment, Map<Long, ProductQuantities> carts) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment));
+        CRC32 crc = new CRC32();
+        while (buffer.remaining() >= HEADER_BYTES) {
+            int payloadBytes = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (payloadBytes < Long.BYTES + Integer.BYTES || payloadBytes > buffer.remaining()) {
+                break;
+            }
+            crc.reset();
+            crc.update(buffer.array(), buffer.position(), payloadBytes);
+            if ((int) crc.getValue() != checksum) {
+                // A torn write at the tail of a crashed segment; nothing after it was acknowledged
+                break;
+            }
+            long userId = buffer.getLong();
+            int lines = buffer.getInt();
+            ProductQuantities items = new ProductQuantities(lines);
+            for (int i = 0; i < lines; i++) {
+                items.put(buffer.getLong(), buffer.getInt());
+            }
+            carts.put(userId, items);
+        }
+    }
+
+    /**
+     * A queued record, or a checkpoint request when {@code record} is null.
+     */
+    private static final class Pending {
+        private final byte[] record;
+        private final CompletableFuture<Void> done;
+        private volatile long segmentId;
+
+        private Pending(byte[] record, CompletableFuture<Void> done) {
+            this.record = record;
+            this.done = done;
+        }
+    }
+}
@@ -1,82 +1,152 @@
 package com.Shopping.Shopping.service;
 
-import com.Shopping.Shopping.model.CartItem;
-import com.Shopping.Shopping.model.Product;
+import com.Shopping.Shopping.dto.CartDTO;
+import com.Shopping.Shopping.dto.CartItemDTO;
+import com.Shopping.Shopping.dto.ProductDTO;
+import com.Shopping.Shopping.dto.ProductPrice;
 import com.Shopping.Shopping.repository.ProductRepository;
-import jakarta.servlet.http.HttpSession;
+import com.Shopping.Shopping.util.Money;
+import com.Shopping.Shopping.util.ProductQuantities;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+/**
+ * Cart operations for an authenticated customer, by username.
+ *
+ * The {@link CartStore} keeps only product ids and quantities; current names and prices
+ * are looked up here when the cart is read, in a single query, and totals are summed in
+ * paise. Lines whose product has since been deleted are left out.
+ */
 @Service
 public class CartService {
 
     private static final Logger log = LoggerFactory.getLogger(CartService.class);
-    private static final String CART_SESSION_KEY = "cart";
-    
+
+    private final CartStore cartStore;
+    private final ProductService productService;
     private final ProductRepository productRepository;
+    private final UserDetailsServiceImpl userDetailsService;
+    private final int maxBatchOperations;
 
-    public CartService(ProductRepository productRepository) {
+    public CartService(CartStore cartStore, ProductService productService, ProductRepository productRepository,
+                       UserDetailsServiceImpl userDetailsService,
+                       @Value("${app.cart.max-batch-operations:200}") int maxBatchOperations) {
+        this.cartStore = cartStore;
+        this.productService = productService;
         this.productRepository = productRepository;
+        this.userDetailsService = userDetailsService;
+        this.maxBatchOperations = maxBatchOperations;
     }
 
-    public void addProductToCart(Long productId, int quantity, HttpSession session) {
+    /**
+     * Adds the product to the cart. Returns false if the product does not exist.
+     */
+    public boolean addProductToCart(String username, Long productId, int quantity) {
         log.info("Adding product {} to cart with quantity {}", productId, quantity);
-        List<CartItem> cart = getCart(session);
-        Optional<Product> productOpt = productRepository.findById(productId);
-        
-        if (productOpt.isPresent()) {
-            Product product = productOpt.get();
-            boolean found = false;
-            for (CartItem item : cart) {
-                if (item.getProduct().getId().equals(productId)) {
-                    item.setQuantity(item.getQuantity() + quantity);
-                    found = true;
-                    break;
-                }
-            }
-            if (!found) {
-                cart.add(new CartItem(product, quantity));
-            }
-            session.setAttribute(CART_SESSION_KEY, cart);
-            log.debug("Product {} added to cart successfully", productId);
-        } else {
+        if (productService.getProductById(productId) == null) {
             log.warn("Product {} not found", productId);
+            return false;
+        }
+        cartStore.add(userDetailsService.idOf(username), productId, quantity);
+        return true;
+    }
+
+    /**
+     * The cart priced at current prices, with one query however many lines it has.
+     */
+    public CartDTO getCart(String username) {
+        return price(cartStore.get(userDetailsService.idOf(username)));
+    }
+
+    CartDTO price(ProductQuantities items) {
+        if (items.isEmpty()) {
+            return new CartDTO(List.of(), 0.0, 0);
+        }
+        List<Long> productIds = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            productIds.add(items.productId(i));
+        }
+        Map<Long, ProductPrice> prices = new HashMap<>();
+        for (ProductPrice price : productRepository.findPricesByIdIn(productIds)) {
+            prices.put(price.getId(), price);
         }
+
+        List<CartItemDTO> lines = new ArrayList<>(items.size());
+        long totalMinor = 0;
+        for (int i = 0; i < items.size(); i++) {
+            ProductPrice price = prices.get(items.productId(i));
+            if (price == null) {
+                continue;
+            }
+            long unitMinor = Money.toMinor(price.getPrice());
+            long subtotalMinor = Math.multiplyExact(unitMinor, items.quantity(i));
+            CartItemDTO dto = new CartItemDTO();
+            dto.setProduct(ProductDTO.from(price));
+            dto.setQuantity(items.quantity(i));
+            dto.setUnitPriceMinor(unitMinor);
+            dto.setSubtotalMinor(subtotalMinor);
+            dto.setSubtotal(Money.toMajor(subtotalMinor));
+            lines.add(dto);
+            totalMinor = Math.addExact(totalMinor, subtotalMinor);
+        }
+        return new CartDTO(lines, Money.toMajor(totalMinor), totalMinor);
     }
 
-    public List<CartItem> getCart(HttpSession session) {
-        List<CartItem> cart = (List<CartItem>) session.getAttribute(CART_SESSION_KEY);
-        if (cart == null) {
-            cart = new ArrayList<>();
-            session.setAttribute(CART_SESSION_KEY, cart);
+    /**
+     * Applies the operations in order as one change and returns the resulting cart, priced.
+     * Products being added or set are checked with one query; removals may name products
+     * that no longer exist.
+     *
+     * @throws IllegalArgumentException if an operation is invalid, names an unknown product,
+     *                                  or would exceed a cart limit; the cart is then unchanged
+     */
+    public CartDTO applyBatch(String username, List<CartStore.Operation> operations) {
+        if (operations.isEmpty() || operations.size() > maxBatchOperations) {
+            throw new IllegalArgumentException("A batch must have between 1 and " + maxBatchOperations + " operations");
+        }
+        Set<Long> productIds = new HashSet<>();
+        for (CartStore.Operation operation : operations) {
+            if (operation.type() == CartStore.Operation.Type.ADD && operation.quantity() <= 0) {
+                throw new IllegalArgumentException("Quantity must be positive for product " + operation.productId());
+            }
+            if (operation.type() != CartStore.Operation.Type.REMOVE) {
+                productIds.add(operation.productId());
+            }
+        }
+        if (!productIds.isEmpty()) {
+            productIds.removeAll(productRepository.findExistingIds(productIds));
+            if (!productIds.isEmpty()) {
+                throw new IllegalArgumentException("Product not found: " + productIds);
+            }
         }
-        return cart;
+        log.info("Applying {} cart operations", operations.size());
+        return price(cartStore.apply(userDetailsService.idOf(username), operations));
     }
 
-    public void removeProductFromCart(Long productId, HttpSession session) {
+    public void removeProductFromCart(String username, Long productId) {
         log.info("Removing product {} from cart", productId);
-        List<CartItem> cart = getCart(session);
-        cart.removeIf(item -> item.getProduct().getId().equals(productId));
-        session.setAttribute(CART_SESSION_KEY, cart);
+        cartStore.remove(userDetailsService.idOf(username), productId);
     }
 
-    public void clearCart(HttpSession session) {
+    public void clearCart(String username) {
         log.info("Clearing cart");
-        session.setAttribute(CART_SESSION_KEY, new ArrayList<CartItem>());
+        cartStore.clear(userDetailsService.idOf(username));
     }
 
-    public void updateProductQuantity(Long productId, int quantity, HttpSession session) {
+    /**
+     * Sets the quantity of a product in the cart; zero or less removes it.
+     */
+    public void updateProductQuantity(String username, Long productId, int quantity) {
         log.info("Updating product {} quantity to {}", productId, quantity);
-        List<CartItem> cart = getCart(session);
-        for (CartItem item : cart) {
-            if (item.getProduct().getId().equals(productId)) {
-                item.setQuantity(quantity);
-                break;
-            }
-        }
-        session.setAttribute(CART_SESSION_KEY, cart);
+        cartStore.set(userDetailsService.idOf(username), productId, quantity);
     }
 }
@@ -0,0 +1,58 @@
+package com.Shopping.Shopping.service;
+
+import com.Shopping.Shopping.util.ProductQuantities;
+
+import java.util.List;
+
+/**
+ * Shopping carts keyed by user id.
+ *
+ * A cart holds only product ids and quantities; product details and prices are looked up
+ * when it is read, so a cart never shows a stale price. Implementations must be safe for
+ * concurrent requests from the same user.
+ */
+public interface CartStore {
+
+    /**
+     * A snapshot of the user's cart; later changes to the cart do not affect it.
+     */
+    ProductQuantities get(long userId);
+
+    /**
+     * Adds to the product's quantity, creating its line if needed, and returns the new quantity.
+     *
+     * @throws IllegalArgumentException if the cart or the line would exceed its limit
+     */
+    int add(long userId, long productId, int quantity);
+
+    /**
+     * Sets the quantity of a product already in the cart; zero or less removes its line.
+     * Does nothing if the product is not in the cart.
+     *
+     * @throws IllegalArgumentException if the line would exceed its limit
+     */
+    void set(long userId, long productId, int quantity);
+
+    void remove(long userId, long productId);
+
+    void clear(long userId);
+
+    /**
+     * Applies the operations in order as one change: either all of them take effect or,
+     * if any would exceed a limit, none do. Returns a snapshot of the resulting cart.
+     *
+     * @throws IllegalArgumentException if the cart or a line would exceed its limit
+     */
+    ProductQuantities apply(long userId, List<Operation> operations);
+
+    /**
+     * One step of a batch. {@code SET} creates the line if it is missing; a quantity of zero
+     * or less removes it. {@code REMOVE} ignores the quantity.
+     */
+    record Operation(Type type, long productId, int quantity) {
+
+        public enum Type {
+            ADD, SET, REMOVE
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.Shopping.Shopping.service;
+
+import com.Shopping.Shopping.model.CategoryFacet;
+import com.Shopping.Shopping.repository.CategoryFacetRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Maintains the category_facets table.
+ *
+ * Product writes call {@link #refresh} inside their own transaction. Each affected
+ * category row is locked and then recomputed from the (category, price) index, so
+ * concurrent writers to the same category serialize and the counts stay exact.
+ */
+@Service
+public class CategoryFacetService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategoryFacetService.class);
+
+    private final CategoryFacetRepository categoryFacetRepository;
+    private final TransactionTemplate newTransaction;
+
+    public CategoryFacetService(CategoryFacetRepository categoryFacetRepository,
+                                PlatformTransactionManager transactionManager) {
+        this.categoryFacetRepository = categoryFacetRepository;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public List<CategoryFacet> getFacets() {
+        return categoryFacetRepository.findByProductCountGreaterThanOrderByCategoryAsc(0);
+    }
+
+    /**
+     * Recomputes the facets of the given categories (nulls ignored) as part of the caller's write.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void refresh(String... categories) {
+        // Fixed lock order so two writers touching the same pair of categories can't deadlock
+        Arrays.stream(categories)
+            .filter(Objects::nonNull)
+            .distinct()
+            .sorted()
+            .forEach(this::refreshCategory);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfill() {
+        if (categoryFacetRepository.count() > 0) {
+            return;
+        }
+        List<CategoryFacet> facets = categoryFacetRepository.computeAll();
+        categoryFacetRepository.saveAll(facets);
+        logger.info("Backfilled {} category facets", facets.size());
+    }
+
+    private void refreshCategory(String category) {
+        CategoryFacet facet = lockFacet(category);
+        CategoryFacet current = categoryFacetRepository.computeFor(category)
+            .orElseGet(() -> new CategoryFacet(category, 0, 0, 0));
+        facet.setProductCount(current.getProductCount());
+        facet.setMinPrice(current.getMinPrice());
+        facet.setMaxPrice(current.getMaxPrice());
+    }
+
+    private CategoryFacet lockFacet(String category) {
+        return categoryFacetRepository.findForUpdate(category).orElseGet(() -> {
+            // First product in a new category: create the row on the side so it is lockable
+            try {
+                newTransaction.executeWithoutResult(status -> {
+                    if (!categoryFacetRepository.existsById(category)) {
+                        categoryFacetRepository.saveAndFlush(new CategoryFacet(category, 0, 0, 0));
+                    }
+                });
+            } catch (DataIntegrityViolationException e) {
+                logger.debug("Facet row for category '{}' was created concurrently", category);
+            }
+            return categoryFacetRepository.findForUpdate(category)
+                .orElseThrow(() -> new IllegalStateException("Missing facet row for category " + category));
+        });
+    }
+}
@@ -0,0 +1,66 @@
+package com.Shopping.Shopping.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process {@link PaymentGateway} for load tests and offline development. Each call
+ * blocks for {@code app.payment.fake.latency} like a real HTTP call would, and fails with
+ * probability {@code app.payment.fake.failure-rate}. Orders are kept in memory only.
+ */
+@Service
+@ConditionalOnProperty(name = "app.payment.gateway", havingValue = "fake")
+public class FakePaymentGateway implements PaymentGateway {
+
+    private final Duration latency;
+    private final double failureRate;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<String, GatewayOrder> orders = new ConcurrentHashMap<>();
+
+    public FakePaymentGateway(@Value("${app.payment.fake.latency:200ms}") Duration latency,
+                              @Value("${app.payment.fake.failure-rate:0}") double failureRate) {
+        this.latency = latency;
+        this.failureRate = failureRate;
+    }
+
+    @Override
+    public GatewayOrder createOrder(long amountMinor, String currency, String receipt) {
+        respond();
+        GatewayOrder order = new GatewayOrder(String.format("order_fake%014d", sequence.incrementAndGet()),
+                amountMinor, currency, "created");
+        orders.put(order.id(), order);
+        return order;
+    }
+
+    @Override
+    public GatewayOrder fetchOrder(String orderId) {
+        respond();
+        GatewayOrder order = orders.get(orderId);
+        if (order == null) {
+            throw new PaymentGatewayException(HttpStatus.BAD_GATEWAY, "Payment gateway error: order not found");
+        }
+        return order;
+    }
+
+    private void respond() {
+        try {
+            TimeUnit.NANOSECONDS.sleep(latency.toNanos());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentGatewayException(HttpStatus.BAD_GATEWAY, "Payment gateway call interrupted", e);
+        }
+        if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+            throw new PaymentGatewayException(HttpStatus.BAD_GATEWAY, "Payment gateway error: simulated failure");
+        }
+    }
+}
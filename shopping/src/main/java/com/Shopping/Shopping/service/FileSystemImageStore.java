@@ -0,0 +1,148 @@
+package com.Shopping.Shopping.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Stores images as files named by their SHA-256 under {@code app.image.store.dir},
+ * fanned out as {@code ab/cd/abcd...} so no directory grows huge.
+ *
+ * Files are written to a temp name and atomically renamed, so readers never see a
+ * partial image, and served with FileChannel.transferTo (or handed to the web server
+ * for sendfile) instead of being copied through the heap.
+ */
+@Service
+@ConditionalOnProperty(name = "app.image.store", havingValue = "filesystem")
+public class FileSystemImageStore implements ImageStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileSystemImageStore.class);
+
+    private final Path root;
+
+    public FileSystemImageStore(@Value("${app.image.store.dir:${app.upload.dir}/images}") String dir) {
+        this.root = Path.of(dir).toAbsolutePath().normalize();
+        try {
+            Files.createDirectories(this.root);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create image store directory " + this.root, e);
+        }
+        logger.info("Storing product images under {}", this.root);
+    }
+
+    @Override
+    public String put(byte[] data) {
+        String hash = ProductImageService.sha256Hex(data);
+        Path target = pathFor(hash);
+        try {
+            if (Files.exists(target)) {
+                Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+                return hash;
+            }
+            Files.createDirectories(target.getParent());
+            Path temp = Files.createTempFile(target.getParent(), hash, ".tmp");
+            try {
+                Files.write(temp, data);
+                moveIntoPlace(temp, target);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            return hash;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store image " + hash, e);
+        }
+    }
+
+    @Override
+    public long length(String hash) {
+        try {
+            return Files.size(pathFor(hash));
+        } catch (NoSuchFileException e) {
+            return -1;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public byte[] read(String hash) {
+        try {
+            return Files.readAllBytes(pathFor(hash));
+        } catch (NoSuchFileException e) {
+            throw new IllegalArgumentException("No stored image " + hash, e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void write(String hash, long start, long end, OutputStream out) throws IOException {
+        try (FileChannel file = FileChannel.open(pathFor(hash), StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = start;
+            while (position <= end) {
+                long sent = file.transferTo(position, end - position + 1, target);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+            }
+        }
+    }
+
+    @Override
+    public Optional<Path> file(String hash) {
+        Path path = pathFor(hash);
+        return Files.exists(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    @Override
+    public void delete(String hash, Instant cutoff) {
+        Path path = pathFor(hash);
+        try {
+            if (Files.getLastModifiedTime(path).toInstant().isBefore(cutoff)) {
+                Files.deleteIfExists(path);
+            }
+        } catch (NoSuchFileException e) {
+            // Already gone
+        } catch (IOException e) {
+            logger.warn("Failed to delete stored image {}", hash, e);
+        }
+    }
+
+    Path pathFor(String hash) {
+        if (!hash.matches("[0-9a-f]{64}")) {
+            throw new IllegalArgumentException("Not a SHA-256 hex digest: " + hash);
+        }
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    private static void moveIntoPlace(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // Identical bytes stored concurrently
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.Shopping.Shopping.service;
+
+import com.Shopping.Shopping.dto.ApiResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Responses remembered by the client's {@value #HEADER} header, so a retried request is
+ * answered from memory instead of being executed again.
+ *
+ * Keys are scoped by the caller (user and endpoint). A retry arriving while the first
+ * request is still running shares its response. Failures and 5xx responses are forgotten
+ * so the client can try again; reusing a key for a different request body gets 422.
+ * Entries are per instance and expire after {@code app.payment.idempotency.ttl}; the
+ * unique indexes on orders are the backstop across instances.
+ */
+@Component
+public class IdempotencyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final Cache<String, Entry> entries;
+
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder mismatched = new LongAdder();
+
+    public IdempotencyStore(@Value("${app.payment.idempotency.max-size:100000}") long maxSize,
+                            @Value("${app.payment.idempotency.ttl:24h}") Duration ttl) {
+        this.entries = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttl)
+            .build();
+    }
+
+    /**
+     * Runs the action unless the key has been seen for this scope, in which case the first
+     * response is returned. Without a key the action always runs.
+     */
+    public <T> CompletableFuture<ResponseEntity<ApiResponse<T>>> execute(
+            String scope, String key, Object request, Supplier<CompletableFuture<ResponseEntity<ApiResponse<T>>>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                .body(ApiResponse.error(HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters")));
+        }
+        String cacheKey = scope + '\n' + key;
+        Entry entry = new Entry(request, new CompletableFuture<>());
+        Entry existing = entries.asMap().putIfAbsent(cacheKey, entry);
+        if (existing != null) {
+            return replay(existing, request);
+        }
+        executed.increment();
+        CompletableFuture<ResponseEntity<ApiResponse<T>>> result;
+        try {
+            result = action.get();
+        } catch (RuntimeException e) {
+            forget(cacheKey, entry, e);
+            throw e;
+        }
+        result.whenComplete((response, error) -> {
+            if (error != null) {
+                forget(cacheKey, entry, error);
+            } else {
+                if (response.getStatusCode().is5xxServerError()) {
+                    entries.asMap().remove(cacheKey, entry);
+                }
+                entry.response.complete(response);
+            }
+        });
+        return result;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("keys", entries.estimatedSize());
+        stats.put("executed", executed.sum());
+        stats.put("replayed", replayed.sum());
+        stats.put("mismatched", mismatched.sum());
+        return stats;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<ResponseEntity<ApiResponse<T>>> replay(Entry existing, Object request) {
+        if (!Objects.equals(existing.request, request)) {
+            mismatched.increment();
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                .body(ApiResponse.error(HEADER + " was already used for a different request")));
+        }
+        replayed.increment();
+        // Scopes are per endpoint, so the stored response has this endpoint's body type
+        return existing.response.thenApply(response -> ResponseEntity
+            .status(response.getStatusCode())
+            .headers(response.getHeaders())
+            .header(REPLAYED_HEADER, "true")
+            .body((ApiResponse<T>) response.getBody()));
+    }
+
+    private void forget(String cacheKey, Entry entry, Throwable error) {
+        entries.asMap().remove(cacheKey, entry);
+        entry.response.completeExceptionally(error);
+    }
+
+    private record Entry(Object request, CompletableFuture<ResponseEntity<?>> response) {
+    }
+}
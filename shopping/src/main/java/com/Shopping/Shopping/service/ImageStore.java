@@ -0,0 +1,49 @@
+package com.Shopping.Shopping.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Content-addressed storage for image bytes.
+ *
+ * Blobs are keyed by the SHA-256 of their content, so storing the same bytes twice
+ * yields one blob. Which products reference a blob is tracked by the callers
+ * (product.image_hash, product_image_variants.image_hash), not by the store.
+ * Selected with {@code app.image.store=database|filesystem}.
+ */
+public interface ImageStore {
+
+    /**
+     * Stores the bytes (a no-op apart from refreshing the blob's timestamp if they are
+     * already present) and returns their SHA-256 hex digest.
+     */
+    String put(byte[] data);
+
+    /**
+     * Size of the blob in bytes, or -1 if it is not stored.
+     */
+    long length(String hash);
+
+    byte[] read(String hash);
+
+    /**
+     * Writes bytes [start, end] (inclusive) of the blob to the given stream.
+     */
+    void write(String hash, long start, long end, OutputStream out) throws IOException;
+
+    /**
+     * The blob as a local file, for stores that have one; lets the web server send it with sendfile.
+     */
+    default Optional<Path> file(String hash) {
+        return Optional.empty();
+    }
+
+    /**
+     * Deletes the blob unless it was stored (or re-stored) at or after {@code cutoff}. The cutoff
+     * keeps a blob alive while a concurrent upload of the same bytes is still uncommitted.
+     */
+    void delete(String hash, Instant cutoff);
+}
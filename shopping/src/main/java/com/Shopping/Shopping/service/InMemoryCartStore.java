@@ -0,0 +1,306 @@
+package com.Shopping.Shopping.service;
+
+import com.Shopping.Shopping.util.ProductQuantities;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Carts held in memory and written behind to the cart_items table.
+ *
+ * A user's cart is loaded on first use and every change to it is made under that cart's
+ * lock, so concurrent requests from one user serialize while different users never
+ * contend. Changed carts are written to the database by a background flush every
+ * {@code app.cart.flush-interval} (and once more on shutdown), replacing the user's rows
+ * in one transaction; a failed write is retried on the next flush. Carts untouched for
+ * {@code app.cart.idle-timeout} are dropped from memory once written.
+ *
+ * With {@link CartJournal} enabled every change is also journaled to local disk before it
+ * is acknowledged, and journaled carts are restored on startup, so a crash loses nothing
+ * that was not yet flushed. The database copy is only as fresh as the last flush, so
+ * instances behind a load balancer need sticky routing per user.
+ */
+@Service
+public class InMemoryCartStore implements CartStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryCartStore.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final CartJournal journal;
+    private final int maxLines;
+    private final int maxQuantity;
+    private final Duration flushInterval;
+    private final long idleTimeoutNanos;
+
+    private final Map<Long, Cart> carts = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    private ScheduledExecutorService flusher;
+
+    public InMemoryCartStore(JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             CartJournal journal,
+                             @Value("${app.cart.max-lines:100}") int maxLines,
+                             @Value("${app.cart.max-quantity:1000}") int maxQuantity,
+                             @Value("${app.cart.flush-interval:2s}") Duration flushInterval,
+                             @Value("${app.cart.idle-timeout:30m}") Duration idleTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.journal = journal;
+        this.maxLines = maxLines;
+        this.maxQuantity = maxQuantity;
+        this.flushInterval = flushInterval;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+    }
+
+    @PostConstruct
+    void start() {
+        // Carts changed after the last flush before a crash; written to the database by the first flush
+        long now = System.nanoTime();
+        journal.open().forEach((userId, items) -> {
+            Cart cart = new Cart();
+            cart.items = items;
+            cart.loaded = true;
+            cart.version = 1;
+            cart.lastAccess = now;
+            carts.put(userId, cart);
+            dirty.add(userId);
+        });
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cart-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = flushInterval.toMillis();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        flush();
+        if (dirty.isEmpty()) {
+            return;
+        }
+        if (journal.isEnabled()) {
+            logger.warn("{} carts could not be written on shutdown; they will be replayed from the journal", dirty.size());
+        } else {
+            logger.error("{} carts could not be written on shutdown and are lost (users {}); "
+                    + "set app.cart.journal.dir to keep unflushed changes", dirty.size(), dirty);
+        }
+    }
+
+    @Override
+    public ProductQuantities get(long userId) {
+        return withCart(userId, false, items -> items.copy());
+    }
+
+    @Override
+    public int add(long userId, long productId, int quantity) {
+        return withCart(userId, true, items -> {
+            apply(items, new Operation(Operation.Type.ADD, productId, quantity));
+            return items.get(productId);
+        });
+    }
+
+    @Override
+    public void set(long userId, long productId, int quantity) {
+        withCart(userId, true, items -> {
+            if (items.get(productId) > 0) {
+                apply(items, new Operation(Operation.Type.SET, productId, quantity));
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void remove(long userId, long productId) {
+        withCart(userId, true, items -> items.remove(productId));
+    }
+
+    @Override
+    public void clear(long userId) {
+        withCart(userId, true, items -> {
+            items.clear();
+            return null;
+        });
+    }
+
+    @Override
+    public ProductQuantities apply(long userId, List<Operation> operations) {
+        return withCart(userId, true, items -> {
+            // Applied to a copy first, so a limit hit part-way leaves the cart untouched
+            ProductQuantities result = items.copy();
+            for (Operation operation : operations) {
+                apply(result, operation);
+            }
+            for (Operation operation : operations) {
+                apply(items, operation);
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Writes every changed cart to the database and drops idle, written carts from memory.
+     */
+    void flush() {
+        // Every change journaled before the checkpoint is in the dirty set now
+        long checkpoint = journal.checkpoint();
+        boolean allWritten = true;
+        for (Long userId : dirty) {
+            // Removed before the snapshot: a change made while writing marks the cart dirty again
+            dirty.remove(userId);
+            Cart cart = carts.get(userId);
+            if (cart == null) {
+                continue;
+            }
+            ProductQuantities snapshot;
+            long version;
+            synchronized (cart) {
+                snapshot = cart.items.copy();
+                version = cart.version;
+            }
+            try {
+                write(userId, snapshot);
+                synchronized (cart) {
+                    cart.flushedVersion = Math.max(cart.flushedVersion, version);
+                }
+            } catch (RuntimeException e) {
+                dirty.add(userId);
+                allWritten = false;
+                logger.warn("Failed to write cart for user {}, will retry", userId, e);
+            }
+        }
+        if (allWritten) {
+            journal.deleteBefore(checkpoint);
+        }
+        long now = System.nanoTime();
+        carts.forEach((userId, cart) -> {
+            synchronized (cart) {
+                if (cart.flushedVersion == cart.version && now - cart.lastAccess > idleTimeoutNanos) {
+                    cart.evicted = true;
+                    carts.remove(userId, cart);
+                }
+            }
+        });
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // Never let an exception cancel the scheduled flush
+            logger.warn("Cart flush failed", e);
+        }
+    }
+
+    private <T> T withCart(long userId, boolean modifies, Function<ProductQuantities, T> action) {
+        while (true) {
+            Cart cart = carts.computeIfAbsent(userId, id -> new Cart());
+            T result;
+            CompletableFuture<Void> journaled = null;
+            synchronized (cart) {
+                if (cart.evicted) {
+                    // Dropped by the flusher between lookup and lock; a fresh one is loaded
+                    continue;
+                }
+                if (!cart.loaded) {
+                    cart.items = load(userId);
+                    cart.loaded = true;
+                }
+                cart.lastAccess = System.nanoTime();
+                result = action.apply(cart.items);
+                if (modifies) {
+                    cart.version++;
+                    dirty.add(userId);
+                    journaled = journal.append(userId, cart.items);
+                }
+            }
+            // Waited for outside the lock, so the user's next change can join the same group commit
+            journal.await(journaled);
+            return result;
+        }
+    }
+
+    private void apply(ProductQuantities items, Operation operation) {
+        long productId = operation.productId();
+        switch (operation.type()) {
+            case ADD -> {
+                long updated = (long) items.get(productId) + operation.quantity();
+                checkLimits(items, productId, updated);
+                items.put(productId, (int) updated);
+            }
+            case SET -> {
+                checkLimits(items, productId, operation.quantity());
+                items.put(productId, operation.quantity());
+            }
+            case REMOVE -> items.remove(productId);
+        }
+    }
+
+    private void checkLimits(ProductQuantities items, long productId, long quantity) {
+        if (quantity > maxQuantity) {
+            throw new IllegalArgumentException("Quantity cannot exceed " + maxQuantity);
+        }
+        if (quantity > 0 && items.get(productId) == 0 && items.size() >= maxLines) {
+            throw new IllegalArgumentException("Cart cannot hold more than " + maxLines + " products");
+        }
+    }
+
+    private ProductQuantities load(long userId) {
+        ProductQuantities items = new ProductQuantities();
+        jdbcTemplate.query("SELECT product_id, quantity FROM cart_items WHERE user_id = ? ORDER BY line_no",
+                rs -> {
+                    items.put(rs.getLong("product_id"), rs.getInt("quantity"));
+                },
+                userId);
+        return items;
+    }
+
+    private void write(long userId, ProductQuantities items) {
+        List<Object[]> rows = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            rows.add(new Object[] {userId, items.productId(i), items.quantity(i), i});
+        }
+        transaction.executeWithoutResult(status -> {
+            jdbcTemplate.update("DELETE FROM cart_items WHERE user_id = ?", userId);
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate(
+                        "INSERT INTO cart_items (user_id, product_id, quantity, line_no) VALUES (?, ?, ?, ?)", rows);
+            }
+        });
+    }
+
+    /**
+     * Guarded by its own monitor. {@code version} counts changes, {@code flushedVersion} is
+     * the last one written; they are equal when the database copy is current.
+     */
+    private static final class Cart {
+        private ProductQuantities items;
+        private boolean loaded;
+        private boolean evicted;
+        private long version;
+        private long flushedVersion;
+        private long lastAccess;
+    }
+}
@@ -0,0 +1,26 @@
+package com.Shopping.Shopping.service;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * A login was refused before its password was checked, either because the hashing pool
+ * is saturated (503) or because the username or client has too many logins in flight (429).
+ */
+public class LoginThrottledException extends RuntimeException {
+
+    private final HttpStatus status;
+
+    public LoginThrottledException(HttpStatus status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    /** Seconds clients should wait before retrying; hashes take tens of milliseconds, so one is plenty. */
+    public long getRetryAfterSeconds() {
+        return 1;
+    }
+}
@@ -0,0 +1,234 @@
+package com.Shopping.Shopping.service;
+
+import com.Shopping.Shopping.config.PaymentGatewayConfig;
+import com.Shopping.Shopping.dto.CartItemDTO;
+import com.Shopping.Shopping.dto.OrderDTO;
+import com.Shopping.Shopping.dto.ProductDTO;
+import com.Shopping.Shopping.model.OrderLine;
+import com.Shopping.Shopping.model.Orders;
+import com.Shopping.Shopping.model.User;
+import com.Shopping.Shopping.repository.OrderLineRepository;
+import com.Shopping.Shopping.repository.OrdersRepository;
+import com.Shopping.Shopping.repository.UserRepository;
+import com.Shopping.Shopping.util.Money;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Records paid orders.
+ *
+ * Each gateway order and each gateway payment is recorded at most once, enforced by unique
+ * indexes on orders. A client retrying a payment confirmation gets the order that was
+ * already stored, found by one indexed lookup, instead of a duplicate row. The gateway's
+ * signature is checked first, so a forged confirmation costs no query at all.
+ *
+ * The amount is worked out here from what was bought, at current prices, and checked against
+ * what the gateway order charged. Each product is kept as an {@link OrderLine} with its unit
+ * price, so the order says what was sold.
+ */
+@Service
+public class OrderService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderService.class);
+
+    public static final String CURRENCY = "INR";
+
+    private final OrdersRepository ordersRepository;
+    private final UserRepository userRepository;
+    private final OrderLineRepository orderLineRepository;
+    private final PaymentSignatureVerifier signatureVerifier;
+    private final CartService cartService;
+    private final ProductService productService;
+    private final PaymentGatewayClient paymentGatewayClient;
+    private final ThreadPoolTaskExecutor completionExecutor;
+    private final TransactionTemplate transactionTemplate;
+
+    public OrderService(OrdersRepository ordersRepository, UserRepository userRepository,
+                        OrderLineRepository orderLineRepository, PaymentSignatureVerifier signatureVerifier,
+                        CartService cartService, ProductService productService,
+                        PaymentGatewayClient paymentGatewayClient,
+                        @Qualifier(PaymentGatewayConfig.PAYMENT_COMPLETION_EXECUTOR) ThreadPoolTaskExecutor completionExecutor,
+                        PlatformTransactionManager transactionManager) {
+        this.ordersRepository = ordersRepository;
+        this.userRepository = userRepository;
+        this.orderLineRepository = orderLineRepository;
+        this.signatureVerifier = signatureVerifier;
+        this.cartService = cartService;
+        this.productService = productService;
+        this.paymentGatewayClient = paymentGatewayClient;
+        this.completionExecutor = completionExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Prices a checkout at current prices. Create-order charges this amount, and a payment
+     * is recorded only if its gateway order was for the same amount.
+     *
+     * @throws IllegalArgumentException if there is nothing to pay for
+     */
+    public Quote quote(String username, Checkout checkout) {
+        List<CartItemDTO> items = checkout.isCart() ? cartService.getCart(username).getItems() : List.of(buyNow(checkout));
+        if (items.isEmpty()) {
+            throw new IllegalArgumentException("Nothing to pay for: the cart is empty");
+        }
+        long amountMinor = 0;
+        for (CartItemDTO item : items) {
+            amountMinor = Math.addExact(amountMinor, item.getSubtotalMinor());
+        }
+        return new Quote(items, amountMinor);
+    }
+
+    /**
+     * Stores the payment as the user's order, with one line per product bought, or returns
+     * the order already stored for it. A cart checkout empties the cart once recorded.
+     *
+     * The gateway order is fetched and must have been for exactly the checkout's amount,
+     * so a payment for a cheaper gateway order, or for a cart that has since changed,
+     * is refused. The order is then stored on the
+     * {@link PaymentGatewayConfig#PAYMENT_COMPLETION_EXECUTOR} pool.
+     *
+     * The future fails with {@link IllegalArgumentException} if the signature is not the
+     * gateway's, there is nothing to pay for, the amounts differ, or the gateway order or
+     * payment is already recorded with different ids or for another user; and with
+     * {@link PaymentGatewayException} if the gateway order cannot be fetched.
+     */
+    public CompletableFuture<RecordedOrder> recordPayment(String username, String razorpayOrderId, String razorpayPaymentId,
+                                                          String razorpaySignature, Checkout checkout) {
+        Quote quote;
+        try {
+            if (!signatureVerifier.verify(razorpayOrderId, razorpayPaymentId, razorpaySignature)) {
+                log.warn("Rejected payment {} with an invalid signature", razorpayPaymentId);
+                throw new IllegalArgumentException("Invalid payment signature");
+            }
+            Orders existing = ordersRepository.findByRazorpayOrderId(razorpayOrderId);
+            if (existing != null) {
+                return CompletableFuture.completedFuture(replay(existing, username, razorpayPaymentId));
+            }
+            quote = quote(username, checkout);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return paymentGatewayClient.fetchOrder(razorpayOrderId).thenApplyAsync(gatewayOrder -> {
+            if (gatewayOrder.amountMinor() != quote.amountMinor() || !CURRENCY.equals(gatewayOrder.currency())) {
+                log.warn("Rejected payment {}: gateway order {} is for {} {}, checkout comes to {} {}", razorpayPaymentId,
+                    razorpayOrderId, gatewayOrder.amountMinor(), gatewayOrder.currency(), quote.amountMinor(), CURRENCY);
+                throw new IllegalArgumentException("Amount paid does not match the checkout total");
+            }
+            return store(username, razorpayOrderId, razorpayPaymentId, razorpaySignature, checkout, quote);
+        }, completionExecutor);
+    }
+
+    private RecordedOrder store(String username, String razorpayOrderId, String razorpayPaymentId,
+                                String razorpaySignature, Checkout checkout, Quote quote) {
+        User user = userRepository.findByUsername(username)
+            .orElseThrow(() -> new RuntimeException("User not found"));
+        Orders order = new Orders();
+        order.setRazorpayPaymentId(razorpayPaymentId);
+        order.setRazorpayOrderId(razorpayOrderId);
+        order.setRazorpaySignature(razorpaySignature);
+        order.setAmount(quote.amountMinor());
+        order.setOrderDate(LocalDateTime.now());
+        order.setUser(user);
+        order.setEmail(user.getUsername());
+        Orders saved;
+        try {
+            saved = transactionTemplate.execute(status -> store(order, quote.items()));
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent retry of the same confirmation got there first; the unique index caught it
+            Orders winner = ordersRepository.findByRazorpayOrderId(razorpayOrderId);
+            if (winner == null) {
+                throw new IllegalArgumentException("Payment " + razorpayPaymentId + " is already recorded for another order");
+            }
+            return replay(winner, username, razorpayPaymentId);
+        }
+        if (checkout.isCart()) {
+            cartService.clearCart(username);
+        }
+        return new RecordedOrder(OrderDTO.from(saved), true);
+    }
+
+    /**
+     * Ids come from pooled sequences, so nothing is inserted until the flush, which sends
+     * the order and then all of its lines as one JDBC batch.
+     */
+    private Orders store(Orders order, List<CartItemDTO> items) {
+        Orders saved = ordersRepository.save(order);
+        List<OrderLine> lines = new ArrayList<>(items.size());
+        for (CartItemDTO item : items) {
+            lines.add(new OrderLine(saved, item.getProduct().getId(), item.getQuantity(), item.getUnitPriceMinor()));
+        }
+        orderLineRepository.saveAll(lines);
+        // Inside the transaction, so a duplicate surfaces here as DataIntegrityViolationException
+        ordersRepository.flush();
+        return saved;
+    }
+
+    private CartItemDTO buyNow(Checkout checkout) {
+        if (checkout.quantity() <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        ProductDTO product = productService.getProductById(checkout.productId());
+        if (product == null) {
+            throw new IllegalArgumentException("Product not found: " + checkout.productId());
+        }
+        long unitMinor = Money.toMinor(product.getPrice());
+        CartItemDTO item = new CartItemDTO();
+        item.setProduct(product);
+        item.setQuantity(checkout.quantity());
+        item.setUnitPriceMinor(unitMinor);
+        item.setSubtotalMinor(Math.multiplyExact(unitMinor, checkout.quantity()));
+        item.setSubtotal(Money.toMajor(item.getSubtotalMinor()));
+        return item;
+    }
+
+    private static RecordedOrder replay(Orders existing, String username, String razorpayPaymentId) {
+        if (!existing.getRazorpayPaymentId().equals(razorpayPaymentId)
+                || existing.getUser() == null || !existing.getUser().getUsername().equals(username)) {
+            throw new IllegalArgumentException("Order " + existing.getRazorpayOrderId() + " is already recorded for another payment");
+        }
+        log.info("Payment {} already recorded as order {}", razorpayPaymentId, existing.getId());
+        return new RecordedOrder(OrderDTO.from(existing), false);
+    }
+
+    /**
+     * What was paid for: one product ("buy now") or, with no product, the user's cart.
+     */
+    public record Checkout(Long productId, int quantity) {
+
+        public static Checkout cart() {
+            return new Checkout(null, 0);
+        }
+
+        public static Checkout buyNow(Long productId, int quantity) {
+            return new Checkout(productId, quantity);
+        }
+
+        public boolean isCart() {
+            return productId == null;
+        }
+    }
+
+    /**
+     * What a checkout costs: the lines as priced now and their total in paise.
+     */
+    public record Quote(List<CartItemDTO> items, long amountMinor) {
+    }
+
+    /**
+     * The stored order, and whether this call stored it.
+     */
+    public record RecordedOrder(OrderDTO order, boolean created) {
+    }
+}
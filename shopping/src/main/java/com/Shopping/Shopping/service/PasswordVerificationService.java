@@ -0,0 +1,220 @@
+package com.Shopping.Shopping.service;
+
+import com.Shopping.Shopping.config.PasswordHashingConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Checks login passwords on the bounded {@link PasswordHashingConfig#PASSWORD_HASHING_EXECUTOR}
+ * pool instead of the request thread.
+ *
+ * Logins are refused up front when the pool's queue is full or when the same username or
+ * client address already has too many checks in flight, so a credential-stuffing burst
+ * costs one map update per attempt rather than a BCrypt hash. Queue wait and hash time
+ * are tracked separately for {@link #getStats()}.
+ */
+@Service
+public class PasswordVerificationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordVerificationService.class);
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolTaskExecutor executor;
+    private final int bcryptStrength;
+    private final int maxInFlightPerUsername;
+    private final int maxInFlightPerClient;
+    private final Duration timeout;
+
+    private final Map<String, Integer> inFlightByUsername = new ConcurrentHashMap<>();
+    private final Map<String, Integer> inFlightByClient = new ConcurrentHashMap<>();
+
+    private final LongAdder verified = new LongAdder();
+    private final LongAdder rejectedQueueFull = new LongAdder();
+    private final LongAdder rejectedUsernameLimit = new LongAdder();
+    private final LongAdder rejectedClientLimit = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder rehashed = new LongAdder();
+    private final LongAdder queueWaitNanos = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAccumulator maxQueueWaitNanos = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator maxHashNanos = new LongAccumulator(Math::max, 0);
+
+    public PasswordVerificationService(PasswordEncoder passwordEncoder,
+                                       @Qualifier(PasswordHashingConfig.PASSWORD_HASHING_EXECUTOR) ThreadPoolTaskExecutor executor,
+                                       @Value("${app.auth.bcrypt.strength:10}") int bcryptStrength,
+                                       @Value("${app.auth.hash.max-in-flight-per-username:2}") int maxInFlightPerUsername,
+                                       @Value("${app.auth.hash.max-in-flight-per-client:8}") int maxInFlightPerClient,
+                                       @Value("${app.auth.hash.timeout:5s}") Duration timeout) {
+        this.passwordEncoder = passwordEncoder;
+        this.executor = executor;
+        this.bcryptStrength = bcryptStrength;
+        this.maxInFlightPerUsername = maxInFlightPerUsername;
+        this.maxInFlightPerClient = maxInFlightPerClient;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Whether the raw password matches the stored hash. {@code account} identifies the
+     * login (e.g. "user:alice") for the per-username limit, {@code client} is the remote address.
+     *
+     * @throws LoginThrottledException if the check was refused without hashing
+     */
+    public boolean matches(String account, String client, String rawPassword, String encodedPassword) {
+        if (!acquire(inFlightByUsername, account, maxInFlightPerUsername)) {
+            rejectedUsernameLimit.increment();
+            throw new LoginThrottledException(HttpStatus.TOO_MANY_REQUESTS, "Too many login attempts for this account, please retry");
+        }
+        try {
+            if (!acquire(inFlightByClient, client, maxInFlightPerClient)) {
+                rejectedClientLimit.increment();
+                throw new LoginThrottledException(HttpStatus.TOO_MANY_REQUESTS, "Too many login attempts, please retry");
+            }
+            try {
+                return verify(rawPassword, encodedPassword);
+            } finally {
+                release(inFlightByClient, client);
+            }
+        } finally {
+            release(inFlightByUsername, account);
+        }
+    }
+
+    /**
+     * Re-hashes a just-verified password in the background when its stored BCrypt cost
+     * differs from {@code app.auth.bcrypt.strength}. The updater receives the old and new
+     * hash and should only replace the stored hash if it still equals the old one; it
+     * returns whether it did. Skipped when the pool is busy, since the next login retries.
+     */
+    public void rehashIfNeeded(String rawPassword, String encodedPassword, PasswordUpdater updater) {
+        if (!needsRehash(encodedPassword)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    if (updater.update(encodedPassword, passwordEncoder.encode(rawPassword))) {
+                        rehashed.increment();
+                    }
+                } catch (RuntimeException e) {
+                    logger.warn("Failed to store re-hashed password", e);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            logger.debug("Password hashing pool busy, skipping re-hash");
+        }
+    }
+
+    boolean needsRehash(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != bcryptStrength;
+    }
+
+    public Map<String, Object> getStats() {
+        long completed = verified.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("threads", executor.getMaxPoolSize());
+        stats.put("active", executor.getActiveCount());
+        stats.put("queued", executor.getThreadPoolExecutor().getQueue().size());
+        stats.put("queueCapacity", executor.getQueueCapacity());
+        stats.put("verified", completed);
+        stats.put("rejectedQueueFull", rejectedQueueFull.sum());
+        stats.put("rejectedUsernameLimit", rejectedUsernameLimit.sum());
+        stats.put("rejectedClientLimit", rejectedClientLimit.sum());
+        stats.put("timedOut", timedOut.sum());
+        stats.put("rehashed", rehashed.sum());
+        stats.put("avgQueueWaitMs", completed == 0 ? 0.0 : millis(queueWaitNanos.sum()) / completed);
+        stats.put("maxQueueWaitMs", millis(maxQueueWaitNanos.get()));
+        stats.put("avgHashMs", completed == 0 ? 0.0 : millis(hashNanos.sum()) / completed);
+        stats.put("maxHashMs", millis(maxHashNanos.get()));
+        return stats;
+    }
+
+    private boolean verify(String rawPassword, String encodedPassword) {
+        long submitted = System.nanoTime();
+        Future<Boolean> result;
+        try {
+            result = executor.submit(() -> {
+                long started = System.nanoTime();
+                boolean matches = passwordEncoder.matches(rawPassword, encodedPassword);
+                long finished = System.nanoTime();
+                record(started - submitted, finished - started);
+                return matches;
+            });
+        } catch (TaskRejectedException e) {
+            rejectedQueueFull.increment();
+            throw new LoginThrottledException(HttpStatus.SERVICE_UNAVAILABLE, "Login service is busy, please retry");
+        }
+        try {
+            return result.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            timedOut.increment();
+            throw new LoginThrottledException(HttpStatus.SERVICE_UNAVAILABLE, "Login service is busy, please retry");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while verifying password", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password verification failed", e.getCause());
+        }
+    }
+
+    private void record(long waitNanos, long hashTimeNanos) {
+        verified.increment();
+        queueWaitNanos.add(waitNanos);
+        hashNanos.add(hashTimeNanos);
+        maxQueueWaitNanos.accumulate(waitNanos);
+        maxHashNanos.accumulate(hashTimeNanos);
+    }
+
+    private static boolean acquire(Map<String, Integer> inFlight, String key, int limit) {
+        boolean[] acquired = new boolean[1];
+        inFlight.compute(String.valueOf(key), (k, count) -> {
+            int current = count == null ? 0 : count;
+            if (current >= limit) {
+                return count;
+            }
+            acquired[0] = true;
+            return current + 1;
+        });
+        return acquired[0];
+    }
+
+    private static void release(Map<String, Integer> inFlight, String key) {
+        // Entries are dropped at zero so the maps only hold logins currently in progress
+        inFlight.computeIfPresent(String.valueOf(key), (k, count) -> count <= 1 ? null : count - 1);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    @FunctionalInterface
+    public interface PasswordUpdater {
+        boolean update(String oldHash, String newHash);
+    }
+}
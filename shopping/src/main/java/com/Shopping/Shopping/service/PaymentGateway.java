@@ -0,0 +1,27 @@
+package com.Shopping.Shopping.service;
+
+/**
+ * A payment provider's order API. Implementations make blocking calls and are used
+ * through {@link PaymentGatewayClient}, which adds timeouts, the bulkhead and retries.
+ * Selected with {@code app.payment.gateway=razorpay|fake}.
+ */
+public interface PaymentGateway {
+
+    /**
+     * Creates an order the customer can pay. Not idempotent: each call creates a new order.
+     *
+     * @throws PaymentGatewayException if the gateway refused or failed the request
+     */
+    GatewayOrder createOrder(long amountMinor, String currency, String receipt);
+
+    /**
+     * @throws PaymentGatewayException if the gateway refused or failed the request
+     */
+    GatewayOrder fetchOrder(String orderId);
+
+    /**
+     * An order as the gateway reports it; amounts are in paise.
+     */
+    record GatewayOrder(String id, long amountMinor, String currency, String status) {
+    }
+}
@@ -0,0 +1,199 @@
+package com.Shopping.Shopping.service;
+
+import com.Shopping.Shopping.config.PaymentGatewayConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Calls the configured {@link PaymentGateway} on the bounded
+ * {@link PaymentGatewayConfig#PAYMENT_GATEWAY_EXECUTOR} pool and returns a future, so
+ * controllers can release the request thread while the gateway is working.
+ *
+ * A semaphore of {@code app.payment.gateway.max-concurrent} permits is the bulkhead: once
+ * that many calls are in flight further calls fail at once with 503. A permit is held
+ * until the gateway call really returns, even after the caller has given up on it at
+ * {@code app.payment.gateway.timeout} (504), so a hanging gateway cannot take more threads
+ * than that. Idempotent calls are retried with exponential backoff and full jitter within
+ * the same deadline. Counts and latencies per operation are kept for {@link #getStats()}.
+ */
+@Service
+public class PaymentGatewayClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentGatewayClient.class);
+
+    private static final int MAX_BACKOFF_SHIFT = 10;
+
+    private final PaymentGateway gateway;
+    private final ThreadPoolTaskExecutor executor;
+    private final int maxConcurrent;
+    private final Semaphore bulkhead;
+    private final Duration timeout;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+
+    private final CallStats createOrderStats = new CallStats();
+    private final CallStats fetchOrderStats = new CallStats();
+
+    public PaymentGatewayClient(PaymentGateway gateway,
+                                @Qualifier(PaymentGatewayConfig.PAYMENT_GATEWAY_EXECUTOR) ThreadPoolTaskExecutor executor,
+                                @Value("${app.payment.gateway.max-concurrent:16}") int maxConcurrent,
+                                @Value("${app.payment.gateway.timeout:10s}") Duration timeout,
+                                @Value("${app.payment.gateway.max-attempts:3}") int maxAttempts,
+                                @Value("${app.payment.gateway.retry-backoff:100ms}") Duration retryBackoff) {
+        this.gateway = gateway;
+        this.executor = executor;
+        this.maxConcurrent = maxConcurrent;
+        this.bulkhead = new Semaphore(maxConcurrent);
+        this.timeout = timeout;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBackoff = retryBackoff;
+    }
+
+    /**
+     * Creates a gateway order. Never retried: if a response is lost the order may still
+     * exist, and a second attempt would create another.
+     */
+    public CompletableFuture<PaymentGateway.GatewayOrder> createOrder(long amountMinor, String currency, String receipt) {
+        return call(createOrderStats, false, () -> gateway.createOrder(amountMinor, currency, receipt));
+    }
+
+    public CompletableFuture<PaymentGateway.GatewayOrder> fetchOrder(String orderId) {
+        return call(fetchOrderStats, true, () -> gateway.fetchOrder(orderId));
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("gateway", gateway.getClass().getSimpleName());
+        stats.put("maxConcurrent", maxConcurrent);
+        stats.put("inFlight", maxConcurrent - bulkhead.availablePermits());
+        stats.put("timeoutMs", timeout.toMillis());
+        stats.put("createOrder", createOrderStats.toMap());
+        stats.put("fetchOrder", fetchOrderStats.toMap());
+        return stats;
+    }
+
+    private <T> CompletableFuture<T> call(CallStats stats, boolean idempotent, Supplier<T> call) {
+        stats.calls.increment();
+        if (!bulkhead.tryAcquire()) {
+            stats.rejected.increment();
+            return CompletableFuture.failedFuture(busy());
+        }
+        long started = System.nanoTime();
+        long deadline = started + timeout.toNanos();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    attempt(stats, idempotent, call, deadline, result);
+                } finally {
+                    bulkhead.release();
+                }
+            });
+        } catch (TaskRejectedException e) {
+            bulkhead.release();
+            stats.rejected.increment();
+            return CompletableFuture.failedFuture(busy());
+        }
+        PaymentGatewayException timedOut = new PaymentGatewayException(HttpStatus.GATEWAY_TIMEOUT,
+                "Payment gateway did not respond in time");
+        CompletableFuture.delayedExecutor(timeout.toNanos(), TimeUnit.NANOSECONDS)
+                .execute(() -> result.completeExceptionally(timedOut));
+        // Counted here, not in the timer, so the stats include a timeout before callers see it
+        return result.whenComplete((value, error) -> {
+            if (error == timedOut) {
+                stats.timedOut.increment();
+            }
+            stats.record(System.nanoTime() - started, error == null);
+        });
+    }
+
+    private <T> void attempt(CallStats stats, boolean idempotent, Supplier<T> call, long deadline,
+                             CompletableFuture<T> result) {
+        for (int attempt = 1; !result.isDone(); attempt++) {
+            try {
+                result.complete(call.get());
+                return;
+            } catch (RuntimeException e) {
+                long backoffNanos = backoffNanos(attempt);
+                if (!idempotent || attempt >= maxAttempts || System.nanoTime() + backoffNanos >= deadline) {
+                    result.completeExceptionally(e);
+                    return;
+                }
+                logger.debug("Payment gateway call failed, retrying in {} ms", backoffNanos / 1_000_000, e);
+                stats.retries.increment();
+                try {
+                    TimeUnit.NANOSECONDS.sleep(backoffNanos);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    result.completeExceptionally(e);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Full jitter: uniformly random up to the exponential step, so callers that failed
+     * together do not retry together.
+     */
+    private long backoffNanos(int attempt) {
+        long ceiling = retryBackoff.toNanos() << Math.min(attempt - 1, MAX_BACKOFF_SHIFT);
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private static PaymentGatewayException busy() {
+        return new PaymentGatewayException(HttpStatus.SERVICE_UNAVAILABLE, "Payment gateway is busy, please retry");
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static final class CallStats {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder succeeded = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder timedOut = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder latencyNanos = new LongAdder();
+        private final LongAccumulator maxLatencyNanos = new LongAccumulator(Math::max, 0);
+
+        private void record(long nanos, boolean success) {
+            (success ? succeeded : failed).increment();
+            latencyNanos.add(nanos);
+            maxLatencyNanos.accumulate(nanos);
+        }
+
+        private Map<String, Object> toMap() {
+            long completed = succeeded.sum() + failed.sum();
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("calls", calls.sum());
+            map.put("succeeded", succeeded.sum());
+            map.put("failed", failed.sum());
+            map.put("timedOut", timedOut.sum());
+            map.put("rejected", rejected.sum());
+            map.put("retries", retries.sum());
+            map.put("avgLatencyMs", completed == 0 ? 0.0 : millis(latencyNanos.sum()) / completed);
+            map.put("maxLatencyMs", millis(maxLatencyNanos.get()));
+            return map;
+        }
+    }
+}
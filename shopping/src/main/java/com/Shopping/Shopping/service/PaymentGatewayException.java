@@ -0,0 +1,31 @@
+package com.Shopping.Shopping.service;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * A payment gateway call failed (502), timed out (504), or was refused because too many
+ * calls were already in flight (503).
+ */
+public class PaymentGatewayException extends RuntimeException {
+
+    private final HttpStatus status;
+
+    public PaymentGatewayException(HttpStatus status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    public PaymentGatewayException(HttpStatus status, String message, Throwable cause) {
+        super(message, cause);
+        this.status = status;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    /** Seconds clients should wait before retrying a refused call. */
+    public long getRetryAfterSeconds() {
+        return 1;
+    }
+}
@@ -0,0 +1,135 @@
+package com.Shopping.Shopping.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Verifies checkout signatures locally: Razorpay signs {@code order_id|payment_id} with
+ * HMAC-SHA256 keyed by the API secret and hex-encodes it, so confirming a payment needs
+ * no call to the gateway.
+ *
+ * {@link Mac} is not thread-safe and {@code Mac.getInstance} is a provider lookup, so each
+ * thread keeps one keyed Mac with its input and digest buffers and reuses them; a
+ * verification allocates nothing. The signature is decoded and compared in constant time.
+ * With no {@code razorpay.secret} configured every signature is rejected.
+ */
+@Component
+public class PaymentSignatureVerifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentSignatureVerifier.class);
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int DIGEST_BYTES = 32;
+
+    private final SecretKeySpec key;
+    private final ThreadLocal<State> states = ThreadLocal.withInitial(this::newState);
+
+    private final LongAdder verified = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public PaymentSignatureVerifier(@Value("${razorpay.secret}") String secret) {
+        if (secret.isEmpty()) {
+            logger.warn("razorpay.secret is not set; payment confirmations will be rejected");
+            this.key = null;
+        } else {
+            this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        }
+    }
+
+    /**
+     * Whether {@code signature} is the gateway's signature of this order and payment.
+     */
+    public boolean verify(String orderId, String paymentId, String signature) {
+        boolean valid = key != null && orderId != null && paymentId != null && signature != null
+                && signature.length() == DIGEST_BYTES * 2 && matches(states.get(), orderId, paymentId, signature);
+        (valid ? verified : rejected).increment();
+        return valid;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("verified", verified.sum());
+        stats.put("rejected", rejected.sum());
+        return stats;
+    }
+
+    private static boolean matches(State state, String orderId, String paymentId, String signature) {
+        int length = orderId.length() + 1 + paymentId.length();
+        if (state.input.length < length) {
+            state.input = new byte[Math.max(length, state.input.length * 2)];
+        }
+        // Gateway ids are ASCII; anything else cannot have been signed
+        if (!ascii(orderId, state.input, 0) || !ascii(paymentId, state.input, orderId.length() + 1)) {
+            return false;
+        }
+        state.input[orderId.length()] = '|';
+        try {
+            state.mac.update(state.input, 0, length);
+            state.mac.doFinal(state.digest, 0);
+        } catch (ShortBufferException e) {
+            throw new IllegalStateException(e);
+        }
+        int diff = 0;
+        for (int i = 0; i < DIGEST_BYTES; i++) {
+            // -1 for a non-hex character, which differs from every byte value
+            int decoded = hexValue(signature.charAt(2 * i)) << 4 | hexValue(signature.charAt(2 * i + 1));
+            diff |= (state.digest[i] & 0xff) ^ decoded;
+        }
+        return diff == 0;
+    }
+
+    private static boolean ascii(String value, byte[] out, int offset) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c > 0x7f) {
+                return false;
+            }
+            out[offset + i] = (byte) c;
+        }
+        return true;
+    }
+
+    private static int hexValue(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+
+    private State newState() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return new State(mac);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+
+    private static final class State {
+        private final Mac mac;
+        private final byte[] digest = new byte[DIGEST_BYTES];
+        private byte[] input = new byte[64];
+
+        private State(Mac mac) {
+            this.mac = mac;
+        }
+    }
+}
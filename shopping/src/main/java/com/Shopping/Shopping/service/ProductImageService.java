@@ -0,0 +1,290 @@
+package com.Shopping.Shopping.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Serves product images from the configured {@link ImageStore}.
+ *
+ * product.image_hash and product_image_variants.image_hash name the stored blobs.
+ * A bounded LRU keeps metadata plus the bytes of small, hot images so catalog
+ * thumbnails don't hit the store. Sized requests get the smallest generated variant
+ * at least that wide; while a product has no such variant, the original is cached
+ * under the variant's key until ProductImageVariantService reports new variants.
+ */
+@Service
+public class ProductImageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImageService.class);
+
+    /** Cache/descriptor width of the original upload. */
+    public static final int ORIGINAL = 0;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ImageStore imageStore;
+    private final long maxCachedBytes;
+    private final int maxCachedEntryBytes;
+    private final int maxCachedEntries;
+    private final Duration deleteGrace;
+    private final ProductImageVariantService productImageVariantService;
+
+    private final LinkedHashMap<ImageKey, ImageDescriptor> cache = new LinkedHashMap<>(256, 0.75f, true);
+    private long cachedBytes;
+    // Bumped on every eviction, so a lookup that raced one does not cache the original as a variant
+    private long evictions;
+
+    public ProductImageService(JdbcTemplate jdbcTemplate,
+                               ImageStore imageStore,
+                               @Value("${app.image.cache.max-bytes:67108864}") long maxCachedBytes,
+                               @Value("${app.image.cache.max-entry-bytes:1048576}") int maxCachedEntryBytes,
+                               @Value("${app.image.cache.max-entries:10000}") int maxCachedEntries,
+                               @Value("${app.image.store.delete-grace:10m}") Duration deleteGrace,
+                               ProductImageVariantService productImageVariantService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.imageStore = imageStore;
+        this.maxCachedBytes = maxCachedBytes;
+        this.maxCachedEntryBytes = maxCachedEntryBytes;
+        this.maxCachedEntries = maxCachedEntries;
+        this.deleteGrace = deleteGrace;
+        this.productImageVariantService = productImageVariantService;
+        productImageVariantService.onVariantsChanged(this::evictVariants);
+    }
+
+    /**
+     * Returns the image metadata (and bytes for small images) for a product,
+     * or empty if the product does not exist or has no image.
+     *
+     * With a size, returns the smallest variant at least that wide; if it hasn't been
+     * generated yet, generation is scheduled and the original is returned meanwhile.
+     * Sizes above the largest variant width get the original.
+     */
+    public Optional<ImageDescriptor> describe(Long productId, Integer size) {
+        Integer width = size == null ? null : productImageVariantService.getWidths().stream()
+                .filter(w -> w >= size)
+                .findFirst()
+                .orElse(null);
+        if (width == null) {
+            return describeOriginal(productId);
+        }
+        ImageKey key = new ImageKey(productId, width);
+        // The variant, or the original while there is none
+        ImageDescriptor cached = getCached(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        long evictionsBefore = evictions();
+        Optional<ImageDescriptor> variant = describeVariant(productId, width);
+        if (variant.isPresent()) {
+            return variant;
+        }
+        Optional<ImageDescriptor> original = describeOriginal(productId);
+        original.ifPresent(image -> {
+            putFallback(key, image, evictionsBefore);
+            productImageVariantService.schedule(productId, image.hash());
+        });
+        return original;
+    }
+
+    private Optional<ImageDescriptor> describeVariant(Long productId, int width) {
+        List<ImageRow> rows = jdbcTemplate.query(
+                "SELECT p.image_hash, v.image_hash AS variant_hash, v.content_type " +
+                "FROM product p JOIN product_image_variants v ON v.product_id = p.id " +
+                "WHERE p.id = ? AND v.width = ? AND v.image_hash IS NOT NULL",
+                (rs, rowNum) -> new ImageRow(rs.getString("variant_hash"), rs.getString("image_hash"), rs.getString("content_type")),
+                productId, width);
+        return rows.isEmpty() ? Optional.empty() : load(productId, width, rows.get(0));
+    }
+
+    private Optional<ImageDescriptor> describeOriginal(Long productId) {
+        ImageDescriptor cached = getCached(new ImageKey(productId, ORIGINAL));
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        List<ImageRow> rows = jdbcTemplate.query(
+                "SELECT image_name, image_hash FROM product WHERE id = ? AND image_hash IS NOT NULL",
+                (rs, rowNum) -> new ImageRow(rs.getString("image_hash"), rs.getString("image_hash"),
+                        contentTypeFor(rs.getString("image_name"))),
+                productId);
+        return rows.isEmpty() ? Optional.empty() : load(productId, ORIGINAL, rows.get(0));
+    }
+
+    private Optional<ImageDescriptor> load(Long productId, int width, ImageRow row) {
+        long length = imageStore.length(row.hash());
+        if (length < 0) {
+            logger.warn("Image {} of product {} (width {}) is missing from the image store", row.hash(), productId, width);
+            return Optional.empty();
+        }
+        byte[] data = length <= maxCachedEntryBytes ? imageStore.read(row.hash()) : null;
+        ImageDescriptor descriptor = new ImageDescriptor(productId, width, row.hash(), row.version(), row.contentType(), length, data);
+        putCached(descriptor);
+        return Optional.of(descriptor);
+    }
+
+    /**
+     * Writes bytes [start, end] (inclusive) of the image to the given stream.
+     */
+    public void write(ImageDescriptor image, long start, long end, OutputStream out) throws IOException {
+        if (image.data() != null) {
+            out.write(image.data(), (int) start, (int) (end - start + 1));
+            return;
+        }
+        imageStore.write(image.hash(), start, end, out);
+    }
+
+    /**
+     * The image as a local file when it isn't held in memory and the store keeps files,
+     * so the controller can hand it to the web server for sendfile.
+     */
+    public Optional<Path> file(ImageDescriptor image) {
+        return image.data() == null ? imageStore.file(image.hash()) : Optional.empty();
+    }
+
+    /**
+     * Deletes blobs no product or variant references any more. Call after the referencing rows are gone.
+     */
+    public void release(Collection<String> hashes) {
+        Instant cutoff = Instant.now().minus(deleteGrace);
+        hashes.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .forEach(hash -> {
+                    try {
+                        if (!isReferenced(hash)) {
+                            imageStore.delete(hash, cutoff);
+                        }
+                    } catch (RuntimeException e) {
+                        // Runs after commit; a leftover blob is harmless, a failed request is not
+                        logger.warn("Failed to release stored image {}", hash, e);
+                    }
+                });
+    }
+
+    /**
+     * Drops the original and every variant of a product from the cache.
+     */
+    public synchronized void evict(Long productId) {
+        remove(new ImageKey(productId, ORIGINAL));
+        evictVariants(productId);
+    }
+
+    /**
+     * Drops a product's variants from the cache, including the original cached in place
+     * of variants that did not exist yet.
+     */
+    private synchronized void evictVariants(Long productId) {
+        evictions++;
+        productImageVariantService.getWidths().forEach(width -> remove(new ImageKey(productId, width)));
+    }
+
+    public static String sha256Hex(byte[] data) {
+        return HexFormat.of().formatHex(newSha256().digest(data));
+    }
+
+    private boolean isReferenced(String hash) {
+        Integer references = jdbcTemplate.queryForObject(
+                "SELECT (SELECT COUNT(*) FROM product WHERE image_hash = ?) " +
+                "+ (SELECT COUNT(*) FROM product_image_variants WHERE image_hash = ?)",
+                Integer.class, hash, hash);
+        return references != null && references > 0;
+    }
+
+    private static String contentTypeFor(String imageName) {
+        return MediaTypeFactory.getMediaType(imageName)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM)
+                .toString();
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private synchronized ImageDescriptor getCached(ImageKey key) {
+        return cache.get(key);
+    }
+
+    private synchronized long evictions() {
+        return evictions;
+    }
+
+    private synchronized void putFallback(ImageKey key, ImageDescriptor original, long evictionsBefore) {
+        if (evictions == evictionsBefore) {
+            putCached(key, original);
+        }
+    }
+
+    private synchronized void remove(ImageKey key) {
+        ImageDescriptor removed = cache.remove(key);
+        if (removed != null && removed.data() != null) {
+            cachedBytes -= removed.data().length;
+        }
+    }
+
+    private synchronized void putCached(ImageDescriptor descriptor) {
+        putCached(new ImageKey(descriptor.productId(), descriptor.width()), descriptor);
+    }
+
+    // A fallback shares the original's bytes but is counted separately, as either entry may outlive the other
+    private synchronized void putCached(ImageKey key, ImageDescriptor descriptor) {
+        remove(key);
+        cache.put(key, descriptor);
+        if (descriptor.data() != null) {
+            cachedBytes += descriptor.data().length;
+        }
+        var iterator = cache.entrySet().iterator();
+        while ((cachedBytes > maxCachedBytes || cache.size() > maxCachedEntries) && iterator.hasNext()) {
+            Map.Entry<ImageKey, ImageDescriptor> eldest = iterator.next();
+            if (eldest.getValue().data() != null) {
+                cachedBytes -= eldest.getValue().data().length;
+            }
+            iterator.remove();
+        }
+    }
+
+    private record ImageRow(String hash, String version, String contentType) {}
+
+    private record ImageKey(Long productId, int width) {}
+
+    /**
+     * Image metadata; {@code data} is only populated for images small enough to cache.
+     * {@code width} is 0 for the original upload, {@code hash} identifies these exact bytes
+     * and {@code version} is the original's hash, which product image URLs carry as {@code ?v=}.
+     */
+    public record ImageDescriptor(Long productId, int width, String hash, String version, String contentType,
+                                  long length, byte[] data) {
+
+        public String etag() {
+            return "\"" + hash + "\"";
+        }
+
+        @Override
+        public String toString() {
+            return "ImageDescriptor[productId=" + productId + ", width=" + width + ", hash=" + hash + ", length=" + length + "]";
+        }
+    }
+}
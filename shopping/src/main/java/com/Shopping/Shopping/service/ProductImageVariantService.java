@@ -0,0 +1,121 @@
+package com.Shopping.Shopping.service;
+
+import com.Shopping.Shopping.config.ImageProcessingConfig;
+import com.Shopping.Shopping.model.ProductImageVariant;
+import com.Shopping.Shopping.repository.ProductImageVariantRepository;
+import com.Shopping.Shopping.util.ImageResizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Generates the fixed-width derivatives of product images off the request thread.
+ *
+ * Uploads schedule generation after commit; the image endpoint also schedules it when
+ * a requested size is missing (older products, or a job that was rejected), serving the
+ * original until the variants exist.
+ */
+@Service
+public class ProductImageVariantService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImageVariantService.class);
+
+    private final ImageStore imageStore;
+    private final ProductImageVariantRepository productImageVariantRepository;
+    private final TaskExecutor executor;
+    private final List<Integer> widths;
+    private final float jpegQuality;
+
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+    // Uploads ImageIO can't decode; images are never replaced, so these are never retried
+    private final Set<Long> undecodable = ConcurrentHashMap.newKeySet();
+    private final List<Consumer<Long>> listeners = new CopyOnWriteArrayList<>();
+
+    public ProductImageVariantService(ImageStore imageStore,
+                                      ProductImageVariantRepository productImageVariantRepository,
+                                      @Qualifier(ImageProcessingConfig.IMAGE_PROCESSING_EXECUTOR) TaskExecutor executor,
+                                      @Value("${app.image.variants.widths:160,480,1200}") List<Integer> widths,
+                                      @Value("${app.image.variants.jpeg-quality:0.8}") float jpegQuality) {
+        this.imageStore = imageStore;
+        this.productImageVariantRepository = productImageVariantRepository;
+        this.executor = executor;
+        this.widths = widths.stream().distinct().sorted().toList();
+        this.jpegQuality = jpegQuality;
+    }
+
+    /**
+     * Configured widths, smallest first.
+     */
+    public List<Integer> getWidths() {
+        return widths;
+    }
+
+    /**
+     * Registers a callback run with a product id when a lookup that found no variant should
+     * look again: after the product's variants are saved, or when its job could not be queued.
+     */
+    public void onVariantsChanged(Consumer<Long> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Queues derivative generation for a product, from the stored original with the given hash,
+     * unless it is already queued.
+     */
+    public void schedule(Long productId, String sourceHash) {
+        if (undecodable.contains(productId) || !pending.add(productId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(productId, sourceHash);
+                } finally {
+                    pending.remove(productId);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            pending.remove(productId);
+            logger.warn("Image variant queue full, skipping product {} for now", productId);
+            listeners.forEach(listener -> listener.accept(productId));
+        }
+    }
+
+    void generate(Long productId, String sourceHash) {
+        try {
+            long started = System.nanoTime();
+            Map<Integer, ImageResizer.Derivative> derivatives =
+                    ImageResizer.derive(imageStore.read(sourceHash), widths, jpegQuality);
+            if (derivatives.isEmpty()) {
+                undecodable.add(productId);
+                logger.info("Product {} image is not a decodable image; no variants generated", productId);
+                return;
+            }
+            List<ProductImageVariant> variants = derivatives.entrySet().stream()
+                    .map(entry -> {
+                        ImageResizer.Derivative derivative = entry.getValue();
+                        return new ProductImageVariant(productId, entry.getKey(), derivative.height(),
+                                imageStore.put(derivative.data()), derivative.contentType());
+                    })
+                    .toList();
+            productImageVariantRepository.saveAll(variants);
+            listeners.forEach(listener -> listener.accept(productId));
+            logger.info("Generated {} image variants for product {} in {} ms",
+                    variants.size(), productId, (System.nanoTime() - started) / 1_000_000);
+        } catch (Exception e) {
+            // Typically the product was deleted mid-flight or the upload is corrupt; the original is still served
+            logger.warn("Failed to generate image variants for product {}", productId, e);
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.Shopping.Shopping.service;
+
+import com.Shopping.Shopping.model.Product;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over product text.
+ *
+ * Terms are lower-cased and lightly stemmed; each posting carries a field-weighted score
+ * so name matches outrank category/id matches, which outrank description matches.
+ * Multi-term queries are ANDed, and the last term also matches as a prefix so
+ * search-as-you-type works without a table scan.
+ *
+ * A full rebuild fills a separate index while this one keeps taking live changes, which
+ * are also recorded and replayed onto the new index before it is swapped in. A row the
+ * rebuild read just before a concurrent update or delete therefore cannot leave a stale
+ * entry behind.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final int NAME_WEIGHT = 8;
+    private static final int CATEGORY_WEIGHT = 4;
+    private static final int PRODUCT_ID_WEIGHT = 4;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    /** Highest score first, then lowest id, so paging is stable. */
+    private static final Comparator<Map.Entry<Long, Integer>> RANKING =
+            Map.Entry.<Long, Integer>comparingByValue(Comparator.reverseOrder())
+                    .thenComparing(Map.Entry.comparingByKey());
+
+    private NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private Map<Long, Set<String>> termsByProduct = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    /** Latest change per product (null value: removed) while a rebuild is running, else null. */
+    private Map<Long, Document> changesDuringRebuild;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return termsByProduct.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void index(Product product) {
+        index(product.getId(), product.getName(), product.getDescription(), product.getCategory(), product.getUniqueProductId());
+    }
+
+    /**
+     * Adds or replaces a product's postings.
+     */
+    public void index(Long productId, String name, String description, String category, String uniqueProductId) {
+        Map<String, Integer> scores = new HashMap<>();
+        addTerms(scores, name, NAME_WEIGHT);
+        addTerms(scores, category, CATEGORY_WEIGHT);
+        addTerms(scores, description, DESCRIPTION_WEIGHT);
+        addTerms(scores, uniqueProductId, PRODUCT_ID_WEIGHT);
+        if (uniqueProductId != null && !uniqueProductId.isBlank()) {
+            // Whole product codes like "prod-1a2b3c4d" are searched as-is
+            scores.merge(uniqueProductId.toLowerCase(Locale.ROOT).trim(), PRODUCT_ID_WEIGHT, Integer::sum);
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(productId);
+            scores.forEach((term, score) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(productId, score));
+            termsByProduct.put(productId, scores.keySet());
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.put(productId, new Document(name, description, category, uniqueProductId));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(productId);
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.put(productId, null);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Starts recording live changes and returns an empty index to fill from the database.
+     * Call before the scan starts reading, then {@link #finishRebuild} or {@link #abandonRebuild}.
+     */
+    public ProductSearchIndex startRebuild() {
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild = new HashMap<>();
+            return new ProductSearchIndex();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replays the changes made since {@link #startRebuild} onto {@code rebuilt}, swaps its
+     * postings in and marks the index ready.
+     */
+    public void finishRebuild(ProductSearchIndex rebuilt) {
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild.forEach((productId, document) -> {
+                if (document == null) {
+                    rebuilt.remove(productId);
+                } else {
+                    rebuilt.index(productId, document.name(), document.description(), document.category(),
+                            document.uniqueProductId());
+                }
+            });
+            postings = rebuilt.postings;
+            termsByProduct = rebuilt.termsByProduct;
+            changesDuringRebuild = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void abandonRebuild() {
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns one page of product ids matching every query term, best match first.
+     */
+    public SearchResult search(String query, int offset, int limit) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return new SearchResult(List.of(), 0);
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Integer> scores = null;
+            for (int i = 0; i < terms.size(); i++) {
+                Map<Long, Integer> matches = matches(terms.get(i), i == terms.size() - 1);
+                scores = scores == null ? matches : intersect(scores, matches);
+                if (scores.isEmpty()) {
+                    return new SearchResult(List.of(), 0);
+                }
+            }
+            // scores may be a live posting map, so rank before releasing the lock
+            return new SearchResult(topIds(scores, Math.max(offset, 0), Math.max(limit, 0)), scores.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ranks only the best offset+limit hits, using a bounded min-heap instead of sorting every match.
+     */
+    private static List<Long> topIds(Map<Long, Integer> scores, int offset, int limit) {
+        int wanted = (int) Math.min((long) offset + limit, scores.size());
+        if (wanted <= offset) {
+            return List.of();
+        }
+        PriorityQueue<Map.Entry<Long, Integer>> top = new PriorityQueue<>(wanted, RANKING.reversed());
+        for (Map.Entry<Long, Integer> entry : scores.entrySet()) {
+            if (top.size() < wanted) {
+                top.add(entry);
+            } else if (RANKING.compare(entry, top.peek()) < 0) {
+                top.poll();
+                top.add(entry);
+            }
+        }
+        List<Map.Entry<Long, Integer>> ranked = new ArrayList<>(top);
+        ranked.sort(RANKING);
+        List<Long> ids = new ArrayList<>(wanted - offset);
+        for (int i = offset; i < ranked.size(); i++) {
+            ids.add(ranked.get(i).getKey());
+        }
+        return ids;
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                terms.add(stem(token));
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Minimal English suffix stripping (plurals, -ing, -ed); enough for "phones" to find "phone".
+     */
+    static String stem(String term) {
+        if (term.length() > 4 && term.endsWith("ies")) {
+            return term.substring(0, term.length() - 3) + "y";
+        }
+        if (term.length() > 4 && (term.endsWith("sses") || term.endsWith("xes") || term.endsWith("ches") || term.endsWith("shes"))) {
+            return term.substring(0, term.length() - 2);
+        }
+        if (term.length() > 3 && term.endsWith("s") && !term.endsWith("ss") && !term.endsWith("us")) {
+            return term.substring(0, term.length() - 1);
+        }
+        if (term.length() > 5 && term.endsWith("ing")) {
+            return term.substring(0, term.length() - 3);
+        }
+        if (term.length() > 4 && term.endsWith("ed")) {
+            return term.substring(0, term.length() - 2);
+        }
+        return term;
+    }
+
+    private static void addTerms(Map<String, Integer> scores, String text, int weight) {
+        for (String term : tokenize(text)) {
+            scores.merge(term, weight, Integer::sum);
+        }
+    }
+
+    private Map<Long, Integer> matches(String term, boolean prefix) {
+        Map<Long, Integer> result = new HashMap<>();
+        if (!prefix) {
+            Map<Long, Integer> exact = postings.get(term);
+            return exact != null ? exact : result;
+        }
+        NavigableMap<String, Map<Long, Integer>> range = postings.subMap(term, true, term + Character.MAX_VALUE, false);
+        if (range.size() == 1) {
+            return range.firstEntry().getValue();
+        }
+        for (Map<Long, Integer> posting : range.values()) {
+            posting.forEach((id, score) -> result.merge(id, score, Math::max));
+        }
+        return result;
+    }
+
+    private static Map<Long, Integer> intersect(Map<Long, Integer> left, Map<Long, Integer> right) {
+        Map<Long, Integer> smaller = left.size() <= right.size() ? left : right;
+        Map<Long, Integer> larger = smaller == left ? right : left;
+        Map<Long, Integer> result = new HashMap<>();
+        smaller.forEach((id, score) -> {
+            Integer other = larger.get(id);
+            if (other != null) {
+                result.put(id, score + other);
+            }
+        });
+        return result;
+    }
+
+    private void removeLocked(Long productId) {
+        Set<String> terms = termsByProduct.remove(productId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<Long, Integer> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(productId);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    public record SearchResult(List<Long> productIds, int total) {}
+
+    private record Document(String name, String description, String category, String uniqueProductId) {}
+}
@@ -1,17 +1,41 @@
 package com.Shopping.Shopping.service;
 
+import com.Shopping.Shopping.config.CacheConfig;
+import com.Shopping.Shopping.dto.ProductSearchDocument;
+import com.Shopping.Shopping.dto.ProductDTO;
+import com.Shopping.Shopping.dto.ProductSummary;
+import com.Shopping.Shopping.model.CategoryFacet;
 import com.Shopping.Shopping.model.Product;
+import com.Shopping.Shopping.repository.ProductImageVariantRepository;
 import com.Shopping.Shopping.repository.ProductRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class ProductService {
@@ -21,25 +45,84 @@ public class ProductService {
     @Autowired
     private ProductRepository productRepository;
 
-    public List<Product> searchProducts(String keyword) {
-        logger.info("=== SEARCH PRODUCTS METHOD STARTED ===");
-        logger.info("Search keyword: '{}'", keyword);
+    @Autowired
+    private ImageStore imageStore;
+
+    @Autowired
+    private ProductImageService productImageService;
+
+    @Autowired
+    private ProductImageVariantRepository productImageVariantRepository;
+
+    @Autowired
+    private ProductImageVariantService productImageVariantService;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private CategoryFacetService categoryFacetService;
+
+    /**
+     * Ranked search page. Uses the in-memory index once it is built and falls back to the
+     * LIKE query while the application is still starting.
+     */
+    public Window<ProductSummary> searchProducts(String keyword, int offset, int limit) {
+        logger.info("=== SEARCH PRODUCTS PAGE METHOD STARTED ===");
+        logger.info("Search keyword: '{}', offset: {}, limit: {}", keyword, offset, limit);
         
         try {
-            List<Product> results = productRepository.searchProducts(keyword);
-            logger.info("Search completed. Found {} products for keyword: '{}'", results.size(), keyword);
-            logger.info("=== SEARCH PRODUCTS METHOD COMPLETED SUCCESSFULLY ===");
-            return results;
+            List<ProductSummary> page;
+            boolean hasNext;
+            if (productSearchIndex.isReady()) {
+                ProductSearchIndex.SearchResult result = productSearchIndex.search(keyword, offset, limit);
+                page = loadInOrder(result.productIds(), productRepository::findSummariesByIdIn, ProductSummary::getId);
+                hasNext = offset + result.productIds().size() < result.total();
+            } else {
+                List<ProductSummary> all = productRepository.searchProductSummaries(keyword);
+                page = all.stream().skip(offset).limit(limit).toList();
+                hasNext = offset + page.size() < all.size();
+            }
+            logger.info("Search page completed. Returning {} products, hasNext: {}", page.size(), hasNext);
+            logger.info("=== SEARCH PRODUCTS PAGE METHOD COMPLETED SUCCESSFULLY ===");
+            return Window.from(page, i -> ScrollPosition.offset(offset + i), hasNext);
         } catch (Exception e) {
-            logger.error("=== ERROR IN SEARCH PRODUCTS METHOD for keyword: '{}' ===", keyword, e);
+            logger.error("=== ERROR IN SEARCH PRODUCTS PAGE METHOD for keyword: '{}' ===", keyword, e);
             throw e;
         }
     }
 
+    /**
+     * Builds the search index from a streamed scan into a fresh index, then swaps it in.
+     * Runs once the server is accepting requests, so product writes committed during the
+     * scan are replayed onto the new index rather than lost to a stale read (see
+     * {@link ProductSearchIndex#startRebuild}). Searches use the LIKE query until then.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuildSearchIndex() {
+        logger.info("=== REBUILD SEARCH INDEX METHOD STARTED ===");
+        ProductSearchIndex rebuilt = productSearchIndex.startRebuild();
+        try (Stream<ProductSearchDocument> documents = productRepository.streamSearchDocuments()) {
+            documents.forEach(document -> rebuilt.index(document.getId(), document.getName(),
+                    document.getDescription(), document.getCategory(), document.getUniqueProductId()));
+        } catch (RuntimeException e) {
+            productSearchIndex.abandonRebuild();
+            logger.error("=== ERROR IN REBUILD SEARCH INDEX METHOD ===", e);
+            throw e;
+        }
+        productSearchIndex.finishRebuild(rebuilt);
+        logger.info("Search index built for {} products", productSearchIndex.size());
+        logger.info("=== REBUILD SEARCH INDEX METHOD COMPLETED SUCCESSFULLY ===");
+    }
+
+    @Cacheable(cacheNames = CacheConfig.CATEGORIES, key = "'all'")
     public List<String> getAllCategories() {
         logger.info("=== GET ALL CATEGORIES METHOD STARTED ===");
         try {
-            List<String> categories = productRepository.findDistinctCategories();
+            List<String> categories = categoryFacetService.getFacets().stream()
+                .map(CategoryFacet::getCategory)
+                .toList();
             logger.info("Found {} distinct categories", categories.size());
             logger.info("=== GET ALL CATEGORIES METHOD COMPLETED SUCCESSFULLY ===");
             return categories;
@@ -49,11 +132,26 @@ public class ProductService {
         }
     }
 
-    public List<Product> getProductsByCategory(String category) {
+    @Cacheable(cacheNames = CacheConfig.CATEGORIES, key = "'facets'")
+    public List<CategoryFacet> getCategoryFacets() {
+        logger.info("=== GET CATEGORY FACETS METHOD STARTED ===");
+        try {
+            List<CategoryFacet> facets = List.copyOf(categoryFacetService.getFacets());
+            logger.info("Found {} category facets", facets.size());
+            logger.info("=== GET CATEGORY FACETS METHOD COMPLETED SUCCESSFULLY ===");
+            return facets;
+        } catch (Exception e) {
+            logger.error("=== ERROR IN GET CATEGORY FACETS METHOD ===", e);
+            throw e;
+        }
+    }
+
+    @Cacheable(cacheNames = CacheConfig.PRODUCT_LISTS, key = "'category:' + #category?.toLowerCase()")
+    public List<ProductSummary> getProductsByCategory(String category) {
         logger.info("=== GET PRODUCTS BY CATEGORY METHOD STARTED ===");
         logger.info("Category: '{}'", category);
         try {
-            List<Product> products = productRepository.findByCategoryContainingIgnoreCase(category);
+            List<ProductSummary> products = List.copyOf(productRepository.findSummariesByCategoryContainingIgnoreCase(category));
             logger.info("Found {} products in category: '{}'", products.size(), category);
             logger.info("=== GET PRODUCTS BY CATEGORY METHOD COMPLETED SUCCESSFULLY ===");
             return products;
@@ -66,21 +164,25 @@ public class ProductService {
     @org.springframework.beans.factory.annotation.Value("${app.upload.dir}")
     private String uploadDir;
 
+    @Transactional
+    @CacheEvict(cacheNames = {CacheConfig.PRODUCT_LISTS, CacheConfig.CATEGORIES}, allEntries = true)
     public void saveProduct(Product product, MultipartFile productImage) {
         logger.info("=== SAVE PRODUCT METHOD STARTED ===");
         logger.info("Product details - Name: '{}', Description: '{}', Price: {}", 
                    product.getName(), product.getDescription(), product.getPrice());
         
         try {
-            // Store image in database instead of filesystem (persists across restarts)
+            requireName(product.getName());
+            // Image bytes go to the ImageStore; the product row only keeps their hash
+            byte[] imageBytes = null;
             if (productImage != null && !productImage.isEmpty()) {
                 logger.info("Processing image file - Name: '{}', Size: {} bytes, Content Type: '{}'", 
                            productImage.getOriginalFilename(), productImage.getSize(), productImage.getContentType());
                 
                 try {
-                    // Save image data to database
-                    product.setImage(productImage.getBytes());
-                    logger.info("Image data saved to database ({} bytes)", productImage.getBytes().length);
+                    imageBytes = productImage.getBytes();
+                    product.setImageHash(imageStore.put(imageBytes));
+                    logger.info("Image stored ({} bytes)", imageBytes.length);
                     
                     // Keep imageName for backward compatibility (optional)
                     String imageExtension = getFileExtension(productImage.getOriginalFilename());
@@ -90,18 +192,29 @@ public class ProductService {
                 } catch (IOException e) {
                     logger.error("Failed to process image file: '{}'", productImage.getOriginalFilename(), e);
                     logger.warn("Continuing without image due to processing failure");
-                    product.setImage(null);
+                    imageBytes = null;
+                    product.setImageHash(null);
                     product.setImageName(null);
                 }
             } else {
                 logger.info("No image file provided or file is empty");
-                product.setImage(null);
+                product.setImageHash(null);
                 product.setImageName(null);
             }
 
             logger.info("Saving product to database...");
             Product savedProduct = productRepository.save(product);
             logger.info("Product saved successfully with ID: {}", savedProduct.getId());
+
+            categoryFacetService.refresh(savedProduct.getCategory());
+            boolean hasImage = imageBytes != null;
+            afterCommit(() -> {
+                productSearchIndex.index(savedProduct);
+                if (hasImage) {
+                    // Thumbnails are generated in the background; the original is served until they exist
+                    productImageVariantService.schedule(savedProduct.getId(), savedProduct.getImageHash());
+                }
+            });
             
             logger.info("=== SAVE PRODUCT METHOD COMPLETED SUCCESSFULLY ===");
         } catch (Exception e) {
@@ -111,6 +224,102 @@ public class ProductService {
         }
     }
 
+    @Transactional
+    @Caching(evict = {
+        @CacheEvict(cacheNames = CacheConfig.PRODUCTS, key = "#productId"),
+        @CacheEvict(cacheNames = {CacheConfig.PRODUCT_LISTS, CacheConfig.CATEGORIES}, allEntries = true)
+    })
+    public Product updateProduct(Long productId, String name, String description, double price,
+                                 String category, String uniqueProductId) {
+        logger.info("=== UPDATE PRODUCT METHOD STARTED ===");
+        logger.info("Updating product ID: {}", productId);
+        
+        try {
+            requireName(name);
+            Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new RuntimeException("Product not found"));
+            String previousCategory = product.getCategory();
+            product.setName(name);
+            product.setDescription(description);
+            product.setPrice(price);
+            product.setCategory(category);
+            if (uniqueProductId != null) {
+                product.setUniqueProductId(uniqueProductId);
+            }
+            Product savedProduct = productRepository.saveAndFlush(product);
+            categoryFacetService.refresh(previousCategory, savedProduct.getCategory());
+            afterCommit(() -> productSearchIndex.index(savedProduct));
+            logger.info("=== UPDATE PRODUCT METHOD COMPLETED SUCCESSFULLY ===");
+            return savedProduct;
+        } catch (Exception e) {
+            logger.error("=== ERROR IN UPDATE PRODUCT METHOD for ID: {} ===", productId, e);
+            throw e;
+        }
+    }
+
+    @Transactional
+    @Caching(evict = {
+        @CacheEvict(cacheNames = CacheConfig.PRODUCTS, key = "#productId"),
+        @CacheEvict(cacheNames = {CacheConfig.PRODUCT_LISTS, CacheConfig.CATEGORIES}, allEntries = true)
+    })
+    public void deleteProduct(Long productId) {
+        logger.info("=== DELETE PRODUCT METHOD STARTED ===");
+        logger.info("Deleting product ID: {}", productId);
+        
+        try {
+            Optional<Product> existing = productRepository.findById(productId);
+            String category = existing.map(Product::getCategory).orElse(null);
+            List<String> imageHashes = new ArrayList<>(productImageVariantRepository.findImageHashesByProductId(productId));
+            existing.map(Product::getImageHash).ifPresent(imageHashes::add);
+            productImageVariantRepository.deleteByProductId(productId);
+            productRepository.deleteById(productId);
+            productRepository.flush();
+            categoryFacetService.refresh(category);
+            afterCommit(() -> {
+                productSearchIndex.remove(productId);
+                productImageService.evict(productId);
+                // Identical uploads share blobs, so only unreferenced ones are deleted
+                productImageService.release(imageHashes);
+            });
+            logger.info("=== DELETE PRODUCT METHOD COMPLETED SUCCESSFULLY ===");
+        } catch (Exception e) {
+            logger.error("=== ERROR IN DELETE PRODUCT METHOD for ID: {} ===", productId, e);
+            throw e;
+        }
+    }
+
+    private static <T> List<T> loadInOrder(List<Long> productIds, Function<List<Long>, List<T>> loader,
+                                           Function<T, Long> idOf) {
+        Map<Long, T> byId = loader.apply(productIds).stream()
+            .collect(Collectors.toMap(idOf, Function.identity()));
+        return productIds.stream()
+            .map(byId::get)
+            .filter(Objects::nonNull)
+            .toList();
+    }
+
+    private static void requireName(String name) {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Product name is required");
+        }
+    }
+
+    /**
+     * In-memory structures (search index, caches) must only see committed data.
+     */
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
     private String getFileExtension(String fileName) {
         logger.debug("Getting file extension for: '{}'", fileName);
         
@@ -124,11 +333,12 @@ public class ProductService {
         return extension;
     }
 
-    public List<Product> getAllProducts() {
+    @Cacheable(cacheNames = CacheConfig.PRODUCT_LISTS, key = "'all'")
+    public List<ProductSummary> getAllProducts() {
         logger.info("=== GET ALL PRODUCTS METHOD STARTED ===");
         
         try {
-            List<Product> products = productRepository.findAll();
+            List<ProductSummary> products = List.copyOf(productRepository.findSummariesBy(Sort.by("id")));
             logger.info("Successfully retrieved {} products from database", products.size());
             logger.info("=== GET ALL PRODUCTS METHOD COMPLETED SUCCESSFULLY ===");
             return products;
@@ -138,15 +348,35 @@ public class ProductService {
         }
     }
 
-    public Product getProductById(Long productId) {
+    public Window<ProductSummary> getProductsPage(ScrollPosition position, Sort sort, Limit limit) {
+        logger.info("=== GET PRODUCTS PAGE METHOD STARTED ===");
+        logger.info("Sort: {}, Limit: {}", sort, limit.max());
+        
+        try {
+            Window<ProductSummary> page = productRepository.findSummariesBy(position, sort, limit);
+            logger.info("Retrieved {} products, hasNext: {}", page.size(), page.hasNext());
+            logger.info("=== GET PRODUCTS PAGE METHOD COMPLETED SUCCESSFULLY ===");
+            return page;
+        } catch (Exception e) {
+            logger.error("=== ERROR IN GET PRODUCTS PAGE METHOD ===", e);
+            throw e;
+        }
+    }
+
+    /**
+     * The product as a {@link ProductDTO} value, cached by id. The cached instance is shared
+     * by every caller, so it is never a JPA entity and callers must not modify it.
+     */
+    @Cacheable(cacheNames = CacheConfig.PRODUCTS, key = "#productId", unless = "#result == null")
+    public ProductDTO getProductById(Long productId) {
         logger.info("=== GET PRODUCT BY ID METHOD STARTED ===");
         logger.info("Requested product ID: {}", productId);
         
         try {
-            Optional<Product> productOpt = productRepository.findById(productId);
+            Optional<ProductSummary> summaryOpt = productRepository.findSummaryById(productId);
             
-            if (productOpt.isPresent()) {
-                Product product = productOpt.get();
+            if (summaryOpt.isPresent()) {
+                ProductDTO product = ProductDTO.from(summaryOpt.get());
                 logger.info("Product found - ID: {}, Name: '{}', Price: {}", 
                            product.getId(), product.getName(), product.getPrice());
                 logger.info("=== GET PRODUCT BY ID METHOD COMPLETED SUCCESSFULLY ===");
@@ -0,0 +1,56 @@
+package com.Shopping.Shopping.service;
+
+import com.razorpay.Order;
+import com.razorpay.RazorpayClient;
+import com.razorpay.RazorpayException;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+/**
+ * {@link PaymentGateway} backed by the Razorpay Orders API.
+ *
+ * The SDK client is built once: constructing a {@link RazorpayClient} replaces the SDK's
+ * shared HTTP client, discarding its pooled connections, so doing it per request paid a
+ * fresh TLS handshake on every checkout. The client is thread-safe.
+ */
+@Service
+@ConditionalOnProperty(name = "app.payment.gateway", havingValue = "razorpay", matchIfMissing = true)
+public class RazorpayPaymentGateway implements PaymentGateway {
+
+    private final RazorpayClient client;
+
+    public RazorpayPaymentGateway(@Value("${razorpay.key}") String razorpayKey,
+                                  @Value("${razorpay.secret}") String razorpaySecret) throws RazorpayException {
+        this.client = new RazorpayClient(razorpayKey, razorpaySecret);
+    }
+
+    @Override
+    public GatewayOrder createOrder(long amountMinor, String currency, String receipt) {
+        JSONObject options = new JSONObject();
+        options.put("amount", amountMinor);
+        options.put("currency", currency);
+        options.put("receipt", receipt);
+        try {
+            return toGatewayOrder(client.orders.create(options));
+        } catch (RazorpayException e) {
+            throw new PaymentGatewayException(HttpStatus.BAD_GATEWAY, "Payment gateway error: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public GatewayOrder fetchOrder(String orderId) {
+        try {
+            return toGatewayOrder(client.orders.fetch(orderId));
+        } catch (RazorpayException e) {
+            throw new PaymentGatewayException(HttpStatus.BAD_GATEWAY, "Payment gateway error: " + e.getMessage(), e);
+        }
+    }
+
+    private static GatewayOrder toGatewayOrder(Order order) {
+        Number amount = order.get("amount");
+        return new GatewayOrder(order.get("id"), amount.longValue(), order.get("currency"), order.get("status"));
+    }
+}
@@ -1,28 +1,51 @@
 package com.Shopping.Shopping.service;
 
-import com.Shopping.Shopping.model.Seller;
+import com.Shopping.Shopping.config.CacheConfig;
 import com.Shopping.Shopping.repository.SellerRepository;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.security.core.userdetails.*;
 import org.springframework.stereotype.Service;
 
+/**
+ * Loads sellers; cached like {@link UserDetailsServiceImpl}, under a separate key space
+ * since a customer and a seller may share a username.
+ */
 @Service
 public class SellerDetailsService implements UserDetailsService {
 
+    private static final String KEY_PREFIX = "seller:";
+
     private final SellerRepository sellerRepository;
+    private final Cache cache;
+    private final UsernameFilter usernameFilter;
 
-    public SellerDetailsService(SellerRepository repo) {
+    public SellerDetailsService(SellerRepository repo, CacheManager cacheManager, UsernameFilter usernameFilter) {
         this.sellerRepository = repo;
+        this.cache = cacheManager.getCache(CacheConfig.USER_DETAILS);
+        this.usernameFilter = usernameFilter;
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        Seller seller = sellerRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("Seller not found"));
+        UserDetails cached = cache.get(KEY_PREFIX + username, UserDetails.class);
+        if (cached == null) {
+            if (!usernameFilter.mightExist(UsernameFilter.Accounts.SELLERS, username)) {
+                throw new UsernameNotFoundException("Seller not found");
+            }
+            cached = sellerRepository.findByUsername(username)
+                    .map(seller -> User.builder()
+                            .username(seller.getUsername())
+                            .password(seller.getPassword())
+                            .roles("SELLER")
+                            .build())
+                    .orElseThrow(() -> new UsernameNotFoundException("Seller not found"));
+            cache.put(KEY_PREFIX + username, cached);
+        }
+        return User.withUserDetails(cached).build();
+    }
 
-        return org.springframework.security.core.userdetails.User.builder()
-                .username(seller.getUsername())
-                .password(seller.getPassword())
-                .roles("SELLER")
-                .build();
+    public void evict(String username) {
+        cache.evict(KEY_PREFIX + username);
     }
 }
@@ -1,35 +1,71 @@
 package com.Shopping.Shopping.service;
 
-import com.Shopping.Shopping.model.User;
+import com.Shopping.Shopping.config.CacheConfig;
 import com.Shopping.Shopping.repository.UserRepository;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.security.core.userdetails.*;
 import org.springframework.stereotype.Service;
 
+/**
+ * Loads customers for login and for every JWT-authenticated request.
+ *
+ * Results are cached briefly in {@link CacheConfig#USER_DETAILS}; callers that change a
+ * user's account must {@link #evict} it. Each call returns a fresh copy, because Spring
+ * Security may erase the password on the instance it is handed. Unknown usernames are
+ * usually rejected by {@link UsernameFilter} without a query.
+ */
 @Service
 public class UserDetailsServiceImpl implements UserDetailsService {
 
+    private static final String KEY_PREFIX = "user:";
+    private static final String ID_KEY_PREFIX = "userId:";
+
     private final UserRepository userRepository;
+    private final Cache cache;
+    private final UsernameFilter usernameFilter;
 
-    public UserDetailsServiceImpl(UserRepository repo) {
+    public UserDetailsServiceImpl(UserRepository repo, CacheManager cacheManager, UsernameFilter usernameFilter) {
         this.userRepository = repo;
+        this.cache = cacheManager.getCache(CacheConfig.USER_DETAILS);
+        this.usernameFilter = usernameFilter;
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        System.out.println("=== UserDetailsServiceImpl: Loading user by username: " + username + " ===");
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> {
-                    System.out.println("=== UserDetailsServiceImpl: User NOT FOUND: " + username + " ===");
-                    return new UsernameNotFoundException("User not found: " + username);
-                });
-
-        System.out.println("=== UserDetailsServiceImpl: User FOUND: " + user.getUsername() + " ===");
-        System.out.println("=== UserDetailsServiceImpl: Password hash: " + (user.getPassword() != null ? user.getPassword().substring(0, Math.min(20, user.getPassword().length())) + "..." : "null") + " ===");
-
-        return org.springframework.security.core.userdetails.User.builder()
-                .username(user.getUsername())
-                .password(user.getPassword())
-                .roles("USER")
-                .build();
+        UserDetails cached = cache.get(KEY_PREFIX + username, UserDetails.class);
+        if (cached == null) {
+            if (!usernameFilter.mightExist(UsernameFilter.Accounts.USERS, username)) {
+                throw new UsernameNotFoundException("User not found: " + username);
+            }
+            cached = userRepository.findByUsername(username)
+                    .map(user -> org.springframework.security.core.userdetails.User.builder()
+                            .username(user.getUsername())
+                            .password(user.getPassword())
+                            .roles("USER")
+                            .build())
+                    .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+            cache.put(KEY_PREFIX + username, cached);
+        }
+        return org.springframework.security.core.userdetails.User.withUserDetails(cached).build();
+    }
+
+    /**
+     * The id of the user with this username, for keying per-user state such as carts.
+     * Cached alongside the principal and evicted with it.
+     */
+    public long idOf(String username) throws UsernameNotFoundException {
+        Long id = cache.get(ID_KEY_PREFIX + username, Long.class);
+        if (id == null) {
+            id = userRepository.findIdByUsername(username)
+                    .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+            cache.put(ID_KEY_PREFIX + username, id);
+        }
+        return id;
+    }
+
+    public void evict(String username) {
+        cache.evict(KEY_PREFIX + username);
+        cache.evict(ID_KEY_PREFIX + username);
     }
 }
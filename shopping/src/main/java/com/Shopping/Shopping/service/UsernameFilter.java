@@ -0,0 +1,199 @@
+package com.Shopping.Shopping.service;
+
+import com.Shopping.Shopping.util.BloomFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory Bloom filters of existing customer and seller usernames.
+ *
+ * A "no" is definite, so login, signup and JWT lookups for unknown usernames are answered
+ * without a query; a "maybe" falls through to the database, whose unique index stays the
+ * source of truth. Usernames are added before their row is written (see
+ * {@link com.Shopping.Shopping.model.AccountUsernameListener}), so the filter never lags the
+ * table. Deleted or renamed-away names linger as false positives until the next rebuild,
+ * which also runs when a filter outgrows its capacity.
+ */
+@Component
+public class UsernameFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(UsernameFilter.class);
+
+    private static final int SCAN_BATCH = 5000;
+
+    /**
+     * Names added this recently are replayed into a rebuilt filter: they may belong to a
+     * transaction that hadn't committed when the scan passed. Far longer than any signup.
+     */
+    private static final long RECENT_WINDOW_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    public enum Accounts {
+        USERS("users"),
+        SELLERS("sellers");
+
+        private final String table;
+
+        Accounts(String table) {
+            this.table = table;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final double falsePositiveRate;
+    private final long minCapacity;
+    private final Map<Accounts, Slot> slots = new EnumMap<>(Accounts.class);
+
+    public UsernameFilter(JdbcTemplate jdbcTemplate,
+                          @Value("${app.auth.username-filter.false-positive-rate:0.01}") double falsePositiveRate,
+                          @Value("${app.auth.username-filter.min-capacity:10000}") long minCapacity) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.falsePositiveRate = falsePositiveRate;
+        this.minCapacity = minCapacity;
+        for (Accounts accounts : Accounts.values()) {
+            slots.put(accounts, new Slot(new BloomFilter(minCapacity, falsePositiveRate)));
+        }
+    }
+
+    /**
+     * False only if no account of this kind has the username. Always true until the
+     * startup scan has finished.
+     */
+    public boolean mightExist(Accounts accounts, String username) {
+        Slot slot = slots.get(accounts);
+        return username == null || !slot.ready || slot.current.mightContain(username);
+    }
+
+    /**
+     * Records a username that is about to be written. Call before the row becomes visible.
+     */
+    public void add(Accounts accounts, String username) {
+        if (username == null) {
+            return;
+        }
+        Slot slot = slots.get(accounts);
+        long now = System.nanoTime();
+        slot.recent.addLast(new Added(username, now));
+        Added oldest;
+        while ((oldest = slot.recent.peekFirst()) != null && now - oldest.at() > RECENT_WINDOW_NANOS) {
+            slot.recent.remove(oldest);
+        }
+        if (!slot.current.mightContain(username)) {
+            // Updates re-save existing names; only count genuinely new ones toward capacity
+            slot.current.put(username);
+        }
+        // Read after writing current: a rebuild that started earlier must see this name too
+        BloomFilter building = slot.building;
+        if (building != null) {
+            building.put(username);
+        }
+        if (slot.current.insertions() > slot.current.capacity()) {
+            rebuildInBackground(accounts);
+        }
+    }
+
+    /**
+     * Notes that a username no longer exists. Its bits stay set, so once enough names are
+     * stale the filter is rebuilt to bring the false-positive rate back down.
+     */
+    public void removed(Accounts accounts) {
+        Slot slot = slots.get(accounts);
+        slot.stale.increment();
+        if (slot.stale.sum() > slot.current.capacity() / 2) {
+            rebuildInBackground(accounts);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        for (Accounts accounts : Accounts.values()) {
+            rebuild(accounts);
+        }
+    }
+
+    /**
+     * Rebuilds the filter from a keyset scan of the table, sized to twice the current row count.
+     */
+    void rebuild(Accounts accounts) {
+        Slot slot = slots.get(accounts);
+        if (!slot.rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            Long rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + accounts.table, Long.class);
+            BloomFilter filter = new BloomFilter(Math.max(minCapacity, 2 * (rows == null ? 0 : rows)), falsePositiveRate);
+            slot.building = filter;
+            long scanned = scan(accounts, filter);
+            slot.recent.forEach(added -> filter.put(added.username()));
+            slot.current = filter;
+            slot.stale.reset();
+            slot.ready = true;
+            logger.info("Username filter for {} built from {} rows (capacity {})", accounts.table, scanned, filter.capacity());
+        } catch (RuntimeException e) {
+            // Keep serving from the old filter, or fall through to the database if there is none yet
+            logger.warn("Failed to build username filter for {}", accounts.table, e);
+        } finally {
+            slot.building = null;
+            slot.rebuilding.set(false);
+        }
+    }
+
+    private long scan(Accounts accounts, BloomFilter filter) {
+        long lastId = 0;
+        long scanned = 0;
+        while (true) {
+            List<IdUsername> batch = jdbcTemplate.query(
+                    "SELECT id, username FROM " + accounts.table + " WHERE id > ? ORDER BY id LIMIT " + SCAN_BATCH,
+                    (rs, rowNum) -> new IdUsername(rs.getLong("id"), rs.getString("username")),
+                    lastId);
+            for (IdUsername row : batch) {
+                if (row.username() != null) {
+                    filter.put(row.username());
+                }
+            }
+            scanned += batch.size();
+            if (batch.size() < SCAN_BATCH) {
+                return scanned;
+            }
+            lastId = batch.get(batch.size() - 1).id();
+        }
+    }
+
+    private void rebuildInBackground(Accounts accounts) {
+        if (slots.get(accounts).rebuilding.get()) {
+            return;
+        }
+        Thread thread = new Thread(() -> rebuild(accounts), "username-filter-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private record IdUsername(long id, String username) {}
+
+    private record Added(String username, long at) {}
+
+    private static final class Slot {
+        private volatile BloomFilter current;
+        private volatile BloomFilter building;
+        private volatile boolean ready;
+        private final LongAdder stale = new LongAdder();
+        private final AtomicBoolean rebuilding = new AtomicBoolean();
+        private final ConcurrentLinkedDeque<Added> recent = new ConcurrentLinkedDeque<>();
+
+        private Slot(BloomFilter current) {
+            this.current = current;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.Shopping.Shopping.util;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Produces re-encoded, metadata-free derivatives of an uploaded image.
+ *
+ * Large sources are decoded with ImageIO subsampling so a 50MB camera photo never
+ * becomes a full-resolution raster; EXIF orientation is applied before the metadata
+ * is dropped. Opaque images are written as JPEG, images with alpha as PNG.
+ */
+public final class ImageResizer {
+
+    /** Sources are decoded at no more than this multiple of the largest requested width. */
+    private static final int DECODE_HEADROOM = 2;
+
+    private ImageResizer() {}
+
+    public record Derivative(byte[] data, String contentType, int width, int height) {}
+
+    /**
+     * Returns one derivative per requested width, keyed by that width. Sources narrower than a
+     * width are re-encoded at their own size rather than upscaled. Returns an empty map when
+     * ImageIO cannot decode the source.
+     */
+    public static Map<Integer, Derivative> derive(byte[] source, List<Integer> widths, float jpegQuality) throws IOException {
+        List<Integer> descending = widths.stream().distinct().sorted(Comparator.reverseOrder()).toList();
+        if (descending.isEmpty()) {
+            return Map.of();
+        }
+        BufferedImage image = decode(source, descending.get(0) * DECODE_HEADROOM);
+        if (image == null) {
+            return Map.of();
+        }
+        image = orient(image, exifOrientation(source));
+
+        Map<Integer, Derivative> derivatives = new LinkedHashMap<>();
+        BufferedImage current = image;
+        // Largest first, so each smaller size is scaled down from the previous one
+        for (int width : descending) {
+            current = scale(current, width);
+            derivatives.put(width, encode(current, jpegQuality));
+        }
+        return derivatives;
+    }
+
+    private static BufferedImage decode(byte[] source, int maxDimension) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(source))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int longSide = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int subsampling = Math.max(1, (int) Math.ceil(longSide / (double) maxDimension));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Applies an EXIF orientation (1-8) and normalizes to an INT_RGB/INT_ARGB raster.
+     */
+    static BufferedImage orient(BufferedImage image, int orientation) {
+        int w = image.getWidth();
+        int h = image.getHeight();
+        AffineTransform transform = switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, w, 0);
+            case 3 -> new AffineTransform(-1, 0, 0, -1, w, h);
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, h);
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);
+            case 6 -> new AffineTransform(0, 1, -1, 0, h, 0);
+            case 7 -> new AffineTransform(0, -1, -1, 0, h, w);
+            case 8 -> new AffineTransform(0, -1, 1, 0, 0, w);
+            default -> new AffineTransform();
+        };
+        boolean swapsAxes = orientation >= 5 && orientation <= 8;
+        BufferedImage oriented = new BufferedImage(swapsAxes ? h : w, swapsAxes ? w : h, rasterType(image));
+        Graphics2D g = oriented.createGraphics();
+        g.drawImage(image, transform, null);
+        g.dispose();
+        return oriented;
+    }
+
+    /**
+     * Halves repeatedly, then bilinear-scales to the exact width; a single large bilinear
+     * step would skip most source pixels and alias badly.
+     */
+    static BufferedImage scale(BufferedImage image, int targetWidth) {
+        if (image.getWidth() <= targetWidth) {
+            return image;
+        }
+        int targetHeight = Math.max(1, (int) Math.round(image.getHeight() * (targetWidth / (double) image.getWidth())));
+        BufferedImage current = image;
+        int w = image.getWidth();
+        int h = image.getHeight();
+        do {
+            w = Math.max(targetWidth, w / 2);
+            h = w == targetWidth ? targetHeight : Math.max(targetHeight, h / 2);
+            BufferedImage next = new BufferedImage(w, h, rasterType(image));
+            Graphics2D g = next.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(current, 0, 0, w, h, null);
+            g.dispose();
+            current = next;
+        } while (w != targetWidth);
+        return current;
+    }
+
+    private static Derivative encode(BufferedImage image, float jpegQuality) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (image.getColorModel().hasAlpha()) {
+            ImageIO.write(image, "png", out);
+            return new Derivative(out.toByteArray(), "image/png", image.getWidth(), image.getHeight());
+        }
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            // No metadata is passed, so EXIF/GPS/ICC blocks from the upload are not carried over
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return new Derivative(out.toByteArray(), "image/jpeg", image.getWidth(), image.getHeight());
+    }
+
+    private static int rasterType(BufferedImage image) {
+        return image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+    }
+
+    /**
+     * Reads the EXIF orientation tag from a JPEG's APP1 segment; 1 (upright) if absent.
+     */
+    static int exifOrientation(byte[] data) {
+        if (data.length < 4 || (data[0] & 0xFF) != 0xFF || (data[1] & 0xFF) != 0xD8) {
+            return 1;
+        }
+        int pos = 2;
+        while (pos + 4 <= data.length && (data[pos] & 0xFF) == 0xFF) {
+            int marker = data[pos + 1] & 0xFF;
+            int length = u16(data, pos + 2, false);
+            if (marker == 0xDA || marker == 0xD9 || length < 2) {
+                break;
+            }
+            int segmentEnd = Math.min(data.length, pos + 2 + length);
+            if (marker == 0xE1 && pos + 10 <= segmentEnd
+                    && data[pos + 4] == 'E' && data[pos + 5] == 'x' && data[pos + 6] == 'i' && data[pos + 7] == 'f') {
+                return tiffOrientation(data, pos + 10, segmentEnd);
+            }
+            pos += 2 + length;
+        }
+        return 1;
+    }
+
+    private static int tiffOrientation(byte[] data, int tiff, int end) {
+        if (tiff + 8 > end) {
+            return 1;
+        }
+        boolean littleEndian = data[tiff] == 'I';
+        long ifd = tiff + u32(data, tiff + 4, littleEndian);
+        if (ifd < tiff || ifd + 2 > end) {
+            return 1;
+        }
+        int entries = u16(data, (int) ifd, littleEndian);
+        for (int i = 0; i < entries; i++) {
+            int entry = (int) ifd + 2 + i * 12;
+            if (entry + 12 > end) {
+                break;
+            }
+            if (u16(data, entry, littleEndian) == 0x0112) {
+                int orientation = u16(data, entry + 8, littleEndian);
+                return orientation >= 1 && orientation <= 8 ? orientation : 1;
+            }
+        }
+        return 1;
+    }
+
+    private static int u16(byte[] data, int pos, boolean littleEndian) {
+        int a = data[pos] & 0xFF;
+        int b = data[pos + 1] & 0xFF;
+        return littleEndian ? (b << 8) | a : (a << 8) | b;
+    }
+
+    private static long u32(byte[] data, int pos, boolean littleEndian) {
+        long high = u16(data, littleEndian ? pos + 2 : pos, littleEndian);
+        long low = u16(data, littleEndian ? pos : pos + 2, littleEndian);
+        return (high << 16) | low;
+    }
+}
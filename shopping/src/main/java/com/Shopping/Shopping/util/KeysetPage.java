@@ -0,0 +1,141 @@
+package com.Shopping.Shopping.util;
+
+import com.Shopping.Shopping.dto.PageResponse;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.OffsetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.function.Function;
+
+/**
+ * Keyset (cursor) pagination helpers for listing endpoints.
+ *
+ * A cursor is the base64url-encoded sort key values of the last row on a page, so the
+ * next page is an index range scan from that row no matter how deep the client is.
+ * Every sort is tie-broken on id, which keeps the keyset unique. Sort properties must be
+ * non-null columns: a null has no position to continue from.
+ */
+public final class KeysetPage {
+
+    public static final int DEFAULT_SIZE = 20;
+    public static final int MAX_SIZE = 100;
+
+    private static final Set<String> LONG_KEYS = Set.of("id", "offset");
+    private static final Set<String> DOUBLE_KEYS = Set.of("price");
+    private static final Set<String> DATE_TIME_KEYS = Set.of("orderDate");
+
+    private KeysetPage() {}
+
+    public static Limit limit(Integer size) {
+        int requested = size == null ? DEFAULT_SIZE : size;
+        return Limit.of(Math.max(1, Math.min(requested, MAX_SIZE)));
+    }
+
+    /**
+     * Builds the sort for a listing, rejecting properties that have no backing index and
+     * directions other than asc/desc.
+     */
+    public static Sort sort(String property, String direction, Set<String> allowed) {
+        if (!allowed.contains(property)) {
+            throw new IllegalArgumentException("Unsupported sort: " + property);
+        }
+        Sort.Direction dir = Sort.Direction.fromOptionalString(direction)
+                .orElseThrow(() -> new IllegalArgumentException("Unsupported sort direction: " + direction));
+        Sort sort = Sort.by(dir, property);
+        return property.equals("id") ? sort : sort.and(Sort.by(dir, "id"));
+    }
+
+    public static ScrollPosition position(String cursor, Sort sort) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+
+        Map<String, Object> keys = decode(cursor);
+        List<String> expected = sort.stream().map(Sort.Order::getProperty).toList();
+        if (!keys.keySet().equals(Set.copyOf(expected))) {
+            throw new IllegalArgumentException("Cursor does not match the requested sort");
+        }
+        return ScrollPosition.forward(keys);
+    }
+
+    /**
+     * Start offset for result sets that are ranked in memory (e.g. search) rather than by an index.
+     */
+    public static int offset(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        Object offset = decode(cursor).get("offset");
+        if (!(offset instanceof Long value) || value < 0 || value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return value.intValue();
+    }
+
+    public static <T, R> PageResponse<R> page(Window<T> window, Function<T, R> mapper) {
+        List<R> items = window.getContent().stream().map(mapper).toList();
+        String nextCursor = null;
+        if (window.hasNext() && !window.isEmpty()) {
+            ScrollPosition last = window.positionAt(window.size() - 1);
+            nextCursor = last instanceof OffsetScrollPosition offset
+                    ? encode(Map.of("offset", offset.getOffset() + 1))
+                    : encode(((KeysetScrollPosition) last).getKeys());
+        }
+        return new PageResponse<>(items, nextCursor, items.size());
+    }
+
+    private static Map<String, Object> decode(String cursor) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            for (String pair : decoded.split("&")) {
+                int separator = pair.indexOf('=');
+                String property = URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8);
+                String value = URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8);
+                keys.put(property, typed(property, value));
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+        return keys;
+    }
+
+    private static String encode(Map<String, ?> keys) {
+        StringJoiner joiner = new StringJoiner("&");
+        keys.forEach((property, value) -> {
+            if (value == null) {
+                // "null" would decode as a string and the next page would compare against it
+                throw new IllegalStateException("Cannot page past a row with no " + property);
+            }
+            joiner.add(URLEncoder.encode(property, StandardCharsets.UTF_8) + "=" +
+                    URLEncoder.encode(String.valueOf(value), StandardCharsets.UTF_8));
+        });
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(joiner.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Object typed(String property, String value) {
+        if (LONG_KEYS.contains(property)) {
+            return Long.valueOf(value);
+        }
+        if (DOUBLE_KEYS.contains(property)) {
+            return Double.valueOf(value);
+        }
+        if (DATE_TIME_KEYS.contains(property)) {
+            return LocalDateTime.parse(value);
+        }
+        return value;
+    }
+}
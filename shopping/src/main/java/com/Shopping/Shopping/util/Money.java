@@ -0,0 +1,24 @@
+package com.Shopping.Shopping.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Conversions between prices as stored (rupees, as a double) and integer minor units (paise).
+ *
+ * Sums are done in minor units so that adding many prices never accumulates binary
+ * floating-point error; the double is only used at the edges.
+ */
+public final class Money {
+
+    private Money() {}
+
+    public static long toMinor(double amount) {
+        // valueOf goes through the shortest decimal representation, so 999.99 is 99999, not 99998
+        return BigDecimal.valueOf(amount).movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    public static double toMajor(long minor) {
+        return BigDecimal.valueOf(minor).movePointLeft(2).doubleValue();
+    }
+}
@@ -0,0 +1,108 @@
+package com.Shopping.Shopping.util;
+
+import java.util.Arrays;
+
+/**
+ * A cart's contents: product id → quantity, in the order lines were added.
+ *
+ * Held as two parallel primitive arrays rather than a boxed map; a cart has a handful of
+ * lines, so a linear scan beats hashing and each line costs 12 bytes. Not thread-safe.
+ */
+public final class ProductQuantities {
+
+    private long[] productIds;
+    private int[] quantities;
+    private int size;
+
+    public ProductQuantities() {
+        this(4);
+    }
+
+    public ProductQuantities(int initialCapacity) {
+        productIds = new long[Math.max(1, initialCapacity)];
+        quantities = new int[productIds.length];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long productId(int index) {
+        return productIds[index];
+    }
+
+    public int quantity(int index) {
+        return quantities[index];
+    }
+
+    /**
+     * Quantity of the product, or 0 if it has no line.
+     */
+    public int get(long productId) {
+        int index = indexOf(productId);
+        return index < 0 ? 0 : quantities[index];
+    }
+
+    /**
+     * Sets the product's quantity, appending a line if it has none; zero or less removes the line.
+     */
+    public void put(long productId, int quantity) {
+        int index = indexOf(productId);
+        if (quantity <= 0) {
+            if (index >= 0) {
+                removeAt(index);
+            }
+        } else if (index >= 0) {
+            quantities[index] = quantity;
+        } else {
+            if (size == productIds.length) {
+                productIds = Arrays.copyOf(productIds, size * 2);
+                quantities = Arrays.copyOf(quantities, size * 2);
+            }
+            productIds[size] = productId;
+            quantities[size] = quantity;
+            size++;
+        }
+    }
+
+    public boolean remove(long productId) {
+        int index = indexOf(productId);
+        if (index < 0) {
+            return false;
+        }
+        removeAt(index);
+        return true;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public ProductQuantities copy() {
+        ProductQuantities copy = new ProductQuantities(size);
+        System.arraycopy(productIds, 0, copy.productIds, 0, size);
+        System.arraycopy(quantities, 0, copy.quantities, 0, size);
+        copy.size = size;
+        return copy;
+    }
+
+    private int indexOf(long productId) {
+        for (int i = 0; i < size; i++) {
+            if (productIds[i] == productId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void removeAt(int index) {
+        // Shift rather than swap so the remaining lines keep their order
+        System.arraycopy(productIds, index + 1, productIds, index, size - index - 1);
+        System.arraycopy(quantities, index + 1, quantities, index, size - index - 1);
+        size--;
+    }
+}
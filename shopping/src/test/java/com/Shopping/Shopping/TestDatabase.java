@@ -0,0 +1,27 @@
+package com.Shopping.Shopping;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * Empties every table of a test context's in-memory database, so tests that share the
+ * context can use fixed names without colliding. Sequences keep counting, so ids are
+ * never reused within a run and id-keyed caches cannot serve a row from an earlier test.
+ */
+public final class TestDatabase {
+
+    private TestDatabase() {}
+
+    public static void clear(JdbcTemplate jdbcTemplate) {
+        List<String> tables = jdbcTemplate.queryForList(
+                "SELECT table_name FROM information_schema.tables WHERE table_schema = 'PUBLIC' AND table_type = 'BASE TABLE'",
+                String.class);
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        try {
+            tables.forEach(table -> jdbcTemplate.execute("TRUNCATE TABLE \"" + table + "\""));
+        } finally {
+            jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+        }
+    }
+}
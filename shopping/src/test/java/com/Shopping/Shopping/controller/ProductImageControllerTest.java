@@ -0,0 +1,174 @@
+package com.Shopping.Shopping.controller;
+
+import com.Shopping.Shopping.service.ProductImageService;
+import com.Shopping.Shopping.service.ProductImageService.ImageDescriptor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+class ProductImageControllerTest {
+
+    private static final byte[] DATA = "0123456789".getBytes();
+    private static final String HASH = "abc123";
+    private static final String ETAG = "\"" + HASH + "\"";
+    private static final String IMMUTABLE = "max-age=31536000, public, immutable";
+    private static final String REVALIDATE = "no-cache, public";
+
+    @Mock
+    private ProductImageService productImageService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new ProductImageController(productImageService)).build();
+    }
+
+    @Test
+    void servesTheWholeImageWithItsEtag() throws Exception {
+        serve(original(DATA));
+
+        mockMvc.perform(get("/product-image/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, REVALIDATE))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, DATA.length))
+                .andExpect(content().contentType("image/jpeg"))
+                .andExpect(content().bytes(DATA));
+    }
+
+    @Test
+    void onlyTheCurrentVersionIsImmutable() throws Exception {
+        when(productImageService.describe(1L, null)).thenReturn(Optional.of(original(DATA)));
+
+        mockMvc.perform(get("/product-image/1").param("v", HASH).header(HttpHeaders.IF_NONE_MATCH, ETAG))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, IMMUTABLE));
+        mockMvc.perform(get("/product-image/1").param("v", "stale").header(HttpHeaders.IF_NONE_MATCH, ETAG))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, REVALIDATE));
+    }
+
+    @Test
+    void theOriginalServedForAMissingVariantRevalidates() throws Exception {
+        when(productImageService.describe(1L, 100)).thenReturn(Optional.of(original(DATA)));
+
+        mockMvc.perform(get("/product-image/1").param("v", HASH).param("size", "100")
+                        .header(HttpHeaders.IF_NONE_MATCH, ETAG))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, REVALIDATE));
+
+        ImageDescriptor variant = new ImageDescriptor(1L, 160, "thumb", HASH, "image/jpeg", DATA.length, DATA);
+        when(productImageService.describe(1L, 100)).thenReturn(Optional.of(variant));
+
+        mockMvc.perform(get("/product-image/1").param("v", HASH).param("size", "100")
+                        .header(HttpHeaders.IF_NONE_MATCH, variant.etag()))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, IMMUTABLE));
+    }
+
+    @Test
+    void matchingIfNoneMatchAnswersNotModified() throws Exception {
+        when(productImageService.describe(1L, null)).thenReturn(Optional.of(original(DATA)));
+
+        for (String ifNoneMatch : new String[]{ETAG, "W/" + ETAG, "\"other\", " + ETAG, "*"}) {
+            mockMvc.perform(get("/product-image/1").header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                    .andExpect(content().bytes(new byte[0]));
+        }
+        verify(productImageService, never()).write(any(), anyLong(), anyLong(), any(OutputStream.class));
+    }
+
+    @Test
+    void aSingleRangeIsServedAsPartialContent() throws Exception {
+        serve(original(DATA));
+
+        mockMvc.perform(get("/product-image/1").header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/10"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 4))
+                .andExpect(content().bytes("2345".getBytes()));
+        mockMvc.perform(get("/product-image/1").header(HttpHeaders.RANGE, "bytes=-3"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 7-9/10"))
+                .andExpect(content().bytes("789".getBytes()));
+    }
+
+    @Test
+    void rangesFallBackToTheWholeImageWhenTheyCannotBeHonoredAsOne() throws Exception {
+        serve(original(DATA));
+
+        // If-Range names an older version
+        mockMvc.perform(get("/product-image/1").header(HttpHeaders.RANGE, "bytes=2-5")
+                        .header(HttpHeaders.IF_RANGE, "\"older\""))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(DATA));
+        mockMvc.perform(get("/product-image/1").header(HttpHeaders.RANGE, "bytes=0-1,4-5"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_RANGE))
+                .andExpect(content().bytes(DATA));
+    }
+
+    @Test
+    void aRangePastTheEndIsNotSatisfiable() throws Exception {
+        when(productImageService.describe(1L, null)).thenReturn(Optional.of(original(DATA)));
+
+        mockMvc.perform(get("/product-image/1").header(HttpHeaders.RANGE, "bytes=10-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */10"));
+    }
+
+    @Test
+    void largeStoredFilesAreHandedToSendfileWithAnExclusiveEnd() throws Exception {
+        ImageDescriptor large = new ImageDescriptor(1L, ProductImageService.ORIGINAL, HASH, HASH, "image/jpeg", 1000, null);
+        when(productImageService.describe(1L, null)).thenReturn(Optional.of(large));
+        when(productImageService.file(large)).thenReturn(Optional.of(Path.of("/images/ab/abc123")));
+
+        mockMvc.perform(get("/product-image/1").header(HttpHeaders.RANGE, "bytes=100-199")
+                        .requestAttr("org.apache.tomcat.sendfile.support", true))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 100))
+                .andExpect(request().attribute("org.apache.tomcat.sendfile.filename", "/images/ab/abc123"))
+                .andExpect(request().attribute("org.apache.tomcat.sendfile.start", 100L))
+                .andExpect(request().attribute("org.apache.tomcat.sendfile.end", 200L));
+        verify(productImageService, never()).write(any(), anyLong(), anyLong(), any(OutputStream.class));
+    }
+
+    @Test
+    void unknownProductsAreNotFound() throws Exception {
+        when(productImageService.describe(1L, null)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/product-image/1")).andExpect(status().isNotFound());
+    }
+
+    private void serve(ImageDescriptor image) throws Exception {
+        when(productImageService.describe(1L, null)).thenReturn(Optional.of(image));
+        when(productImageService.file(image)).thenReturn(Optional.empty());
+        // Images small enough to hold in memory are written from their bytes
+        doCallRealMethod().when(productImageService).write(any(), anyLong(), anyLong(), any(OutputStream.class));
+    }
+
+    private static ImageDescriptor original(byte[] data) {
+        return new ImageDescriptor(1L, ProductImageService.ORIGINAL, HASH, HASH, "image/jpeg", data.length, data);
+    }
+}
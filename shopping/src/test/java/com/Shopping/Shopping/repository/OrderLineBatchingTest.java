@@ -0,0 +1,72 @@
+package com.Shopping.Shopping.repository;
+
+import com.Shopping.Shopping.model.OrderLine;
+import com.Shopping.Shopping.model.Orders;
+import com.Shopping.Shopping.model.User;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class OrderLineBatchingTest {
+
+    private static final int LINES = 40;
+
+    @Autowired
+    private OrdersRepository ordersRepository;
+
+    @Autowired
+    private OrderLineRepository orderLineRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User user;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setUsername("buyer");
+        user.setPassword("hash");
+        user = userRepository.saveAndFlush(user);
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void anOrderAndItsLinesAreInsertedInBatches() {
+        Orders order = new Orders();
+        order.setRazorpayOrderId("order_1");
+        order.setRazorpayPaymentId("pay_1");
+        order.setAmount(LINES * 10_000L);
+        order.setOrderDate(LocalDateTime.now());
+        order.setUser(user);
+        order = ordersRepository.save(order);
+        List<OrderLine> lines = new ArrayList<>();
+        for (int i = 0; i < LINES; i++) {
+            lines.add(new OrderLine(order, (long) i, 1, 10_000));
+        }
+        orderLineRepository.saveAll(lines);
+        ordersRepository.flush();
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(LINES + 1);
+        // A few sequence reads for the first blocks of ids, the order insert and one batch for
+        // every line, rather than a statement per line
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(5);
+    }
+}
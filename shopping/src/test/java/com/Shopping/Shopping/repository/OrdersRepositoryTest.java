@@ -0,0 +1,96 @@
+package com.Shopping.Shopping.repository;
+
+import com.Shopping.Shopping.dto.OrderDTO;
+import com.Shopping.Shopping.dto.PageResponse;
+import com.Shopping.Shopping.model.Orders;
+import com.Shopping.Shopping.model.User;
+import com.Shopping.Shopping.util.KeysetPage;
+import jakarta.persistence.EntityManager;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class OrdersRepositoryTest {
+
+    private static final int ORDERS = 25;
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+    @Autowired
+    private OrdersRepository ordersRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User buyer;
+
+    @BeforeEach
+    void setUp() {
+        buyer = user("buyer");
+        User other = user("other");
+        for (int i = 0; i < ORDERS; i++) {
+            // Several orders share a timestamp, so pages must tie-break on id
+            order(buyer, START.plusMinutes(i / 3), i);
+        }
+        for (int i = 0; i < 3; i++) {
+            order(other, START.plusMinutes(i), ORDERS + i);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void historyPagesNewestFirstWithoutLoadingEntities() {
+        Sort sort = KeysetPage.sort("orderDate", "desc", Set.of("orderDate"));
+        List<OrderDTO> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            PageResponse<OrderDTO> page = KeysetPage.page(ordersRepository.findSummariesByUserId(buyer.getId(),
+                    KeysetPage.position(cursor, sort), sort, KeysetPage.limit(10)), OrderDTO::from);
+            seen.addAll(page.getItems());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(seen).hasSize(ORDERS);
+        assertThat(seen).extracting(OrderDTO::getEmail).containsOnly("buyer");
+        assertThat(seen).isSortedAccordingTo(Comparator.comparing(OrderDTO::getOrderDate)
+                .thenComparing(OrderDTO::getId).reversed());
+        assertThat(seen.get(0).getAmount()).isEqualTo(124.0);
+        assertThat(entityManager.unwrap(SessionImplementor.class).getPersistenceContextInternal().getNumberOfManagedEntities()).isZero();
+    }
+
+    private User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("hash");
+        return userRepository.save(user);
+    }
+
+    private void order(User user, LocalDateTime date, int n) {
+        Orders order = new Orders();
+        order.setRazorpayOrderId("order_" + n);
+        order.setRazorpayPaymentId("pay_" + n);
+        order.setAmount(10_000 + n * 100);
+        order.setOrderDate(date);
+        order.setEmail(user.getUsername());
+        order.setUser(user);
+        ordersRepository.save(order);
+    }
+}
@@ -0,0 +1,99 @@
+package com.Shopping.Shopping.repository;
+
+import com.Shopping.Shopping.model.Product;
+import com.Shopping.Shopping.model.Seller;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ProductFetchStatisticsTest {
+
+    private static final int PRODUCTS = 500;
+    private static final int SELLERS = 25;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private SellerRepository sellerRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        Seller[] sellers = new Seller[SELLERS];
+        for (int i = 0; i < SELLERS; i++) {
+            Seller seller = new Seller();
+            seller.setUsername("seller" + i);
+            seller.setPassword("secret");
+            seller.setPhoto(new byte[64 * 1024]);
+            sellers[i] = sellerRepository.save(seller);
+        }
+        for (int i = 0; i < PRODUCTS; i++) {
+            productRepository.save(new Product("Phone " + i, "A phone", 100 + i, null, "Electronics",
+                    "PROD-" + i, sellers[i % SELLERS]));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void listingsRunOneStatementWithoutLoadingSellers() {
+        List<Product> all = productRepository.findAll();
+        List<Product> byCategory = productRepository.findByCategoryContainingIgnoreCase("electro");
+
+        assertThat(all).hasSize(PRODUCTS);
+        assertThat(byCategory).hasSize(PRODUCTS);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(all).allSatisfy(product -> assertThat(Hibernate.isInitialized(product.getSeller())).isFalse());
+    }
+
+    @Test
+    void sellersAreBatchFetchedWhenNeeded() {
+        List<Product> all = productRepository.findAll();
+        long distinctSellers = all.stream().map(product -> product.getSeller().getUsername()).distinct().count();
+
+        assertThat(distinctSellers).isEqualTo(SELLERS);
+        // One listing query plus one batched seller query, independent of the number of products
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(all).allSatisfy(product -> assertThat(Hibernate.isPropertyInitialized(product.getSeller(), "photo")).isFalse());
+    }
+
+    @Test
+    void sellerPhotoIsLoadedOnlyWhenRead() {
+        Seller seller = sellerRepository.findByUsername("seller0").orElseThrow();
+        assertThat(Hibernate.isPropertyInitialized(seller, "photo")).isFalse();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        assertThat(seller.getPhoto()).hasSize(64 * 1024);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void sellerListingFetchesPhotosWithThePage() {
+        List<Seller> sellers = sellerRepository.findAllBy(ScrollPosition.keyset(), Sort.by("id"), Limit.of(SELLERS)).getContent();
+
+        assertThat(sellers).hasSize(SELLERS);
+        assertThat(sellers).allSatisfy(seller -> assertThat(seller.getPhotoBase64()).isNotNull());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
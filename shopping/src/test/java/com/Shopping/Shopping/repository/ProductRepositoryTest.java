@@ -0,0 +1,89 @@
+package com.Shopping.Shopping.repository;
+
+import com.Shopping.Shopping.dto.ProductSummary;
+import com.Shopping.Shopping.model.Product;
+import jakarta.persistence.EntityManager;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class ProductRepositoryTest {
+
+    private static final int PRODUCTS = 20;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < PRODUCTS; i++) {
+            productRepository.save(new Product("Phone " + i, "A phone", 100 + i, "phone.png", "Electronics", "PROD-" + i, null));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void listingQueriesDoNotLoadImageBytes() {
+        List<Product> all = productRepository.findAll();
+        List<Product> byCategory = productRepository.findByCategoryContainingIgnoreCase("electro");
+
+        assertThat(all).hasSize(PRODUCTS);
+        assertThat(byCategory).hasSize(PRODUCTS);
+        assertThat(loadedBinaryBytes()).isZero();
+    }
+
+    @Test
+    void summaryListingsHydrateNoEntities() {
+        Window<ProductSummary> firstPage = productRepository.findSummariesBy(ScrollPosition.keyset(), Sort.by("id"), Limit.of(15));
+        Window<ProductSummary> secondPage = productRepository.findSummariesBy(
+                firstPage.positionAt(firstPage.size() - 1), Sort.by("id"), Limit.of(15));
+        List<ProductSummary> byCategory = productRepository.findSummariesByCategoryContainingIgnoreCase("electro");
+        List<ProductSummary> searched = productRepository.searchProductSummaries("phone");
+
+        assertThat(firstPage.hasNext()).isTrue();
+        assertThat(secondPage.hasNext()).isFalse();
+        assertThat(secondPage.getContent()).hasSize(PRODUCTS - 15);
+        assertThat(secondPage.getContent().get(0).getId()).isGreaterThan(firstPage.getContent().get(14).getId());
+        assertThat(byCategory).hasSize(PRODUCTS);
+        assertThat(searched).hasSize(PRODUCTS);
+        assertThat(searched.get(0).getImageHash()).isNull();
+        assertThat(entityManager.unwrap(SessionImplementor.class).getPersistenceContextInternal().getNumberOfManagedEntities()).isZero();
+    }
+
+    /**
+     * Sums every byte[] value Hibernate hydrated into the current persistence context.
+     */
+    private long loadedBinaryBytes() {
+        long total = 0;
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        for (Map.Entry<Object, EntityEntry> entry : session.getPersistenceContextInternal().reentrantSafeEntityEntries()) {
+            Object[] loadedState = entry.getValue().getLoadedState();
+            if (loadedState == null) {
+                continue;
+            }
+            for (Object value : loadedState) {
+                if (value instanceof byte[] bytes) {
+                    total += bytes.length;
+                }
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,92 @@
+package com.Shopping.Shopping.repository;
+
+import com.Shopping.Shopping.dto.ProductSearchDocument;
+import com.Shopping.Shopping.dto.ProductSummary;
+import com.Shopping.Shopping.service.ProductSearchIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Search over 100k products: the in-memory index (one page of ids, then one query for
+ * that page) against the LIKE query it replaces. Run with -Dbenchmark=true.
+ */
+@DataJpaTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ProductSearchBenchmarkTest {
+
+    private static final int PRODUCTS = 100_000;
+    private static final int PAGE = 20;
+    private static final String[] QUERIES = {"phone", "blue cotton", "leath", "steel bottle", "prod-00042"};
+
+    private static final String[] ADJECTIVES = {"Blue", "Red", "Leather", "Cotton", "Steel", "Wooden", "Slim", "Classic"};
+    private static final String[] NOUNS = {"Phone", "Shirt", "Bottle", "Wallet", "Lamp", "Chair", "Watch", "Shoe"};
+    private static final String[] CATEGORIES = {"Electronics", "Clothing", "Home", "Accessories", "Footwear"};
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void indexAgainstLikeQuery() {
+        insertProducts();
+        ProductSearchIndex index = new ProductSearchIndex();
+        ProductSearchIndex rebuilt = index.startRebuild();
+        long buildStarted = System.nanoTime();
+        try (Stream<ProductSearchDocument> documents = productRepository.streamSearchDocuments()) {
+            documents.forEach(document -> rebuilt.index(document.getId(), document.getName(),
+                    document.getDescription(), document.getCategory(), document.getUniqueProductId()));
+        }
+        index.finishRebuild(rebuilt);
+        System.out.printf("index build: %d ms for %d products%n", (System.nanoTime() - buildStarted) / 1_000_000, index.size());
+
+        for (int round = 0; round < 3; round++) {
+            for (String query : QUERIES) {
+                int iterations = 20;
+                long like = 0;
+                long indexed = 0;
+                int likeHits = 0;
+                int indexHits = 0;
+                for (int i = 0; i < iterations; i++) {
+                    long started = System.nanoTime();
+                    List<ProductSummary> all = productRepository.searchProductSummaries(query);
+                    likeHits = Math.min(all.size(), PAGE);
+                    like += System.nanoTime() - started;
+
+                    started = System.nanoTime();
+                    List<Long> ids = index.search(query, 0, PAGE).productIds();
+                    indexHits = ids.isEmpty() ? 0 : productRepository.findSummariesByIdIn(ids).size();
+                    indexed += System.nanoTime() - started;
+                }
+                assertThat(indexHits).isLessThanOrEqualTo(PAGE);
+                System.out.printf("round %d '%s': LIKE %.2f ms/query (%d on page), index %.3f ms/query (%d on page)%n",
+                        round, query, like / 1e6 / iterations, likeHits, indexed / 1e6 / iterations, indexHits);
+            }
+        }
+    }
+
+    private void insertProducts() {
+        Random random = new Random(42);
+        List<Object[]> rows = new ArrayList<>(PRODUCTS);
+        for (int i = 0; i < PRODUCTS; i++) {
+            String name = ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + NOUNS[random.nextInt(NOUNS.length)] + " " + i;
+            String description = "A " + ADJECTIVES[random.nextInt(ADJECTIVES.length)].toLowerCase()
+                    + " " + NOUNS[random.nextInt(NOUNS.length)].toLowerCase() + " for everyday use";
+            rows.add(new Object[]{name, description, 10.0 + random.nextInt(1000),
+                    CATEGORIES[random.nextInt(CATEGORIES.length)], String.format("PROD-%08d", i)});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO product (name, description, price, category, unique_product_id) VALUES (?, ?, ?, ?, ?)", rows);
+    }
+}
@@ -0,0 +1,69 @@
+package com.Shopping.Shopping.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtTokenProviderTest {
+
+    private static final String SECRET = "Test_Secret_Key_For_JWT_Token_Generation_That_Is_Long_Enough";
+
+    private JwtTokenProvider tokenProvider;
+    private UserDetails seller;
+
+    @BeforeEach
+    void setUp() {
+        tokenProvider = provider(86_400_000L);
+        seller = new User("seller1", "secret", List.of(new SimpleGrantedAuthority("ROLE_SELLER")));
+    }
+
+    @Test
+    void verifyReturnsClaimsAndCachesTheResult() {
+        String token = tokenProvider.generateToken(seller);
+
+        VerifiedToken first = tokenProvider.verify(token).orElseThrow();
+        VerifiedToken second = tokenProvider.verify(token).orElseThrow();
+
+        assertThat(first.username()).isEqualTo("seller1");
+        assertThat(first.authorities()).containsExactly("ROLE_SELLER");
+        assertThat(first.hasAuthority("ROLE_SELLER")).isTrue();
+        assertThat(first.issuedAt()).isBefore(first.expiresAt());
+        assertThat(first.epoch()).isBetween(first.issuedAt().toEpochMilli(), first.issuedAt().toEpochMilli() + 999);
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    void verifyRejectsTamperedForeignAndExpiredTokens() {
+        String token = tokenProvider.generateToken(seller);
+        String[] parts = token.split("\\.");
+        String forgedPayload = parts[0] + "." + parts[1].substring(0, parts[1].length() - 2) + "xy." + parts[2];
+
+        assertThat(tokenProvider.verify(forgedPayload)).isEmpty();
+        assertThat(tokenProvider.verify("not-a-jwt")).isEmpty();
+        assertThat(tokenProvider.verify(null)).isEmpty();
+
+        JwtTokenProvider otherKey = provider(86_400_000L);
+        ReflectionTestUtils.setField(otherKey, "jwtSecret", SECRET + "_other");
+        otherKey.init();
+        assertThat(otherKey.verify(token)).isEmpty();
+
+        JwtTokenProvider expiring = provider(-1_000L);
+        assertThat(expiring.verify(expiring.generateToken(seller))).isEmpty();
+    }
+
+    private static JwtTokenProvider provider(long expirationMillis) {
+        JwtTokenProvider provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(provider, "jwtExpiration", expirationMillis);
+        ReflectionTestUtils.setField(provider, "cacheMaxSize", 100L);
+        provider.init();
+        return provider;
+    }
+}
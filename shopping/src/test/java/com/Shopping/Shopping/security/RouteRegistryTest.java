@@ -0,0 +1,69 @@
+package com.Shopping.Shopping.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RouteRegistryTest {
+
+    private final RouteRegistry routes = new RouteRegistry();
+
+    @Test
+    void mostSpecificRegistrationWins() {
+        assertThat(routes.classify("/api/v1/products/42").routeClass()).isEqualTo(RouteClass.PUBLIC);
+        assertThat(routes.classify("/api/v1/seller/login").routeClass()).isEqualTo(RouteClass.PUBLIC);
+        assertThat(routes.classify("/api/v1/seller/products").routeClass()).isEqualTo(RouteClass.SELLER);
+        assertThat(routes.classify("/api/v1/admin/login").routeClass()).isEqualTo(RouteClass.PUBLIC);
+        assertThat(routes.classify("/api/v1/admin/users/7").routeClass()).isEqualTo(RouteClass.ADMIN);
+        assertThat(routes.classify("/api/v1/cart/items").routeClass()).isEqualTo(RouteClass.USER);
+        assertThat(routes.classify("/api/v1/auth/me").routeClass()).isEqualTo(RouteClass.AUTHENTICATED);
+        assertThat(routes.classify("/uploads/a.png").routeClass()).isEqualTo(RouteClass.PUBLIC);
+    }
+
+    @Test
+    void exactRoutesDoNotCoverLongerPaths() {
+        // A bare prefix match would have made this public
+        assertThat(routes.classify("/api/v1/auth/login/extra").routeClass()).isEqualTo(RouteClass.AUTHENTICATED);
+        assertThat(routes.classify("/api/v1/auth/loginx").routeClass()).isEqualTo(RouteClass.AUTHENTICATED);
+    }
+
+    @Test
+    void unregisteredApiPathsAreDenied() {
+        RouteRegistry.Route route = routes.classify("/api/v1/productsx");
+
+        assertThat(route.routeClass()).isEqualTo(RouteClass.DENIED);
+        assertThat(route.api()).isTrue();
+        assertThat(routes.classify("/api/v2/admin/users").routeClass()).isEqualTo(RouteClass.DENIED);
+    }
+
+    @Test
+    void encodedSegmentsAreClassifiedAsTheDispatcherRoutesThem() {
+        assertThat(routes.matcher(RouteClass.ADMIN).matches(new MockHttpServletRequest("GET", "/api/v1/%61dmin/users"))).isTrue();
+        assertThat(routes.matcher(RouteClass.SELLER).matches(new MockHttpServletRequest("GET", "/api/v1/sell%65r/products"))).isTrue();
+        assertThat(routes.matcher(RouteClass.ADMIN).matches(new MockHttpServletRequest("GET", "/api/v1/admin;x=1/cache-stats"))).isTrue();
+        assertThat(routes.matcher(RouteClass.PUBLIC).matches(new MockHttpServletRequest("GET", "/api/v1/%61dmin/users"))).isFalse();
+    }
+
+    @Test
+    void pagesRedirectToTheirLoginPage() {
+        RouteRegistry.Route admin = routes.classify("/admin/dashboard");
+        RouteRegistry.Route other = routes.classify("/h2-console");
+
+        assertThat(admin.api()).isFalse();
+        assertThat(admin.loginPage()).isEqualTo("/admin-login");
+        assertThat(routes.classify("/seller").loginPage()).isEqualTo("/seller-login");
+        assertThat(other.routeClass()).isEqualTo(RouteClass.DENIED);
+        assertThat(other.loginPage()).isEqualTo("/login");
+        assertThat(routes.classify("/api/v1/user/profile").api()).isTrue();
+    }
+
+    @Test
+    void matcherIgnoresTheContextPath() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/shop/api/v1/cart");
+        request.setContextPath("/shop");
+
+        assertThat(routes.matcher(RouteClass.USER).matches(request)).isTrue();
+        assertThat(routes.matcher(RouteClass.PUBLIC).matches(request)).isFalse();
+    }
+}
@@ -0,0 +1,44 @@
+package com.Shopping.Shopping.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenEpochsTest {
+
+    private final TokenEpochs tokenEpochs = new TokenEpochs(86_400_000L);
+
+    @Test
+    void revokeKillsTokensIssuedUpToNowOnly() throws InterruptedException {
+        VerifiedToken before = token("alice", List.of("ROLE_USER"));
+        Thread.sleep(2);
+
+        tokenEpochs.revoke(TokenEpochs.ROLE_USER, "alice");
+        Thread.sleep(2);
+        VerifiedToken after = token("alice", List.of("ROLE_USER"));
+
+        assertThat(tokenEpochs.isRevoked(before)).isTrue();
+        assertThat(tokenEpochs.isRevoked(after)).isFalse();
+    }
+
+    @Test
+    void epochsAreScopedByRole() {
+        VerifiedToken seller = token("alice", List.of("ROLE_SELLER"));
+        VerifiedToken legacy = token("alice", null);
+
+        tokenEpochs.revoke(TokenEpochs.ROLE_USER, "alice");
+
+        assertThat(tokenEpochs.isRevoked(seller)).isFalse();
+        assertThat(tokenEpochs.isRevoked(token("bob", List.of("ROLE_USER")))).isFalse();
+        // Without an authorities claim the token could belong to any of the accounts
+        assertThat(tokenEpochs.isRevoked(legacy)).isTrue();
+    }
+
+    private static VerifiedToken token(String username, List<String> authorities) {
+        Instant now = Instant.now();
+        return new VerifiedToken(username, authorities, now, now.plusSeconds(3600), now.toEpochMilli());
+    }
+}
@@ -0,0 +1,85 @@
+package com.Shopping.Shopping.service;
+
+import com.Shopping.Shopping.util.ProductQuantities;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CartJournalTest {
+
+    @TempDir
+    Path dir;
+
+    private CartJournal journal;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        journal.close();
+    }
+
+    @Test
+    void replayRestoresTheLastCartOfEachUser() throws InterruptedException {
+        journal = newJournal(1 << 20);
+        assertThat(journal.open()).isEmpty();
+
+        journal.await(journal.append(1, cart(10, 1)));
+        CompletableFuture<Void> first = journal.append(1, cart(10, 3));
+        CompletableFuture<Void> second = journal.append(2, cart(20, 5));
+        journal.await(first);
+        journal.await(second);
+        journal.close();
+
+        journal = newJournal(1 << 20);
+        Map<Long, ProductQuantities> recovered = journal.open();
+
+        assertThat(recovered).containsOnlyKeys(1L, 2L);
+        assertThat(recovered.get(1L).get(10)).isEqualTo(3);
+        assertThat(recovered.get(2L).get(20)).isEqualTo(5);
+    }
+
+    @Test
+    void segmentsBeforeACheckpointCanBeDeletedAndTornTailsAreIgnored() throws IOException, InterruptedException {
+        // Small segments, so every record rolls over to a new one
+        journal = newJournal(16);
+        journal.open();
+        journal.await(journal.append(1, cart(10, 1)));
+        journal.await(journal.append(2, cart(20, 2)));
+
+        long checkpoint = journal.checkpoint();
+        journal.await(journal.append(3, cart(30, 3)));
+        journal.deleteBefore(checkpoint);
+        journal.close();
+
+        try (Stream<Path> files = Files.list(dir)) {
+            Path last = files.sorted().reduce((a, b) -> b).orElseThrow();
+            // A crash part-way through the next record
+            Files.write(last, new byte[] {0, 0, 0, 40, 1, 2}, StandardOpenOption.APPEND);
+        }
+        journal = newJournal(16);
+        Map<Long, ProductQuantities> recovered = journal.open();
+
+        assertThat(recovered).containsOnlyKeys(3L);
+        assertThat(recovered.get(3L).get(30)).isEqualTo(3);
+    }
+
+    private CartJournal newJournal(long segmentSize) {
+        return new CartJournal(dir.toString(), Duration.ofMillis(1), segmentSize);
+    }
+
+    private static ProductQuantities cart(long productId, int quantity) {
+        ProductQuantities items = new ProductQuantities();
+        items.put(productId, quantity);
+        return items;
+    }
+}
@@ -0,0 +1,124 @@
+package com.Shopping.Shopping.service;
+
+import com.Shopping.Shopping.dto.CartDTO;
+import com.Shopping.Shopping.dto.ProductPrice;
+import com.Shopping.Shopping.repository.ProductRepository;
+import com.Shopping.Shopping.util.ProductQuantities;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CartServiceTest {
+
+    @Mock
+    private CartStore cartStore;
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private UserDetailsServiceImpl userDetailsService;
+
+    private CartService cartService;
+
+    @BeforeEach
+    void setUp() {
+        cartService = new CartService(cartStore, productService, productRepository, userDetailsService, 3);
+    }
+
+    @Test
+    void pricesTheWholeCartWithOneQueryInMinorUnits() {
+        ProductQuantities items = new ProductQuantities();
+        items.put(2, 3);
+        items.put(1, 1);
+        items.put(9, 4);
+        // Product 9 has been deleted since it was added
+        when(productRepository.findPricesByIdIn(List.of(2L, 1L, 9L)))
+                .thenReturn(List.of(price(1L, "Pen", 999.99), price(2L, "Sticker", 0.1)));
+
+        CartDTO cart = cartService.price(items);
+
+        verify(productRepository, times(1)).findPricesByIdIn(anyCollection());
+        verifyNoInteractions(productService);
+        assertThat(cart.getItems()).extracting(item -> item.getProduct().getName()).containsExactly("Sticker", "Pen");
+        assertThat(cart.getItems().get(0).getUnitPriceMinor()).isEqualTo(10);
+        assertThat(cart.getItems().get(0).getSubtotalMinor()).isEqualTo(30);
+        assertThat(cart.getItems().get(0).getSubtotal()).isEqualTo(0.3);
+        assertThat(cart.getTotalMinor()).isEqualTo(100_029);
+        assertThat(cart.getTotal()).isEqualTo(1000.29);
+    }
+
+    @Test
+    void emptyCartsNeedNoQuery() {
+        CartDTO cart = cartService.price(new ProductQuantities());
+
+        assertThat(cart.getItems()).isEmpty();
+        assertThat(cart.getTotalMinor()).isZero();
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void batchesAreValidatedWithOneQueryBeforeTouchingTheCart() {
+        List<CartStore.Operation> operations = List.of(
+                new CartStore.Operation(CartStore.Operation.Type.ADD, 1, 2),
+                new CartStore.Operation(CartStore.Operation.Type.SET, 5, 1),
+                new CartStore.Operation(CartStore.Operation.Type.REMOVE, 7, 0));
+        when(productRepository.findExistingIds(Set.of(1L, 5L))).thenReturn(List.of(1L));
+
+        assertThatThrownBy(() -> cartService.applyBatch("alice", operations))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("5");
+        verifyNoInteractions(cartStore);
+
+        ProductQuantities result = new ProductQuantities();
+        result.put(1, 2);
+        when(productRepository.findExistingIds(Set.of(1L))).thenReturn(List.of(1L));
+        when(userDetailsService.idOf("alice")).thenReturn(42L);
+        when(cartStore.apply(42L, operations.subList(0, 1))).thenReturn(result);
+        when(productRepository.findPricesByIdIn(List.of(1L))).thenReturn(List.of(price(1L, "Pen", 5)));
+
+        CartDTO cart = cartService.applyBatch("alice", operations.subList(0, 1));
+
+        assertThat(cart.getTotalMinor()).isEqualTo(1000);
+        assertThatThrownBy(() -> cartService.applyBatch("alice", List.of(operations.get(0), operations.get(0),
+                operations.get(0), operations.get(0)))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static ProductPrice price(Long id, String name, double price) {
+        return new ProductPrice() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public double getPrice() {
+                return price;
+            }
+
+            @Override
+            public String getImageHash() {
+                return null;
+            }
+        };
+    }
+}
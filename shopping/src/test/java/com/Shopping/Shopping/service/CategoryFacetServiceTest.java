@@ -0,0 +1,71 @@
+package com.Shopping.Shopping.service;
+
+import com.Shopping.Shopping.TestDatabase;
+import com.Shopping.Shopping.model.CategoryFacet;
+import com.Shopping.Shopping.model.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class CategoryFacetServiceTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryFacetService categoryFacetService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        TestDatabase.clear(jdbcTemplate);
+    }
+
+    @Test
+    void facetsFollowProductInsertUpdateAndDelete() {
+        String books = "Books";
+        String games = "Games";
+        Long cheap = save("Cheap Book", 10.0, books);
+        Long dear = save("Dear Book", 90.0, books);
+
+        assertThat(facet(books)).hasValueSatisfying(facet -> {
+            assertThat(facet.getProductCount()).isEqualTo(2);
+            assertThat(facet.getMinPrice()).isEqualTo(10.0);
+            assertThat(facet.getMaxPrice()).isEqualTo(90.0);
+        });
+
+        productService.updateProduct(dear, "Dear Game", "desc", 70.0, games, null);
+
+        assertThat(facet(books)).hasValueSatisfying(facet -> {
+            assertThat(facet.getProductCount()).isEqualTo(1);
+            assertThat(facet.getMaxPrice()).isEqualTo(10.0);
+        });
+        assertThat(facet(games)).hasValueSatisfying(facet -> assertThat(facet.getProductCount()).isEqualTo(1));
+
+        productService.deleteProduct(cheap);
+
+        assertThat(facet(books)).isEmpty();
+        assertThat(productService.getAllCategories()).contains(games).doesNotContain(books);
+    }
+
+    private Long save(String name, double price, String category) {
+        Product product = new Product(name, "desc", price, null, category, "PROD-" + name, null);
+        productService.saveProduct(product, null);
+        return product.getId();
+    }
+
+    private Optional<CategoryFacet> facet(String category) {
+        return categoryFacetService.getFacets().stream()
+            .filter(facet -> facet.getCategory().equals(category))
+            .findFirst();
+    }
+}
@@ -0,0 +1,73 @@
+package com.Shopping.Shopping.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FileSystemImageStoreTest {
+
+    @TempDir
+    Path root;
+
+    private FileSystemImageStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new FileSystemImageStore(root.toString());
+    }
+
+    @Test
+    void identicalBytesAreStoredOnceUnderTheirHash() throws Exception {
+        byte[] data = "same image".getBytes(StandardCharsets.UTF_8);
+
+        String first = store.put(data);
+        String second = store.put(data.clone());
+
+        assertThat(first).isEqualTo(ProductImageService.sha256Hex(data)).isEqualTo(second);
+        try (var files = Files.walk(root)) {
+            assertThat(files.filter(Files::isRegularFile).toList()).containsExactly(store.pathFor(first));
+        }
+        assertThat(store.length(first)).isEqualTo(data.length);
+        assertThat(store.read(first)).isEqualTo(data);
+        assertThat(store.file(first)).contains(store.pathFor(first));
+    }
+
+    @Test
+    void writesTheRequestedRange() throws Exception {
+        String hash = store.put("0123456789".getBytes(StandardCharsets.UTF_8));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        store.write(hash, 2, 5, out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("2345");
+    }
+
+    @Test
+    void deleteSparesRecentlyStoredBlobs() throws Exception {
+        String hash = store.put("to delete".getBytes(StandardCharsets.UTF_8));
+
+        store.delete(hash, Instant.now().minus(Duration.ofMinutes(10)));
+        assertThat(store.length(hash)).isPositive();
+
+        Files.setLastModifiedTime(store.pathFor(hash), FileTime.from(Instant.now().minus(Duration.ofHours(1))));
+        store.delete(hash, Instant.now().minus(Duration.ofMinutes(10)));
+        assertThat(store.length(hash)).isEqualTo(-1);
+        assertThat(store.file(hash)).isEmpty();
+    }
+
+    @Test
+    void rejectsKeysThatAreNotHashes() {
+        assertThatThrownBy(() -> store.read("../../etc/passwd")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
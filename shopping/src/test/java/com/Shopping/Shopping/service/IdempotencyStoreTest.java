@@ -0,0 +1,60 @@
+package com.Shopping.Shopping.service;
+
+import com.Shopping.Shopping.dto.ApiResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdempotencyStoreTest {
+
+    private final IdempotencyStore store = new IdempotencyStore(100, Duration.ofMinutes(1));
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @Test
+    void aRepeatedKeySharesTheFirstResponseEvenWhileItIsInFlight() {
+        CompletableFuture<ResponseEntity<ApiResponse<String>>> pending = new CompletableFuture<>();
+
+        CompletableFuture<ResponseEntity<ApiResponse<String>>> first = store.execute("u1", "k1", Map.of("amount", 5),
+                () -> { executions.incrementAndGet(); return pending; });
+        CompletableFuture<ResponseEntity<ApiResponse<String>>> retry = store.execute("u1", "k1", Map.of("amount", 5),
+                () -> { executions.incrementAndGet(); return pending; });
+        assertThat(retry).isNotDone();
+
+        pending.complete(ResponseEntity.ok(ApiResponse.success("order_1")));
+
+        assertThat(first.join().getBody().getData()).isEqualTo("order_1");
+        assertThat(retry.join().getBody().getData()).isEqualTo("order_1");
+        assertThat(retry.join().getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(executions).hasValue(1);
+        // Scoped per caller, and a different body under the same key is refused
+        assertThat(call("u2", "k1", 5).join().getBody().getData()).isEqualTo("ok");
+        assertThat(call("u1", "k1", 6).join().getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(executions).hasValue(2);
+    }
+
+    @Test
+    void serverErrorsAreNotRemembered() {
+        store.execute("u1", "k1", 5, () -> CompletableFuture.completedFuture(
+                ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(ApiResponse.<String>error("busy"))));
+
+        assertThat(call("u1", "k1", 5).join().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(call("u1", "k1", 5).join().getHeaders()).containsKey(IdempotencyStore.REPLAYED_HEADER);
+        assertThat(call("u1", null, 5).join().getHeaders()).doesNotContainKey(IdempotencyStore.REPLAYED_HEADER);
+        assertThat(executions).hasValue(2);
+        assertThat(store.getStats()).containsEntry("replayed", 1L);
+    }
+
+    private CompletableFuture<ResponseEntity<ApiResponse<String>>> call(String scope, String key, Object request) {
+        return store.execute(scope, key, request, () -> {
+            executions.incrementAndGet();
+            return CompletableFuture.completedFuture(ResponseEntity.ok(ApiResponse.success("ok")));
+        });
+    }
+}
@@ -0,0 +1,150 @@
+package com.Shopping.Shopping.service;
+
+import com.Shopping.Shopping.TestDatabase;
+import com.Shopping.Shopping.util.ProductQuantities;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class InMemoryCartStoreTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final long userId = 1;
+    private InMemoryCartStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = newStore();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        store.stop();
+        TestDatabase.clear(jdbcTemplate);
+    }
+
+    @Test
+    void concurrentAddsForOneUserAreAllApplied() throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 30; i++) {
+            long productId = i % 3;
+            pool.execute(() -> store.add(userId, productId, 1));
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        ProductQuantities items = store.get(userId);
+        assertThat(items.size()).isEqualTo(3);
+        for (int i = 0; i < items.size(); i++) {
+            assertThat(items.quantity(i)).isEqualTo(10);
+        }
+    }
+
+    @Test
+    void flushedCartsAreReloadedInOrder() throws InterruptedException {
+        store.add(userId, 30, 2);
+        store.add(userId, 10, 1);
+        store.add(userId, 20, 5);
+        store.set(userId, 10, 4);
+        store.remove(userId, 30);
+        store.set(userId, 99, 1);
+        store.flush();
+
+        InMemoryCartStore restarted = newStore();
+        try {
+            ProductQuantities items = restarted.get(userId);
+            assertThat(items.size()).isEqualTo(2);
+            assertThat(items.productId(0)).isEqualTo(10);
+            assertThat(items.quantity(0)).isEqualTo(4);
+            assertThat(items.productId(1)).isEqualTo(20);
+            assertThat(items.quantity(1)).isEqualTo(5);
+        } finally {
+            restarted.stop();
+        }
+    }
+
+    @Test
+    void limitsAreEnforced() {
+        store.add(userId, 1, 5);
+        store.add(userId, 2, 1);
+        store.add(userId, 3, 1);
+
+        assertThatThrownBy(() -> store.add(userId, 4, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> store.add(userId, 1, 6)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(store.get(userId).get(1)).isEqualTo(5);
+    }
+
+    @Test
+    void batchesApplyInOrderOrNotAtAll() {
+        store.add(userId, 1, 2);
+
+        ProductQuantities result = store.apply(userId, List.of(
+                new CartStore.Operation(CartStore.Operation.Type.ADD, 2, 1),
+                new CartStore.Operation(CartStore.Operation.Type.SET, 1, 7),
+                new CartStore.Operation(CartStore.Operation.Type.REMOVE, 2, 0),
+                new CartStore.Operation(CartStore.Operation.Type.SET, 3, 4)));
+
+        assertThat(result.get(1)).isEqualTo(7);
+        assertThat(result.get(2)).isZero();
+        assertThat(result.get(3)).isEqualTo(4);
+        // The third distinct product is fine, a fourth exceeds the limit and undoes the whole batch
+        assertThatThrownBy(() -> store.apply(userId, List.of(
+                new CartStore.Operation(CartStore.Operation.Type.REMOVE, 1, 0),
+                new CartStore.Operation(CartStore.Operation.Type.ADD, 4, 1),
+                new CartStore.Operation(CartStore.Operation.Type.ADD, 5, 1),
+                new CartStore.Operation(CartStore.Operation.Type.ADD, 6, 1))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(store.get(userId).get(1)).isEqualTo(7);
+        assertThat(store.get(userId).get(4)).isZero();
+    }
+
+    @Test
+    void journaledChangesSurviveACrashBeforeTheFlush(@TempDir Path journalDir) throws InterruptedException {
+        CartJournal journal = new CartJournal(journalDir.toString(), Duration.ofMillis(1), 1 << 20);
+        InMemoryCartStore crashed = newStore(journal);
+        crashed.add(userId, 5, 2);
+        // Never flushed or stopped; only the journal's file handle goes away
+        journal.close();
+
+        store.stop();
+        store = newStore(new CartJournal(journalDir.toString(), Duration.ofMillis(1), 1 << 20));
+
+        assertThat(store.get(userId).get(5)).isEqualTo(2);
+        store.flush();
+        assertThat(jdbcTemplate.queryForObject("SELECT quantity FROM cart_items WHERE user_id = ? AND product_id = 5",
+                Integer.class, userId)).isEqualTo(2);
+    }
+
+    private InMemoryCartStore newStore() {
+        return newStore(new CartJournal("", Duration.ofMillis(1), 1 << 20));
+    }
+
+    private InMemoryCartStore newStore(CartJournal journal) {
+        // Flushed only when the test says so
+        InMemoryCartStore cartStore = new InMemoryCartStore(jdbcTemplate, transactionManager, journal, 3, 10,
+                Duration.ofHours(1), Duration.ofHours(1));
+        cartStore.start();
+        return cartStore;
+    }
+}
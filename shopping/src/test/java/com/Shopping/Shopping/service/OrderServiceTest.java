@@ -0,0 +1,180 @@
+package com.Shopping.Shopping.service;
+
+import com.Shopping.Shopping.TestDatabase;
+import com.Shopping.Shopping.model.OrderLine;
+import com.Shopping.Shopping.model.Product;
+import com.Shopping.Shopping.model.User;
+import com.Shopping.Shopping.repository.OrdersRepository;
+import com.Shopping.Shopping.repository.ProductRepository;
+import com.Shopping.Shopping.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "razorpay.secret=rzp_test_secret",
+        "app.payment.gateway=fake",
+        "app.payment.fake.latency=0ms"
+})
+class OrderServiceTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrdersRepository ordersRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PaymentGatewayClient paymentGatewayClient;
+
+    private User user;
+    private Product product;
+    private String orderId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        user = new User();
+        user.setUsername("buyer");
+        user.setPassword("hash");
+        user = userRepository.saveAndFlush(user);
+        product = productRepository.saveAndFlush(new Product("Lamp", "A lamp", 250.0, null, "Home",
+                "PROD-LAMP", null));
+        orderId = gatewayOrder(50_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TestDatabase.clear(jdbcTemplate);
+    }
+
+    @Test
+    void concurrentRetriesOfOneConfirmationStoreOneOrder() throws Exception {
+        List<CompletableFuture<OrderService.RecordedOrder>> attempts = List.of(confirm(), confirm(), confirm());
+
+        long created = 0;
+        for (CompletableFuture<OrderService.RecordedOrder> attempt : attempts) {
+            OrderService.RecordedOrder recorded = attempt.get(10, TimeUnit.SECONDS);
+            assertThat(recorded.order().getRazorpayPaymentId()).isEqualTo("pay_1");
+            created += recorded.created() ? 1 : 0;
+        }
+
+        assertThat(created).isEqualTo(1);
+        assertThat(ordersRepository.findByUser(user)).hasSize(1);
+        assertThat(confirm().get(10, TimeUnit.SECONDS).order().getAmount()).isEqualTo(500.0);
+        assertThat(lines()).hasSize(1);
+    }
+
+    @Test
+    void aCartCheckoutStoresOneLinePerProductAndEmptiesTheCart() throws Exception {
+        cartService.addProductToCart(user.getUsername(), product.getId(), 3);
+        String cartOrderId = gatewayOrder(75_000);
+
+        OrderService.RecordedOrder recorded = record(cartOrderId, "pay_1", OrderService.Checkout.cart())
+                .get(10, TimeUnit.SECONDS);
+
+        assertThat(recorded.order().getAmount()).isEqualTo(750.0);
+        assertThat(lines()).singleElement().satisfies(line -> {
+            assertThat(line.getProductId()).isEqualTo(product.getId());
+            assertThat(line.getQuantity()).isEqualTo(3);
+            assertThat(line.getUnitPriceMinor()).isEqualTo(25_000);
+        });
+        assertThat(cartService.getCart(user.getUsername()).getItems()).isEmpty();
+    }
+
+    @Test
+    void aPaymentForLessThanTheCheckoutTotalIsRefused() throws Exception {
+        cartService.addProductToCart(user.getUsername(), product.getId(), 3);
+        String cheapOrderId = gatewayOrder(1);
+
+        assertRefused(record(cheapOrderId, "pay_1", OrderService.Checkout.cart()), "does not match");
+        // Paying the buy-now price does not cover a cart that has since grown either
+        assertRefused(record(orderId, "pay_1", OrderService.Checkout.cart()), "does not match");
+        assertThat(ordersRepository.findByUser(user)).isEmpty();
+        assertThat(cartService.getCart(user.getUsername()).getItems()).hasSize(1);
+    }
+
+    @Test
+    void anEmptyCartHasNothingToPayFor() {
+        assertRefused(record(orderId, "pay_1", OrderService.Checkout.cart()), "empty");
+        assertThat(ordersRepository.findByUser(user)).isEmpty();
+    }
+
+    @Test
+    void aSecondPaymentForARecordedOrderIsRefused() throws Exception {
+        confirm().get(10, TimeUnit.SECONDS);
+
+        assertRefused(record(orderId, "pay_2", buyNow()), "already recorded");
+        assertRefused(record(gatewayOrder(50_000), "pay_1", buyNow()), "already recorded");
+        assertThat(ordersRepository.findByUser(user)).hasSize(1);
+    }
+
+    @Test
+    void forgedSignaturesAreRejectedBeforeAnythingIsStored() {
+        String signature = PaymentSignatureVerifierTest.sign(orderId, "pay_2");
+
+        assertRefused(orderService.recordPayment(user.getUsername(), orderId, "pay_1", signature, buyNow()),
+                "signature");
+        assertThat(ordersRepository.findByUser(user)).isEmpty();
+    }
+
+    private CompletableFuture<OrderService.RecordedOrder> confirm() {
+        return record(orderId, "pay_1", buyNow());
+    }
+
+    private CompletableFuture<OrderService.RecordedOrder> record(String gatewayOrderId, String paymentId,
+                                                                 OrderService.Checkout checkout) {
+        return orderService.recordPayment(user.getUsername(), gatewayOrderId, paymentId,
+                PaymentSignatureVerifierTest.sign(gatewayOrderId, paymentId), checkout);
+    }
+
+    private OrderService.Checkout buyNow() {
+        return OrderService.Checkout.buyNow(product.getId(), 2);
+    }
+
+    private String gatewayOrder(long amountMinor) throws Exception {
+        return paymentGatewayClient.createOrder(amountMinor, OrderService.CURRENCY, "txn_1")
+                .get(5, TimeUnit.SECONDS).id();
+    }
+
+    private static void assertRefused(CompletableFuture<?> payment, String message) {
+        assertThat(payment).failsWithin(Duration.ofSeconds(10))
+                .withThrowableOfType(ExecutionException.class)
+                .havingCause()
+                .isInstanceOf(IllegalArgumentException.class)
+                .withMessageContaining(message);
+    }
+
+    private List<OrderLine> lines() {
+        return jdbcTemplate.query("SELECT l.product_id, l.quantity, l.unit_price_minor FROM order_lines l "
+                + "JOIN orders o ON o.id = l.order_id WHERE o.user_id = ?", (rs, row) -> {
+            OrderLine line = new OrderLine();
+            line.setProductId(rs.getLong(1));
+            line.setQuantity(rs.getInt(2));
+            line.setUnitPriceMinor(rs.getLong(3));
+            return line;
+        }, user.getId());
+    }
+}
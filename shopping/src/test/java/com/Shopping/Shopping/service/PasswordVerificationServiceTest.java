@@ -0,0 +1,111 @@
+package com.Shopping.Shopping.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordVerificationServiceTest {
+
+    private final BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(5);
+    private ThreadPoolTaskExecutor executor;
+    private PasswordVerificationService service;
+
+    @BeforeEach
+    void setUp() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.initialize();
+        service = new PasswordVerificationService(encoder, executor, 5, 1, 8, Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void matchesChecksThePasswordOnThePoolAndRecordsTimings() {
+        String hash = encoder.encode("Secret1!");
+
+        assertThat(service.matches("user:alice", "10.0.0.1", "Secret1!", hash)).isTrue();
+        assertThat(service.matches("user:alice", "10.0.0.1", "wrong", hash)).isFalse();
+
+        assertThat(service.getStats())
+                .containsEntry("verified", 2L)
+                .containsEntry("rejectedQueueFull", 0L);
+        assertThat((double) service.getStats().get("avgHashMs")).isPositive();
+    }
+
+    @Test
+    void refusesWhenTheAccountIsBusyOrTheQueueIsFull() throws Exception {
+        String hash = encoder.encode("Secret1!");
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> awaitQuietly(release));
+
+        // Queued behind the blocker, so alice's single in-flight slot stays taken
+        CompletableFuture<Boolean> pending = CompletableFuture.supplyAsync(
+                () -> service.matches("user:alice", "10.0.0.1", "Secret1!", hash));
+        while (executor.getThreadPoolExecutor().getQueue().isEmpty()) {
+            Thread.sleep(5);
+        }
+
+        assertThatThrownBy(() -> service.matches("user:alice", "10.0.0.2", "Secret1!", hash))
+                .isInstanceOfSatisfying(LoginThrottledException.class,
+                        e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS));
+        assertThatThrownBy(() -> service.matches("user:bob", "10.0.0.2", "Secret1!", hash))
+                .isInstanceOfSatisfying(LoginThrottledException.class,
+                        e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+
+        release.countDown();
+        assertThat(pending.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(service.getStats())
+                .containsEntry("rejectedUsernameLimit", 1L)
+                .containsEntry("rejectedQueueFull", 1L);
+        // Slots are released once the check completes
+        assertThat(service.matches("user:alice", "10.0.0.2", "Secret1!", hash)).isTrue();
+    }
+
+    @Test
+    void rehashesOnlyWhenTheStoredCostDiffers() throws Exception {
+        String current = encoder.encode("Secret1!");
+        String weaker = new BCryptPasswordEncoder(4).encode("Secret1!");
+        AtomicReference<String> stored = new AtomicReference<>(weaker);
+        CountDownLatch updated = new CountDownLatch(1);
+
+        service.rehashIfNeeded("Secret1!", current, (oldHash, newHash) -> {
+            throw new AssertionError("hash already has the configured cost");
+        });
+        service.rehashIfNeeded("Secret1!", weaker, (oldHash, newHash) -> {
+            boolean swapped = stored.compareAndSet(oldHash, newHash);
+            updated.countDown();
+            return swapped;
+        });
+
+        assertThat(updated.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(stored.get()).startsWith("$2a$05$");
+        assertThat(encoder.matches("Secret1!", stored.get())).isTrue();
+        assertThat(service.needsRehash(stored.get())).isFalse();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
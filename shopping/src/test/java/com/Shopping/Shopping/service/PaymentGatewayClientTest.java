@@ -0,0 +1,143 @@
+package com.Shopping.Shopping.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PaymentGatewayClientTest {
+
+    private ThreadPoolTaskExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(0);
+        executor.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void callsRunOffTheCallerThreadAndAreCounted() throws Exception {
+        PaymentGatewayClient client = client(new FakePaymentGateway(Duration.ofMillis(20), 0), Duration.ofSeconds(5));
+
+        PaymentGateway.GatewayOrder order = client.createOrder(50_000, "INR", "txn_1").get(5, TimeUnit.SECONDS);
+
+        assertThat(order.amountMinor()).isEqualTo(50_000);
+        assertThat(client.fetchOrder(order.id()).get(5, TimeUnit.SECONDS)).isEqualTo(order);
+        assertThat(stats(client, "createOrder")).containsEntry("succeeded", 1L);
+        assertThat((double) stats(client, "createOrder").get("avgLatencyMs")).isGreaterThanOrEqualTo(20.0);
+    }
+
+    @Test
+    void theBulkheadRefusesCallsBeyondTheLimitAndATimeoutAnswersFirst() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        PaymentGatewayClient client = client(new StubGateway() {
+            @Override
+            public GatewayOrder createOrder(long amountMinor, String currency, String receipt) {
+                awaitQuietly(release);
+                return new GatewayOrder("order_1", amountMinor, currency, "created");
+            }
+        }, Duration.ofMillis(100));
+
+        CompletableFuture<PaymentGateway.GatewayOrder> first = client.createOrder(100, "INR", "a");
+        CompletableFuture<PaymentGateway.GatewayOrder> second = client.createOrder(100, "INR", "b");
+        assertGatewayError(client.createOrder(100, "INR", "c"), HttpStatus.SERVICE_UNAVAILABLE);
+
+        assertGatewayError(first, HttpStatus.GATEWAY_TIMEOUT);
+        assertGatewayError(second, HttpStatus.GATEWAY_TIMEOUT);
+        // Timed-out calls keep their permits until the gateway actually returns
+        assertGatewayError(client.createOrder(100, "INR", "d"), HttpStatus.SERVICE_UNAVAILABLE);
+        release.countDown();
+        while (!client.getStats().get("inFlight").equals(0)) {
+            Thread.sleep(5);
+        }
+        assertThat(client.createOrder(100, "INR", "e").get(5, TimeUnit.SECONDS).id()).isEqualTo("order_1");
+        assertThat(stats(client, "createOrder"))
+                .containsEntry("rejected", 2L)
+                .containsEntry("timedOut", 2L)
+                .containsEntry("succeeded", 1L);
+    }
+
+    @Test
+    void onlyIdempotentCallsAreRetried() throws Exception {
+        AtomicInteger creates = new AtomicInteger();
+        AtomicInteger fetches = new AtomicInteger();
+        PaymentGatewayClient client = client(new StubGateway() {
+            @Override
+            public GatewayOrder createOrder(long amountMinor, String currency, String receipt) {
+                creates.incrementAndGet();
+                throw new PaymentGatewayException(HttpStatus.BAD_GATEWAY, "down");
+            }
+
+            @Override
+            public GatewayOrder fetchOrder(String orderId) {
+                if (fetches.incrementAndGet() < 3) {
+                    throw new PaymentGatewayException(HttpStatus.BAD_GATEWAY, "down");
+                }
+                return new GatewayOrder(orderId, 100, "INR", "paid");
+            }
+        }, Duration.ofSeconds(5));
+
+        assertGatewayError(client.createOrder(100, "INR", "a"), HttpStatus.BAD_GATEWAY);
+        assertThat(client.fetchOrder("order_1").get(5, TimeUnit.SECONDS).status()).isEqualTo("paid");
+
+        assertThat(creates).hasValue(1);
+        assertThat(fetches).hasValue(3);
+        assertThat(stats(client, "fetchOrder")).containsEntry("retries", 2L).containsEntry("succeeded", 1L);
+    }
+
+    private PaymentGatewayClient client(PaymentGateway gateway, Duration timeout) {
+        return new PaymentGatewayClient(gateway, executor, 2, timeout, 3, Duration.ofMillis(5));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> stats(PaymentGatewayClient client, String operation) {
+        return (Map<String, Object>) client.getStats().get(operation);
+    }
+
+    private static void assertGatewayError(CompletableFuture<?> call, HttpStatus status) {
+        assertThatThrownBy(() -> call.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .cause()
+                .isInstanceOfSatisfying(PaymentGatewayException.class, e -> assertThat(e.getStatus()).isEqualTo(status));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private abstract static class StubGateway implements PaymentGateway {
+        @Override
+        public GatewayOrder createOrder(long amountMinor, String currency, String receipt) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public GatewayOrder fetchOrder(String orderId) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
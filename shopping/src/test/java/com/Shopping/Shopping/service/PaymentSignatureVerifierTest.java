@@ -0,0 +1,95 @@
+package com.Shopping.Shopping.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PaymentSignatureVerifierTest {
+
+    private static final String SECRET = "rzp_test_secret";
+
+    private final PaymentSignatureVerifier verifier = new PaymentSignatureVerifier(SECRET);
+
+    @Test
+    void acceptsOnlyTheGatewaysSignatureOfThisOrderAndPayment() {
+        String signature = sign("order_1", "pay_1");
+
+        assertThat(verifier.verify("order_1", "pay_1", signature)).isTrue();
+        assertThat(verifier.verify("order_1", "pay_1", signature.toUpperCase())).isTrue();
+        assertThat(verifier.verify("order_1", "pay_2", signature)).isFalse();
+        assertThat(verifier.verify("order_1|pay_1", "", signature)).isFalse();
+        assertThat(verifier.verify("order_1", "pay_1", flipLastDigit(signature))).isFalse();
+        assertThat(verifier.verify("order_1", "pay_1", signature.substring(2))).isFalse();
+        assertThat(verifier.verify("order_1", "pay_1", "zz" + signature.substring(2))).isFalse();
+        assertThat(verifier.verify("order_1", "pay_1", null)).isFalse();
+        assertThat(verifier.verify("order_é", "pay_1", sign("order_é", "pay_1"))).isFalse();
+        assertThat(new PaymentSignatureVerifier("").verify("order_1", "pay_1", signature)).isFalse();
+        assertThat(verifier.getStats()).containsEntry("verified", 2L).containsEntry("rejected", 7L);
+    }
+
+    @Test
+    void reusedPerThreadStateGivesTheSameAnswerOnEveryThread() {
+        String longOrderId = "order_" + "x".repeat(200);
+        CompletableFuture<?>[] threads = new CompletableFuture<?>[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < 1_000; i++) {
+                    String orderId = i % 10 == 0 ? longOrderId : "order_" + i;
+                    assertThat(verifier.verify(orderId, "pay_" + i, sign(orderId, "pay_" + i))).isTrue();
+                }
+            });
+        }
+        CompletableFuture.allOf(threads).join();
+    }
+
+    /**
+     * Microbenchmark of one verification against the obvious implementation (a new Mac
+     * per call, hex-encode, String.equals). Run with -Dbenchmark=true.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void verificationCost() {
+        String signature = sign("order_NTl4yGHGwaPhqD", "pay_NTl5ABf4k1xXpE");
+        int iterations = 1_000_000;
+        for (int round = 0; round < 3; round++) {
+            long reused = time(iterations, () -> verifier.verify("order_NTl4yGHGwaPhqD", "pay_NTl5ABf4k1xXpE", signature));
+            long fresh = time(iterations, () -> sign("order_NTl4yGHGwaPhqD", "pay_NTl5ABf4k1xXpE").equals(signature));
+            System.out.printf("round %d: verifier %d ns/op, new Mac per call %d ns/op%n",
+                    round, reused / iterations, fresh / iterations);
+        }
+    }
+
+    private static long time(int iterations, BooleanSupplier verification) {
+        int accepted = 0;
+        long started = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            accepted += verification.getAsBoolean() ? 1 : 0;
+        }
+        long elapsed = System.nanoTime() - started;
+        assertThat(accepted).isEqualTo(iterations);
+        return elapsed;
+    }
+
+    private static String flipLastDigit(String signature) {
+        char last = signature.charAt(signature.length() - 1);
+        return signature.substring(0, signature.length() - 1) + (last == '0' ? '1' : '0');
+    }
+
+    static String sign(String orderId, String paymentId) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return HexFormat.of().formatHex(mac.doFinal((orderId + "|" + paymentId).getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.Shopping.Shopping.service;
+
+import com.Shopping.Shopping.TestDatabase;
+import com.Shopping.Shopping.model.Product;
+import com.Shopping.Shopping.model.ProductImageVariant;
+import com.Shopping.Shopping.repository.ProductImageVariantRepository;
+import com.Shopping.Shopping.repository.ProductRepository;
+import com.Shopping.Shopping.service.ProductImageService.ImageDescriptor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ProductImageVariantServiceTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductImageService productImageService;
+
+    @Autowired
+    private ProductImageVariantRepository productImageVariantRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ImageStore imageStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long productId;
+
+    @AfterEach
+    void tearDown() {
+        TestDatabase.clear(jdbcTemplate);
+    }
+
+    @Test
+    void uploadGeneratesResizedVariantsServedBySize() throws Exception {
+        byte[] upload = jpeg(2000, 1000);
+        Product product = new Product("Variant Product", "Has a large photo", 10.0, null, "VariantTest", "PROD-VARIANT", null);
+        productService.saveProduct(product, new MockMultipartFile("image", "photo.jpg", "image/jpeg", upload));
+        productId = product.getId();
+
+        List<ProductImageVariant> variants = awaitVariants(3);
+        variants.sort(Comparator.comparingInt(ProductImageVariant::getWidth));
+        assertThat(variants).extracting(ProductImageVariant::getWidth).containsExactly(160, 480, 1200);
+        assertThat(variants).extracting(ProductImageVariant::getHeight).containsExactly(80, 240, 600);
+        assertThat(variants).allSatisfy(variant -> assertThat(variant.getContentType()).isEqualTo("image/jpeg"));
+        assertThat(imageStore.length(variants.get(0).getImageHash())).isLessThan(upload.length / 10);
+
+        ImageDescriptor thumbnail = productImageService.describe(productId, 100).orElseThrow();
+        assertThat(thumbnail.width()).isEqualTo(160);
+        assertThat(thumbnail.version()).isEqualTo(product.getImageHash());
+        assertThat(thumbnail.hash()).isNotEqualTo(product.getImageHash());
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(thumbnail.data()));
+        assertThat(decoded.getWidth()).isEqualTo(160);
+
+        ImageDescriptor original = productImageService.describe(productId, 4000).orElseThrow();
+        assertThat(original.width()).isEqualTo(ProductImageService.ORIGINAL);
+        assertThat(original.length()).isEqualTo(upload.length);
+    }
+
+    @Test
+    void productsWithoutVariantsServeTheCachedOriginalUntilVariantsAreSaved() throws Exception {
+        // Saved before variants existed, so nothing was scheduled for it
+        Product product = new Product("Old Product", "Predates variants", 10.0, null, "VariantTest", "PROD-OLD", null);
+        productService.saveProduct(product, null);
+        productId = product.getId();
+        product.setImageName("photo.jpg");
+        product.setImageHash(imageStore.put(jpeg(1000, 500)));
+        productRepository.save(product);
+
+        ImageDescriptor fallback = productImageService.describe(productId, 100).orElseThrow();
+        assertThat(fallback.width()).isEqualTo(ProductImageService.ORIGINAL);
+
+        awaitVariants(3);
+        long deadline = System.currentTimeMillis() + 10_000;
+        ImageDescriptor thumbnail = fallback;
+        while (thumbnail.width() == ProductImageService.ORIGINAL && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            thumbnail = productImageService.describe(productId, 100).orElseThrow();
+        }
+        assertThat(thumbnail.width()).isEqualTo(160);
+    }
+
+    @Test
+    void undecodableUploadsAreServedFromTheCacheAsTheOriginal() throws Exception {
+        Product product = new Product("WebP Product", "ImageIO cannot read it", 10.0, null, "VariantTest", "PROD-WEBP", null);
+        productService.saveProduct(product, new MockMultipartFile("image", "photo.webp", "image/webp", new byte[]{1, 2, 3}));
+        productId = product.getId();
+
+        ImageDescriptor first = productImageService.describe(productId, 100).orElseThrow();
+        assertThat(first.width()).isEqualTo(ProductImageService.ORIGINAL);
+        // No variant query or reload on later requests
+        assertThat(productImageService.describe(productId, 100).orElseThrow()).isSameAs(first);
+        assertThat(productImageService.describe(productId, 480).orElseThrow()).isSameAs(first);
+    }
+
+    private List<ProductImageVariant> awaitVariants(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            List<ProductImageVariant> variants = productImageVariantRepository.findAll().stream()
+                    .filter(variant -> variant.getProductId().equals(productId))
+                    .collect(java.util.stream.Collectors.toList());
+            if (variants.size() >= expected) {
+                return variants;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Variants were not generated for product " + productId);
+    }
+
+    private static byte[] jpeg(int width, int height) throws Exception {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        for (int x = 0; x < width; x += 20) {
+            g.setColor(new Color((x * 7) % 256, (x * 13) % 256, (x * 29) % 256));
+            g.fillRect(x, 0, 20, height);
+        }
+        g.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,82 @@
+package com.Shopping.Shopping.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex();
+        index.index(1L, "Running Shoes", "Lightweight trainers", "Footwear", "PROD-AAA11111");
+        index.index(2L, "Leather Wallet", "Fits running shoes receipts", "Accessories", "PROD-BBB22222");
+        index.index(3L, "Trail Shoe", "Grippy sole for mud", "Footwear", "PROD-CCC33333");
+    }
+
+    @Test
+    void stemsPluralsAndRanksNameMatchesFirst() {
+        ProductSearchIndex.SearchResult result = index.search("shoes", 0, 10);
+
+        assertThat(result.productIds()).containsExactly(1L, 3L, 2L);
+        assertThat(result.total()).isEqualTo(3);
+    }
+
+    @Test
+    void multiTermQueriesAreAnded() {
+        assertThat(index.search("running shoe", 0, 10).productIds()).containsExactly(1L, 2L);
+        assertThat(index.search("trail running", 0, 10).productIds()).isEmpty();
+    }
+
+    @Test
+    void lastTermMatchesAsPrefix() {
+        assertThat(index.search("foot", 0, 10).productIds()).containsExactly(1L, 3L);
+        assertThat(index.search("prod-ccc", 0, 10).productIds()).containsExactly(3L);
+    }
+
+    @Test
+    void paginatesRankedResults() {
+        ProductSearchIndex.SearchResult page = index.search("shoe", 1, 1);
+
+        assertThat(page.productIds()).containsExactly(3L);
+        assertThat(page.total()).isEqualTo(3);
+    }
+
+    @Test
+    void reindexAndRemoveUpdatePostings() {
+        index.index(3L, "Mountain Boot", "Grippy sole for mud", "Footwear", "PROD-CCC33333");
+        index.remove(1L);
+
+        assertThat(index.search("shoe", 0, 10).productIds()).containsExactly(2L);
+        assertThat(index.search("boot", 0, 10).productIds()).containsExactly(3L);
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void changesDuringARebuildAreReplayedOntoTheNewIndex() {
+        ProductSearchIndex fresh = new ProductSearchIndex();
+        ProductSearchIndex rebuilt = fresh.startRebuild();
+        // The scan read these rows just before they were updated and deleted
+        rebuilt.index(1L, "Running Shoes", "Lightweight trainers", "Footwear", "PROD-AAA11111");
+        rebuilt.index(2L, "Leather Wallet", "Fits running shoes receipts", "Accessories", "PROD-BBB22222");
+        fresh.index(1L, "Racing Flats", "Lightweight trainers", "Footwear", "PROD-AAA11111");
+        fresh.remove(2L);
+        fresh.index(4L, "Canvas Shoe", "Added during the scan", "Footwear", "PROD-DDD44444");
+        assertThat(fresh.isReady()).isFalse();
+
+        fresh.finishRebuild(rebuilt);
+
+        assertThat(fresh.isReady()).isTrue();
+        assertThat(fresh.search("racing", 0, 10).productIds()).containsExactly(1L);
+        assertThat(fresh.search("shoe", 0, 10).productIds()).containsExactly(4L);
+        assertThat(fresh.search("wallet", 0, 10).productIds()).isEmpty();
+        assertThat(fresh.size()).isEqualTo(2);
+
+        // Once swapped in, changes are no longer recorded
+        fresh.index(5L, "Suede Shoe", "", "Footwear", "PROD-EEE55555");
+        assertThat(fresh.search("shoe", 0, 10).productIds()).containsExactly(4L, 5L);
+    }
+}
@@ -0,0 +1,78 @@
+package com.Shopping.Shopping.service;
+
+import com.Shopping.Shopping.TestDatabase;
+import com.Shopping.Shopping.config.CacheConfig;
+import com.Shopping.Shopping.dto.ProductDTO;
+import com.Shopping.Shopping.model.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ProductServiceCacheTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Long productId;
+    private final String category = "CacheTest";
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        Product product = new Product("Cached Product", "Cached description", 100.0, null, category, "PROD-CACHE", null);
+        productService.saveProduct(product, null);
+        productId = product.getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TestDatabase.clear(jdbcTemplate);
+    }
+
+    @Test
+    void getProductByIdIsServedFromCacheUntilUpdated() {
+        ProductDTO first = productService.getProductById(productId);
+        ProductDTO second = productService.getProductById(productId);
+        assertThat(second).isSameAs(first);
+        // A value object, not a detached entity with lazy associations
+        assertThat(cacheManager.getCache(CacheConfig.PRODUCTS).get(productId).get()).isInstanceOf(ProductDTO.class);
+
+        productService.updateProduct(productId, "Renamed Product", "Cached description", 150.0, category, null);
+
+        ProductDTO updated = productService.getProductById(productId);
+        assertThat(updated).isNotSameAs(first);
+        assertThat(updated.getName()).isEqualTo("Renamed Product");
+        assertThat(updated.getPrice()).isEqualTo(150.0);
+    }
+
+    @Test
+    void listsAndCategoriesAreInvalidatedByWrites() {
+        assertThat(productService.getProductsByCategory(category)).hasSize(1);
+        assertThat(productService.getAllCategories()).contains(category);
+
+        String newCategory = category + "-moved";
+        productService.updateProduct(productId, "Cached Product", "Cached description", 100.0, newCategory, null);
+
+        assertThat(productService.getProductsByCategory(newCategory)).hasSize(1);
+        assertThat(productService.getAllCategories()).contains(newCategory).doesNotContain(category);
+
+        productService.deleteProduct(productId);
+
+        assertThat(productService.getProductById(productId)).isNull();
+        assertThat(productService.getProductsByCategory(newCategory)).isEmpty();
+        assertThat(productService.getAllCategories()).doesNotContain(newCategory);
+    }
+}
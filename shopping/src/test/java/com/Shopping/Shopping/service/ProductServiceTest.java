@@ -1,6 +1,9 @@
 package com.Shopping.Shopping.service;
 
+import com.Shopping.Shopping.dto.ProductDTO;
+import com.Shopping.Shopping.dto.ProductSummary;
 import com.Shopping.Shopping.model.Product;
+import com.Shopping.Shopping.repository.ProductImageVariantRepository;
 import com.Shopping.Shopping.repository.ProductRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -9,6 +12,8 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
@@ -17,6 +22,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,6 +31,24 @@ class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private ImageStore imageStore;
+
+    @Mock
+    private ProductImageService productImageService;
+
+    @Mock
+    private ProductImageVariantRepository productImageVariantRepository;
+
+    @Mock
+    private ProductImageVariantService productImageVariantService;
+
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
+    @Mock
+    private CategoryFacetService categoryFacetService;
+
     @Mock
     private MultipartFile multipartFile;
 
@@ -42,16 +66,32 @@ class ProductServiceTest {
 
     @Test
     void testSearchProducts() {
-        // Fix: Mock the correct method that ProductService actually uses
-        when(productRepository.searchProducts("test"))
-                .thenReturn(Arrays.asList(product));
+        ProductSummary first = mock(ProductSummary.class);
+        ProductSummary second = mock(ProductSummary.class);
+        when(productRepository.searchProductSummaries("test")).thenReturn(Arrays.asList(first, second));
 
-        List<Product> products = productService.searchProducts("test");
+        Window<ProductSummary> page = productService.searchProducts("test", 0, 1);
 
-        assertThat(products).isNotEmpty();
-        assertThat(products.get(0).getName()).isEqualTo("Test Product");
-        verify(productRepository, times(1))
-                .searchProducts("test");
+        assertThat(page.getContent()).containsExactly(first);
+        assertThat(page.hasNext()).isTrue();
+    }
+
+    @Test
+    void testSearchProductsUsesIndexWhenReady() {
+        ProductSummary first = summary(1L);
+        ProductSummary second = summary(2L);
+        when(productSearchIndex.isReady()).thenReturn(true);
+        when(productSearchIndex.search("test", 0, 20))
+                .thenReturn(new ProductSearchIndex.SearchResult(Arrays.asList(2L, 1L), 2));
+        when(productRepository.findSummariesByIdIn(Arrays.asList(2L, 1L)))
+                .thenReturn(Arrays.asList(first, second));
+
+        Window<ProductSummary> page = productService.searchProducts("test", 0, 20);
+
+        // Ranked order, whatever order the IN query returned
+        assertThat(page.getContent()).extracting(ProductSummary::getId).containsExactly(2L, 1L);
+        assertThat(page.hasNext()).isFalse();
+        verify(productRepository, never()).searchProductSummaries(anyString());
     }
 
     @Test
@@ -68,6 +108,7 @@ class ProductServiceTest {
         when(multipartFile.getOriginalFilename()).thenReturn("image.png");
         when(multipartFile.getBytes()).thenReturn("dummy".getBytes());
         when(multipartFile.isEmpty()).thenReturn(false);
+        when(imageStore.put("dummy".getBytes())).thenReturn(ProductImageService.sha256Hex("dummy".getBytes()));
         
         // Mock the repository.save() to return the product (fixes NullPointerException)
         when(productRepository.save(any(Product.class))).thenAnswer(invocation -> {
@@ -83,37 +124,66 @@ class ProductServiceTest {
         Product savedProduct = captor.getValue();
         assertThat(savedProduct.getImageName()).isNotNull();
         assertThat(savedProduct.getImageName()).endsWith(".png");
+        assertThat(savedProduct.getImageHash()).isEqualTo(ProductImageService.sha256Hex("dummy".getBytes()));
+
+        verify(imageStore, times(1)).put("dummy".getBytes());
+        verify(productSearchIndex, times(1)).index(savedProduct);
+        verify(categoryFacetService, times(1)).refresh(savedProduct.getCategory());
+        verify(productImageVariantService, times(1)).schedule(savedProduct.getId(), savedProduct.getImageHash());
+    }
+
+    @Test
+    void testProductsNeedAName() {
+        product.setName(" ");
+        assertThatThrownBy(() -> productService.saveProduct(product, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> productService.updateProduct(1L, null, "desc", 10.0, "Home", null))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(productRepository);
     }
 
     @Test
     void testGetAllProducts() {
-        when(productRepository.findAll()).thenReturn(Arrays.asList(product));
+        ProductSummary summary = mock(ProductSummary.class);
+        when(summary.getName()).thenReturn("Test Product");
+        when(productRepository.findSummariesBy(Sort.by("id"))).thenReturn(Arrays.asList(summary));
 
-        List<Product> products = productService.getAllProducts();
+        List<ProductSummary> products = productService.getAllProducts();
 
         assertThat(products).hasSize(1);
         assertThat(products.get(0).getName()).isEqualTo("Test Product");
-        verify(productRepository, times(1)).findAll();
+        verify(productRepository, times(1)).findSummariesBy(Sort.by("id"));
+        verify(productRepository, never()).findAll();
     }
 
     @Test
     void testGetProductByIdFound() {
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        ProductSummary summary = mock(ProductSummary.class);
+        when(summary.getId()).thenReturn(1L);
+        when(summary.getName()).thenReturn("Test Product");
+        when(productRepository.findSummaryById(1L)).thenReturn(Optional.of(summary));
 
-        Product result = productService.getProductById(1L);
+        ProductDTO result = productService.getProductById(1L);
 
         assertThat(result).isNotNull();
         assertThat(result.getName()).isEqualTo("Test Product");
-        verify(productRepository, times(1)).findById(1L);
+        verify(productRepository, times(1)).findSummaryById(1L);
+        verify(productRepository, never()).findById(anyLong());
     }
 
     @Test
     void testGetProductByIdNotFound() {
-        when(productRepository.findById(2L)).thenReturn(Optional.empty());
+        when(productRepository.findSummaryById(2L)).thenReturn(Optional.empty());
 
-        Product result = productService.getProductById(2L);
+        ProductDTO result = productService.getProductById(2L);
 
         assertThat(result).isNull();
-        verify(productRepository, times(1)).findById(2L);
+        verify(productRepository, times(1)).findSummaryById(2L);
+    }
+
+    private static ProductSummary summary(Long id) {
+        ProductSummary summary = mock(ProductSummary.class);
+        when(summary.getId()).thenReturn(id);
+        return summary;
     }
 }
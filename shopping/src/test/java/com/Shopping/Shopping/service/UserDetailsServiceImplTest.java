@@ -0,0 +1,75 @@
+package com.Shopping.Shopping.service;
+
+import com.Shopping.Shopping.TestDatabase;
+import com.Shopping.Shopping.config.CacheConfig;
+import com.Shopping.Shopping.model.User;
+import com.Shopping.Shopping.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class UserDetailsServiceImplTest {
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(CacheConfig.USER_DETAILS).clear();
+        user = new User();
+        user.setUsername("cached");
+        user.setPassword("hash-1");
+        user = userRepository.saveAndFlush(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TestDatabase.clear(jdbcTemplate);
+    }
+
+    @Test
+    void principalIsServedFromCacheUntilEvicted() {
+        UserDetails first = userDetailsService.loadUserByUsername(user.getUsername());
+        // What the authentication manager does to the principal it returns
+        ((org.springframework.security.core.userdetails.User) first).eraseCredentials();
+
+        user.setPassword("hash-2");
+        userRepository.saveAndFlush(user);
+
+        UserDetails cached = userDetailsService.loadUserByUsername(user.getUsername());
+        assertThat(cached).isNotSameAs(first);
+        assertThat(cached.getPassword()).isEqualTo("hash-1");
+
+        userDetailsService.evict(user.getUsername());
+        assertThat(userDetailsService.loadUserByUsername(user.getUsername()).getPassword()).isEqualTo("hash-2");
+    }
+
+    @Test
+    void unknownUsersAreNotCached() {
+        String username = "missing";
+        assertThatThrownBy(() -> userDetailsService.loadUserByUsername(username))
+                .isInstanceOf(UsernameNotFoundException.class);
+        assertThat(cacheManager.getCache(CacheConfig.USER_DETAILS).get("user:" + username)).isNull();
+    }
+}
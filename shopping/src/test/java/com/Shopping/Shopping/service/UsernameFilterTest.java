@@ -0,0 +1,74 @@
+package com.Shopping.Shopping.service;
+
+import com.Shopping.Shopping.TestDatabase;
+import com.Shopping.Shopping.model.Seller;
+import com.Shopping.Shopping.model.User;
+import com.Shopping.Shopping.repository.SellerRepository;
+import com.Shopping.Shopping.repository.UserRepository;
+import com.Shopping.Shopping.service.UsernameFilter.Accounts;
+import com.Shopping.Shopping.util.BloomFilter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class UsernameFilterTest {
+
+    @Autowired
+    private UsernameFilter usernameFilter;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SellerRepository sellerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        TestDatabase.clear(jdbcTemplate);
+    }
+
+    @Test
+    void accountsSavedThroughJpaAreKnownAndSurviveRebuilds() {
+        String username = "filtered";
+        assertThat(usernameFilter.mightExist(Accounts.USERS, username)).isFalse();
+
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("hash");
+        userRepository.saveAndFlush(user);
+        assertThat(usernameFilter.mightExist(Accounts.USERS, username)).isTrue();
+        // Customers and sellers are separate namespaces
+        assertThat(usernameFilter.mightExist(Accounts.SELLERS, username)).isFalse();
+
+        usernameFilter.rebuild(Accounts.USERS);
+        assertThat(usernameFilter.mightExist(Accounts.USERS, username)).isTrue();
+
+        Seller seller = new Seller();
+        seller.setUsername(username);
+        seller.setPassword("hash");
+        seller = sellerRepository.saveAndFlush(seller);
+        sellerRepository.deleteById(seller.getId());
+        // Deleted names linger as false positives; the database still answers correctly
+        assertThat(usernameFilter.mightExist(Accounts.SELLERS, username)).isTrue();
+    }
+
+    @Test
+    void bloomFilterStaysNearItsFalsePositiveRate() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filter.put("user-" + i));
+
+        assertThat(IntStream.range(0, 10_000).allMatch(i -> filter.mightContain("user-" + i))).isTrue();
+        long falsePositives = IntStream.range(0, 10_000).filter(i -> filter.mightContain("other-" + i)).count();
+        assertThat(falsePositives).isLessThan(200);
+    }
+}
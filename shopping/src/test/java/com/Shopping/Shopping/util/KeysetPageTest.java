@@ -0,0 +1,63 @@
+package com.Shopping.Shopping.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetPageTest {
+
+    private static final Set<String> SORTS = Set.of("id", "price");
+
+    @Test
+    void sortsAreTieBrokenOnIdInTheSameDirection() {
+        assertThat(KeysetPage.sort("price", "DESC", SORTS))
+                .containsExactly(Sort.Order.desc("price"), Sort.Order.desc("id"));
+        assertThat(KeysetPage.sort("id", "asc", SORTS)).containsExactly(Sort.Order.asc("id"));
+    }
+
+    @Test
+    void unknownSortsAndDirectionsAreRejected() {
+        assertThatThrownBy(() -> KeysetPage.sort("name", "asc", SORTS))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unsupported sort: name");
+        // A typo must not silently come back in ascending order
+        assertThatThrownBy(() -> KeysetPage.sort("price", "dsc", SORTS))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unsupported sort direction: dsc");
+        assertThatThrownBy(() -> KeysetPage.sort("price", "", SORTS))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void cursorsRoundTripTheLastRowsKeys() {
+        Sort sort = KeysetPage.sort("price", "asc", SORTS);
+        Window<String> window = Window.from(List.of("a", "b"),
+                i -> ScrollPosition.forward(Map.of("price", 10.0 + i, "id", 7L + i)), true);
+
+        String cursor = KeysetPage.page(window, item -> item).getNextCursor();
+
+        assertThat(KeysetPage.position(cursor, sort))
+                .isEqualTo(ScrollPosition.forward(Map.of("price", 11.0, "id", 8L)));
+    }
+
+    @Test
+    void noCursorIsMadeFromANullKey() {
+        Map<String, Object> keys = new HashMap<>();
+        keys.put("name", null);
+        keys.put("id", 7L);
+        Window<String> window = Window.from(List.of("a"), i -> ScrollPosition.forward(keys), true);
+
+        assertThatThrownBy(() -> KeysetPage.page(window, item -> item))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("name");
+    }
+}